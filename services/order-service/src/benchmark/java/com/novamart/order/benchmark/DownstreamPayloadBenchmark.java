@@ -0,0 +1,121 @@
+package com.novamart.order.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novamart.order.service.InventoryCheckRequest;
+import com.novamart.order.service.InventoryCheckResponse;
+import com.novamart.order.service.PaymentRequest;
+import com.novamart.order.service.PaymentResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of the downstream request and reply bodies, as untyped
+ * maps (how the clients used to build and read them) versus the typed records.
+ *
+ * Each iteration handles the bodies of one order: the inventory check request
+ * and reply, and the payment request and reply. Run with the GC profiler to
+ * compare allocation per order (gc.alloc.rate.norm):
+ *
+ *     mvn -Pbenchmark verify -Djmh.args="DownstreamPayloadBenchmark -prof gc"
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DownstreamPayloadBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int items;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<String> productIds;
+    private byte[] inventoryReply;
+    private byte[] paymentReply;
+
+    @Setup
+    public void setUp() throws Exception {
+        productIds = new ArrayList<>();
+        List<Map<String, Object>> replyItems = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            String productId = String.format("SKU-%04d", i);
+            productIds.add(productId);
+            replyItems.add(Map.of("item_id", productId, "requested", 1, "available", 250, "in_stock", true));
+        }
+        inventoryReply = objectMapper.writeValueAsBytes(Map.of(
+                "available", true, "items", replyItems, "message", "All items available"));
+        paymentReply = objectMapper.writeValueAsBytes(Map.of(
+                "payment_id", "6f1c1f2e-3b5e-4c8a-9d0e-2f4b6a8c0e1d",
+                "order_id", "0190a8e2-7c4d-7b1e-8f3a-5d6e7f8a9b0c",
+                "amount", "59.98",
+                "currency", "USD",
+                "status", "completed",
+                "payment_method", "credit_card",
+                "transaction_id", "txn_8f3a5d6e7f8a",
+                "created_at", "2026-01-01T12:00:00.000000",
+                "updated_at", "2026-01-01T12:00:00.000000"));
+    }
+
+    @Benchmark
+    public boolean untypedMaps() throws Exception {
+        List<Map<String, Object>> requestItems = productIds.stream()
+                .map(productId -> {
+                    Map<String, Object> item = new HashMap<>();
+                    item.put("item_id", productId);
+                    item.put("quantity", 1);
+                    return item;
+                })
+                .toList();
+        Map<String, Object> inventoryRequest = new HashMap<>();
+        inventoryRequest.put("items", requestItems);
+        byte[] inventoryBody = objectMapper.writeValueAsBytes(inventoryRequest);
+
+        Map<?, ?> inventory = objectMapper.readValue(inventoryReply, Map.class);
+        boolean available = Boolean.TRUE.equals(inventory.get("available"));
+
+        Map<String, Object> paymentRequest = new HashMap<>();
+        paymentRequest.put("order_id", "0190a8e2-7c4d-7b1e-8f3a-5d6e7f8a9b0c");
+        paymentRequest.put("customer_id", "customer-123");
+        paymentRequest.put("amount", 59.98);
+        paymentRequest.put("currency", "USD");
+        paymentRequest.put("payment_method", "credit_card");
+        paymentRequest.put("idempotency_key", "0190a8e2-7c4d-7b1e-8f3a-5d6e7f8a9b0c");
+        byte[] paymentBody = objectMapper.writeValueAsBytes(paymentRequest);
+
+        Map<?, ?> payment = objectMapper.readValue(paymentReply, Map.class);
+        return available && "completed".equals(payment.get("status"))
+                && inventoryBody.length + paymentBody.length > 0;
+    }
+
+    @Benchmark
+    public boolean typedRecords() throws Exception {
+        byte[] inventoryBody = objectMapper.writeValueAsBytes(new InventoryCheckRequest(productIds));
+
+        InventoryCheckResponse inventory = objectMapper.readValue(inventoryReply, InventoryCheckResponse.class);
+
+        byte[] paymentBody = objectMapper.writeValueAsBytes(PaymentRequest.forOrder(
+                "0190a8e2-7c4d-7b1e-8f3a-5d6e7f8a9b0c", "customer-123", 59.98));
+
+        PaymentResponse payment = objectMapper.readValue(paymentReply, PaymentResponse.class);
+        return inventory.available() && "completed".equals(payment.status())
+                && inventoryBody.length + paymentBody.length > 0;
+    }
+}
@@ -0,0 +1,54 @@
+package com.novamart.order.benchmark;
+
+import com.novamart.order.id.OrderIdGenerator;
+import com.novamart.order.id.RandomOrderIdGenerator;
+import com.novamart.order.id.TimeOrderedOrderIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order ID generation throughput with 64 concurrent request threads.
+ *
+ * Run with: mvn -Pbenchmark verify -Djmh.args="OrderIdGeneratorBenchmark"
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class OrderIdGeneratorBenchmark {
+
+    @Param({"random", "time-ordered"})
+    private String generator;
+
+    private OrderIdGenerator orderIdGenerator;
+
+    @Setup
+    public void setUp() {
+        orderIdGenerator = switch (generator) {
+            case "random" -> new RandomOrderIdGenerator();
+            case "time-ordered" -> new TimeOrderedOrderIdGenerator();
+            default -> throw new IllegalArgumentException("Unknown generator: " + generator);
+        };
+    }
+
+    @Benchmark
+    public String nextId() {
+        return orderIdGenerator.nextId();
+    }
+}
@@ -0,0 +1,121 @@
+package com.novamart.order.benchmark;
+
+import com.novamart.order.telemetry.OrderAttributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-order span instrumentation cost with string attribute names versus the
+ * shared {@link OrderAttributes} keys.
+ *
+ * Each iteration creates the spans and attributes of one sequentially orchestrated
+ * order (order.create, inventory.check, payment.process) on the OpenTelemetry SDK,
+ * sampled or not, with no exporter. Run with the GC profiler to compare allocation
+ * per order (gc.alloc.rate.norm):
+ *
+ *     mvn -Pbenchmark verify -Djmh.args="SpanAttributeBenchmark -prof gc"
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpanAttributeBenchmark {
+
+    private static final String ORDER_ID = "0190a8e2-7c4d-7b1e-8f3a-5d6e7f8a9b0c";
+    private static final String CUSTOMER_ID = "customer-123";
+    private static final String TRANSACTION_ID = "txn_8f3a5d6e7f8a";
+    private static final int ITEM_COUNT = 3;
+    private static final double TOTAL_AMOUNT = 142.50;
+
+    @Param({"sampled", "unsampled"})
+    private String sampling;
+
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @Setup
+    public void setUp() {
+        tracerProvider = SdkTracerProvider.builder()
+                .setSampler("sampled".equals(sampling) ? Sampler.alwaysOn() : Sampler.alwaysOff())
+                .build();
+        tracer = tracerProvider.get("order-service-benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Benchmark
+    public void stringKeys() {
+        Span order = tracer.spanBuilder("order.create")
+                .setAttribute("order.customer_id", CUSTOMER_ID)
+                .setAttribute("order.item_count", ITEM_COUNT)
+                .startSpan();
+        order.setAttribute("order.total_amount", TOTAL_AMOUNT);
+
+        Span inventory = tracer.spanBuilder("inventory.check")
+                .setAttribute("inventory.product_count", ITEM_COUNT)
+                .startSpan();
+        inventory.setAttribute("inventory.available", true);
+        inventory.end();
+
+        Span payment = tracer.spanBuilder("payment.process")
+                .setAttribute("payment.order_id", ORDER_ID)
+                .setAttribute("payment.customer_id", CUSTOMER_ID)
+                .setAttribute("payment.amount", TOTAL_AMOUNT)
+                .startSpan();
+        payment.setAttribute("payment.success", true);
+        payment.setAttribute("payment.transaction_id", TRANSACTION_ID);
+        payment.end();
+
+        order.setAttribute("order.status", "CONFIRMED");
+        order.end();
+    }
+
+    @Benchmark
+    public void sharedKeys() {
+        Span order = tracer.spanBuilder("order.create")
+                .setAttribute(OrderAttributes.ORDER_CUSTOMER_ID, CUSTOMER_ID)
+                .setAttribute(OrderAttributes.ORDER_ITEM_COUNT, (long) ITEM_COUNT)
+                .startSpan();
+        order.setAttribute(OrderAttributes.ORDER_TOTAL_AMOUNT, TOTAL_AMOUNT);
+
+        Span inventory = tracer.spanBuilder("inventory.check")
+                .setAttribute(OrderAttributes.INVENTORY_PRODUCT_COUNT, (long) ITEM_COUNT)
+                .startSpan();
+        inventory.setAttribute(OrderAttributes.INVENTORY_AVAILABLE, true);
+        inventory.end();
+
+        Span payment = tracer.spanBuilder("payment.process")
+                .setAttribute(OrderAttributes.PAYMENT_ORDER_ID, ORDER_ID)
+                .setAttribute(OrderAttributes.PAYMENT_CUSTOMER_ID, CUSTOMER_ID)
+                .setAttribute(OrderAttributes.PAYMENT_AMOUNT, TOTAL_AMOUNT)
+                .startSpan();
+        payment.setAttribute(OrderAttributes.PAYMENT_SUCCESS, true);
+        payment.setAttribute(OrderAttributes.PAYMENT_TRANSACTION_ID, TRANSACTION_ID);
+        payment.end();
+
+        order.setAttribute(OrderAttributes.ORDER_STATUS, "CONFIRMED");
+        order.end();
+    }
+}
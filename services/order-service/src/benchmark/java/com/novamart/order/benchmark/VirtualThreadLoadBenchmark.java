@@ -0,0 +1,201 @@
+package com.novamart.order.benchmark;
+
+import com.novamart.order.config.DownstreamExecutorConfig;
+import com.novamart.order.id.TimeOrderedOrderIdGenerator;
+import com.novamart.order.model.OrderRequest;
+import com.novamart.order.resilience.DependencyGuard;
+import com.novamart.order.resilience.RequestHedger;
+import com.novamart.order.resilience.Retrier;
+import com.novamart.order.service.InventoryClient;
+import com.novamart.order.service.OrderService;
+import com.novamart.order.service.OrderStageMetrics;
+import com.novamart.order.service.PaymentClient;
+import com.novamart.order.store.BoundedOrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order throughput and latency with platform versus virtual request threads.
+ *
+ * Drives {@link OrderService#createOrder} from 1k-10k concurrent closed-loop
+ * clients. Orders are served either by a 200-thread platform pool with an
+ * unbounded queue (Tomcat's default) or by a virtual thread per order, and the
+ * inventory and payment calls block for a fixed latency as remote calls would.
+ * Prints orders/s and p50/p99 latency for each mode and concurrency level.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.novamart.order.benchmark.VirtualThreadLoadBenchmark \
+ *     [-Dexec.args="sequential 1000,5000,10000"]
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public final class VirtualThreadLoadBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final Duration DOWNSTREAM_LATENCY = Duration.ofMillis(50);
+    private static final Duration WARMUP = Duration.ofSeconds(3);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+
+    private VirtualThreadLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String orchestration = args.length > 0 ? args[0] : "sequential";
+        int[] concurrencyLevels = Arrays.stream((args.length > 1 ? args[1] : "1000,5000,10000").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        System.out.printf("orchestration=%s, downstream latency=%d ms per call%n",
+                orchestration, DOWNSTREAM_LATENCY.toMillis());
+        System.out.printf("%-9s %11s %12s %9s %9s%n", "threads", "concurrency", "orders/s", "p50 ms", "p99 ms");
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            for (int concurrency : concurrencyLevels) {
+                Result result = run(virtualThreads, orchestration, concurrency);
+                System.out.printf("%-9s %11d %12.0f %9.1f %9.1f%n", virtualThreads ? "virtual" : "platform",
+                        concurrency, result.ordersPerSecond(), result.p50Millis(), result.p99Millis());
+            }
+        }
+    }
+
+    private static Result run(boolean virtualThreads, String orchestration, int concurrency) throws Exception {
+        ExecutorService requestExecutor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : new ThreadPoolExecutor(PLATFORM_THREADS, PLATFORM_THREADS, 60, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>());
+        ExecutorService downstreamExecutor =
+                new DownstreamExecutorConfig().downstreamExecutor(virtualThreads, 64, 256);
+        OrderService orderService = new OrderService(
+                new SimulatedInventoryClient(), new SimulatedPaymentClient(),
+                OpenTelemetry.noop().getTracer("benchmark"),
+                new BoundedOrderStore(100_000, Duration.ofHours(1), new SimpleMeterRegistry()),
+                new TimeOrderedOrderIdGenerator(), downstreamExecutor,
+                new OrderStageMetrics("benchmark", new SimpleMeterRegistry()), orchestration);
+        OrderRequest request = OrderRequest.builder()
+                .customerId("customer-benchmark")
+                .items(List.of(OrderRequest.OrderItem.builder().productId("WIDGET-001").quantity(1).price(9.99).build()))
+                .build();
+
+        long measureStart = System.nanoTime() + WARMUP.toNanos();
+        long measureEnd = measureStart + MEASUREMENT.toNanos();
+        LatencyRecorder[] recorders = new LatencyRecorder[concurrency];
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders[i] = recorder;
+                clients.submit(() -> {
+                    long now;
+                    while ((now = System.nanoTime()) < measureEnd) {
+                        requestExecutor.submit(() -> orderService.createOrder(request)).get();
+                        if (now >= measureStart) {
+                            recorder.record(System.nanoTime() - now);
+                        }
+                    }
+                    return null;
+                });
+            }
+        } finally {
+            requestExecutor.shutdownNow();
+            downstreamExecutor.shutdownNow();
+        }
+
+        long[] latencies = LatencyRecorder.merge(recorders);
+        Arrays.sort(latencies);
+        return new Result(latencies.length / (MEASUREMENT.toNanos() / 1e9),
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99));
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static void sleepDownstream() {
+        try {
+            Thread.sleep(DOWNSTREAM_LATENCY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Result(double ordersPerSecond, double p50Millis, double p99Millis) {
+    }
+
+    /**
+     * Latencies recorded by one client; only its own thread writes to it.
+     */
+    private static final class LatencyRecorder {
+        private long[] samples = new long[256];
+        private int size;
+
+        void record(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        static long[] merge(LatencyRecorder[] recorders) {
+            int total = 0;
+            for (LatencyRecorder recorder : recorders) {
+                total += recorder.size;
+            }
+            long[] merged = new long[total];
+            int position = 0;
+            for (LatencyRecorder recorder : recorders) {
+                System.arraycopy(recorder.samples, 0, merged, position, recorder.size);
+                position += recorder.size;
+            }
+            return merged;
+        }
+    }
+
+    private static final class SimulatedInventoryClient extends InventoryClient {
+        SimulatedInventoryClient() {
+            super(null, OpenTelemetry.noop().getTracer("benchmark"), "http://inventory",
+                    DependencyGuard.passThrough("inventory"), RequestHedger.passThrough(),
+                    Retrier.passThrough(), false, Duration.ZERO, 1,
+                    false, Duration.ZERO, Duration.ZERO, 1, new SimpleMeterRegistry());
+        }
+
+        @Override
+        public boolean checkAvailability(List<String> productIds) {
+            sleepDownstream();
+            return true;
+        }
+    }
+
+    private static final class SimulatedPaymentClient extends PaymentClient {
+        SimulatedPaymentClient() {
+            super(null, OpenTelemetry.noop().getTracer("benchmark"), "http://payment",
+                    DependencyGuard.passThrough("payment"), Retrier.passThrough());
+        }
+
+        @Override
+        public boolean processPayment(String orderId, String customerId, double amount) {
+            sleepDownstream();
+            return true;
+        }
+
+        @Override
+        public java.util.Optional<String> authorizePayment(String orderId, String customerId, double amount) {
+            sleepDownstream();
+            return java.util.Optional.of("payment-" + orderId);
+        }
+
+        @Override
+        public boolean capturePayment(String paymentId) {
+            sleepDownstream();
+            return true;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.novamart.order;
 
+import com.novamart.order.store.DurableOrderStore;
+import com.novamart.order.store.OrderStore;
+import com.novamart.order.store.RestoreReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,7 +13,7 @@ import org.springframework.context.annotation.Bean;
 
 /**
  * Main application class for the Order Service.
- * Displays a startup banner with environment and version information.
+ * Displays a startup banner with environment, version and order store restore information.
  * Workshop: From Commit to Culprit - Order Service
  */
 @SpringBootApplication
@@ -34,7 +37,8 @@ public class OrderServiceApplication {
             @Value("${order.service.environment:local}") String environment,
             @Value("${order.service.bug.enabled:false}") boolean bugEnabled,
             @Value("${services.inventory.url}") String inventoryUrl,
-            @Value("${services.payment.url}") String paymentUrl) {
+            @Value("${services.payment.url}") String paymentUrl,
+            OrderStore orderStore) {
 
         return args -> {
             String banner = """
@@ -55,6 +59,9 @@ public class OrderServiceApplication {
                       - EDOT Java Agent:   Enabled
                       - Trace Propagation: W3C Trace Context
                       - Log Correlation:   trace_id in MDC
+                    ------------------------------------------------------------
+                    Order Store:
+                    %s
                     ============================================================
 
                     """.formatted(
@@ -64,7 +71,8 @@ public class OrderServiceApplication {
                     environment,
                     port,
                     inventoryUrl,
-                    paymentUrl
+                    paymentUrl,
+                    describeRestore(orderStore)
             );
 
             System.out.println(banner);
@@ -85,4 +93,23 @@ public class OrderServiceApplication {
             log.info("Ready check available at: http://localhost:{}/api/orders/ready", port);
         };
     }
+
+    /**
+     * Summarizes what the order store restored at startup for the banner.
+     */
+    private static String describeRestore(OrderStore orderStore) {
+        if (!(orderStore instanceof DurableOrderStore durable)) {
+            return "  - Persistence:       Disabled (orders are lost on restart)";
+        }
+        RestoreReport report = durable.getRestoreReport();
+        String snapshot = report.snapshotFile() == null
+                ? "  - Snapshot:          None found"
+                : "  - Snapshot:          %s (%d orders, %.1f MB, written in %d ms)".formatted(
+                        report.snapshotFile(),
+                        report.snapshotOrders(),
+                        report.snapshotBytes() / (1024.0 * 1024.0),
+                        report.snapshotWriteMillis());
+        return snapshot + "\n" + "  - Restored in:       %d ms (+ %d orders from the log in %d ms)".formatted(
+                report.restoreMillis(), report.logOrders(), report.logReplayMillis());
+    }
 }
@@ -0,0 +1,415 @@
+package com.novamart.order.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, concurrent cache with segmented-LRU eviction and expire-after-write.
+ *
+ * Keys are spread over lock-striped segments. Each segment keeps two access-ordered
+ * lists: new entries land in <em>probation</em> and are promoted to <em>protected</em>
+ * on their first hit, so a burst of one-off keys only churns probation and cannot
+ * flush the frequently read entries. When a segment is over capacity the least
+ * recently used probation entry is evicted. Entries older than the TTL are removed
+ * when read and by a periodic sweep of each segment. {@link #peek} reads an entry
+ * without any of these effects.
+ * Workshop: From Commit to Culprit - Order Service
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class SegmentedLruCache<K, V> {
+
+    /**
+     * Why an entry left the cache.
+     */
+    public enum RemovalCause {
+        /** Evicted to keep the cache within its maximum size. */
+        SIZE,
+        /** Removed because it was older than the TTL. */
+        EXPIRED
+    }
+
+    /**
+     * Notified of evictions while the segment lock is held, so implementations must
+     * be fast and must not call back into the cache.
+     */
+    @FunctionalInterface
+    public interface EvictionListener<K, V> {
+        void onEviction(K key, V value, RemovalCause cause);
+    }
+
+    private static final double PROTECTED_SHARE = 0.8;
+    private static final int SWEEP_INTERVAL_WRITES = 1024;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final int segmentCapacity;
+    private final int protectedCapacity;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier ticker;
+    private final EvictionListener<K, V> evictionListener;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder expiredEvictions = new LongAdder();
+
+    /**
+     * @param maximumSize       Maximum number of entries (split evenly across segments, rounded up)
+     * @param expireAfterWrite  Age after which entries are removed
+     * @param concurrencyLevel  Expected number of concurrent writers (rounded up to a power of two)
+     * @param evictionListener  Notified of each eviction (may be null)
+     */
+    public SegmentedLruCache(long maximumSize, Duration expireAfterWrite, int concurrencyLevel,
+                             EvictionListener<K, V> evictionListener) {
+        this(maximumSize, expireAfterWrite, concurrencyLevel, evictionListener, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    SegmentedLruCache(long maximumSize, Duration expireAfterWrite, int concurrencyLevel,
+                      EvictionListener<K, V> evictionListener, LongSupplier ticker) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel && segmentCount < maximumSize) {
+            segmentCount <<= 1;
+        }
+
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>();
+        }
+        this.segmentMask = segmentCount - 1;
+        this.segmentCapacity = (int) Math.min(Integer.MAX_VALUE, (maximumSize + segmentCount - 1) / segmentCount);
+        this.protectedCapacity = (int) (segmentCapacity * PROTECTED_SHARE);
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.evictionListener = evictionListener;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Looks up a value, promoting it on a hit.
+     *
+     * @param key The key
+     * @return The value, or null if absent or expired
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = ticker.getAsLong();
+        segment.lock.lock();
+        try {
+            Node<V> node = segment.protectedEntries.get(key);
+            if (node == null) {
+                node = segment.probation.remove(key);
+                if (node != null) {
+                    if (isExpired(node, now)) {
+                        evict(key, node, RemovalCause.EXPIRED);
+                        node = null;
+                    } else {
+                        promote(segment, key, node);
+                    }
+                }
+            } else if (isExpired(node, now)) {
+                segment.protectedEntries.remove(key);
+                evict(key, node, RemovalCause.EXPIRED);
+                node = null;
+            } else {
+                moveToMostRecent(segment.protectedEntries, key, node);
+            }
+
+            if (node == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return node.value();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Looks up a value without promoting it, refreshing its recency or counting a
+     * hit or miss, for reads that are not demand for the entry (listings, scans).
+     * An expired entry is reported absent but left for the next read or sweep.
+     *
+     * @param key The key
+     * @return The value, or null if absent or expired
+     */
+    public V peek(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = ticker.getAsLong();
+        segment.lock.lock();
+        try {
+            Node<V> node = segment.protectedEntries.get(key);
+            if (node == null) {
+                node = segment.probation.get(key);
+            }
+            return node == null || isExpired(node, now) ? null : node.value();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces a value. Replacing a protected entry keeps it protected.
+     *
+     * @param key   The key
+     * @param value The value
+     */
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        Node<V> node = new Node<>(value, ticker.getAsLong());
+        segment.lock.lock();
+        try {
+            if (segment.protectedEntries.containsKey(key)) {
+                moveToMostRecent(segment.protectedEntries, key, node);
+            } else {
+                moveToMostRecent(segment.probation, key, node);
+            }
+            evictOverflow(segment);
+            if (++segment.writesSinceSweep >= SWEEP_INTERVAL_WRITES) {
+                segment.writesSinceSweep = 0;
+                sweepExpired(segment, node.writeNanos());
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts a value unless the key already has a live one. The check and the
+     * insert happen under the segment lock, so of several concurrent callers for
+     * the same key exactly one inserts. An expired entry counts as absent.
+     *
+     * @param key   The key
+     * @param value The value to insert
+     * @return The existing value (promoted as on a hit), or null if the value was inserted
+     */
+    public V putIfAbsent(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = ticker.getAsLong();
+        segment.lock.lock();
+        try {
+            Node<V> existing = segment.protectedEntries.get(key);
+            if (existing == null) {
+                existing = segment.probation.remove(key);
+                if (existing != null && !isExpired(existing, now)) {
+                    promote(segment, key, existing);
+                }
+            } else if (isExpired(existing, now)) {
+                segment.protectedEntries.remove(key);
+            } else {
+                moveToMostRecent(segment.protectedEntries, key, existing);
+            }
+            if (existing != null && !isExpired(existing, now)) {
+                hits.increment();
+                return existing.value();
+            }
+            if (existing != null) {
+                evict(key, existing, RemovalCause.EXPIRED);
+            }
+
+            misses.increment();
+            segment.probation.put(key, new Node<>(value, now));
+            evictOverflow(segment);
+            if (++segment.writesSinceSweep >= SWEEP_INTERVAL_WRITES) {
+                segment.writesSinceSweep = 0;
+                sweepExpired(segment, now);
+            }
+            return null;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a key without notifying the eviction listener.
+     *
+     * @param key The key
+     * @return The removed value, or null if absent
+     */
+    public V remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Node<V> node = segment.protectedEntries.remove(key);
+            if (node == null) {
+                node = segment.probation.remove(key);
+            }
+            return node == null ? null : node.value();
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a key only while it still maps to the given value (compared by
+     * identity), without notifying the eviction listener.
+     *
+     * @param key   The key
+     * @param value The value expected for the key
+     * @return Whether the entry was removed
+     */
+    public boolean remove(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            LinkedHashMap<K, Node<V>> entries = segment.protectedEntries.containsKey(key)
+                    ? segment.protectedEntries
+                    : segment.probation;
+            Node<V> node = entries.get(key);
+            if (node == null || node.value() != value) {
+                return false;
+            }
+            entries.remove(key);
+            return true;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Visits every live entry. Each segment is copied under its lock and visited
+     * after the lock is released, so writers are only paused one segment at a time.
+     *
+     * @param action Receives each key and value
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        long now = ticker.getAsLong();
+        List<Map.Entry<K, V>> snapshot = new ArrayList<>();
+        for (Segment<K, V> segment : segments) {
+            snapshot.clear();
+            segment.lock.lock();
+            try {
+                copyLive(segment.protectedEntries, now, snapshot);
+                copyLive(segment.probation, now, snapshot);
+            } finally {
+                segment.lock.unlock();
+            }
+            for (Map.Entry<K, V> entry : snapshot) {
+                action.accept(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return Current number of entries (including any not yet swept after expiry)
+     */
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.probation.size() + segment.protectedEntries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount(RemovalCause cause) {
+        return cause == RemovalCause.SIZE ? sizeEvictions.sum() : expiredEvictions.sum();
+    }
+
+    private void promote(Segment<K, V> segment, K key, Node<V> node) {
+        segment.protectedEntries.put(key, node);
+        if (segment.protectedEntries.size() > protectedCapacity) {
+            // Demote the least recently used protected entry back to probation
+            Iterator<Map.Entry<K, Node<V>>> eldest = segment.protectedEntries.entrySet().iterator();
+            Map.Entry<K, Node<V>> demoted = eldest.next();
+            eldest.remove();
+            segment.probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private void moveToMostRecent(LinkedHashMap<K, Node<V>> entries, K key, Node<V> node) {
+        entries.remove(key);
+        entries.put(key, node);
+    }
+
+    private void evictOverflow(Segment<K, V> segment) {
+        while (segment.probation.size() + segment.protectedEntries.size() > segmentCapacity) {
+            LinkedHashMap<K, Node<V>> victims = segment.probation.isEmpty()
+                    ? segment.protectedEntries
+                    : segment.probation;
+            Iterator<Map.Entry<K, Node<V>>> eldest = victims.entrySet().iterator();
+            Map.Entry<K, Node<V>> victim = eldest.next();
+            eldest.remove();
+            evict(victim.getKey(), victim.getValue(), RemovalCause.SIZE);
+        }
+    }
+
+    private void sweepExpired(Segment<K, V> segment, long now) {
+        sweepExpired(segment.probation, now);
+        sweepExpired(segment.protectedEntries, now);
+    }
+
+    private void sweepExpired(LinkedHashMap<K, Node<V>> entries, long now) {
+        Iterator<Map.Entry<K, Node<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Node<V>> entry = iterator.next();
+            if (isExpired(entry.getValue(), now)) {
+                iterator.remove();
+                evict(entry.getKey(), entry.getValue(), RemovalCause.EXPIRED);
+            }
+        }
+    }
+
+    private void copyLive(LinkedHashMap<K, Node<V>> entries, long now, List<Map.Entry<K, V>> target) {
+        for (Map.Entry<K, Node<V>> entry : entries.entrySet()) {
+            if (!isExpired(entry.getValue(), now)) {
+                target.add(Map.entry(entry.getKey(), entry.getValue().value()));
+            }
+        }
+    }
+
+    private void evict(K key, Node<V> node, RemovalCause cause) {
+        (cause == RemovalCause.SIZE ? sizeEvictions : expiredEvictions).increment();
+        if (evictionListener != null) {
+            evictionListener.onEviction(key, node.value(), cause);
+        }
+    }
+
+    private boolean isExpired(Node<V> node, long now) {
+        return now - node.writeNanos() > expireAfterWriteNanos;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        // Spread high bits so similar keys don't share a segment
+        hash ^= (hash >>> 16);
+        return segments[hash & segmentMask];
+    }
+
+    private static final class Segment<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        // Kept in recency order by moving entries to the end on access, rather than
+        // with access-ordered maps, so that peek can read without reordering
+        final LinkedHashMap<K, Node<V>> probation = new LinkedHashMap<>();
+        final LinkedHashMap<K, Node<V>> protectedEntries = new LinkedHashMap<>();
+        int writesSinceSweep;
+    }
+
+    private record Node<V>(V value, long writeNanos) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.novamart.order.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apache HttpClient request factory that bounds the total time of each call.
+ *
+ * HttpClient only offers per-phase timeouts (pool wait, connect, each socket
+ * read), so a slow trickle of bytes can hold a request open far longer than any
+ * one of them. The {@link #deadlineInterceptor()} arms a timer around each
+ * RestTemplate exchange; if the response headers have not arrived when it fires,
+ * the underlying request is cancelled and the call fails with an I/O error.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+class DeadlineHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private final ThreadLocal<Deadline> currentDeadline = new ThreadLocal<>();
+    private final long totalTimeoutNanos;
+    private final Counter deadlineExceededCounter;
+
+    /**
+     * @param httpClient    The pooled client
+     * @param totalTimeout  Limit from sending the request to receiving the response headers
+     * @param meterRegistry Registry for the deadline counter
+     */
+    DeadlineHttpRequestFactory(HttpClient httpClient, Duration totalTimeout, MeterRegistry meterRegistry) {
+        super(httpClient);
+        this.totalTimeoutNanos = totalTimeout.toNanos();
+        this.deadlineExceededCounter = Counter.builder("order.http.deadline.exceeded")
+                .description("Downstream calls cancelled for exceeding the total timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return Interceptor that applies the total timeout; must be registered on the RestTemplate using this factory
+     */
+    ClientHttpRequestInterceptor deadlineInterceptor() {
+        return this::executeWithDeadline;
+    }
+
+    private ClientHttpResponse executeWithDeadline(HttpRequest request, byte[] body,
+                                                   ClientHttpRequestExecution execution) throws IOException {
+        Deadline deadline = new Deadline();
+        currentDeadline.set(deadline);
+        try {
+            return execution.execute(request, body);
+        } finally {
+            currentDeadline.remove();
+            deadline.disarm();
+        }
+    }
+
+    /**
+     * Called on the interceptor's thread once the HttpClient request exists; starts its timer.
+     */
+    @Override
+    protected void postProcessHttpRequest(ClassicHttpRequest request) {
+        Deadline deadline = currentDeadline.get();
+        if (deadline != null && request instanceof HttpUriRequestBase cancellable) {
+            deadline.arm(cancellable);
+        }
+    }
+
+    private final class Deadline {
+        private ScheduledFuture<?> timer;
+
+        void arm(HttpUriRequestBase request) {
+            timer = TIMER.schedule(() -> {
+                if (request.cancel()) {
+                    deadlineExceededCounter.increment();
+                }
+            }, totalTimeoutNanos, TimeUnit.NANOSECONDS);
+        }
+
+        void disarm() {
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "order-http-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+}
@@ -0,0 +1,81 @@
+package com.novamart.order.config;
+
+import io.opentelemetry.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuration for the executors that run downstream calls concurrently.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Configuration
+public class DownstreamExecutorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DownstreamExecutorConfig.class);
+
+    /**
+     * Provides the executor for parallel inventory and payment calls.
+     * With virtual threads enabled (spring.threads.virtual.enabled, which also moves
+     * Tomcat request handling onto virtual threads) every call gets its own virtual
+     * thread. Otherwise a fixed pool is used: when every thread is busy and the queue
+     * is full, the calling request thread runs the call itself, so overload degrades
+     * to sequential calls instead of failing orders. Tasks run in the submitter's
+     * trace context.
+     *
+     * @return The downstream executor
+     */
+    @Bean
+    public ExecutorService downstreamExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${order.service.fan-out.threads:64}") int threads,
+            @Value("${order.service.fan-out.queue-capacity:256}") int queueCapacity) {
+        return executor("order-downstream-", virtualThreads, threads, queueCapacity);
+    }
+
+    /**
+     * Provides the executor that hedged calls (both copies) run on. It is separate
+     * from the downstream executor because downstream tasks wait on hedged calls:
+     * were the copies queued behind those tasks on the same pool, a busy pool would
+     * have every thread waiting for work that no thread is free to run.
+     *
+     * @return The hedging executor
+     */
+    @Bean
+    public ExecutorService hedgingExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${order.service.hedging.threads:64}") int threads,
+            @Value("${order.service.hedging.queue-capacity:256}") int queueCapacity) {
+        return executor("order-hedging-", virtualThreads, threads, queueCapacity);
+    }
+
+    private static ExecutorService executor(String namePrefix, boolean virtualThreads, int threads,
+                                            int queueCapacity) {
+        if (virtualThreads) {
+            log.info("Executor {}*: virtual thread per task", namePrefix);
+            return Context.taskWrapping(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 1).factory()));
+        }
+        log.info("Executor {}*: threads={}, queueCapacity={}", namePrefix, threads, queueCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return Context.taskWrapping(executor);
+    }
+}
@@ -0,0 +1,147 @@
+package com.novamart.order.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Configuration for HTTP calls to the inventory and payment services.
+ * The transport is selected via services.transport and tuned via services.http.*.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Configuration
+public class DownstreamHttpConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DownstreamHttpConfig.class);
+
+    /**
+     * Provides the request factory for downstream calls.
+     * "http1" (default) pools keep-alive HTTP/1.1 connections in Apache HttpClient,
+     * one in-flight call per connection; "http2" uses the JDK HttpClient, which
+     * upgrades to cleartext HTTP/2 (h2c) where the service supports it and
+     * multiplexes concurrent calls over a few connections, falling back to
+     * pooled HTTP/1.1 where it does not.
+     *
+     * @return The request factory
+     */
+    @Bean
+    public ClientHttpRequestFactory downstreamRequestFactory(
+            @Value("${services.transport:http1}") String transport,
+            @Value("${services.http.max-connections:200}") int maxConnections,
+            @Value("${services.http.max-connections-per-route:100}") int maxConnectionsPerRoute,
+            @Value("${services.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${services.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${services.http.pool-timeout:500ms}") Duration poolTimeout,
+            @Value("${services.http.total-timeout:8s}") Duration totalTimeout,
+            @Value("${services.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${services.http.idle-timeout:30s}") Duration idleTimeout,
+            @Value("${services.http.connection-ttl:5m}") Duration connectionTtl,
+            MeterRegistry meterRegistry) {
+        return switch (transport) {
+            case "http1" -> {
+                log.info("Downstream transport http1: maxConnections={}, perRoute={}, connectTimeout={}, "
+                        + "readTimeout={}, totalTimeout={}", maxConnections, maxConnectionsPerRoute,
+                        connectTimeout, readTimeout, totalTimeout);
+                PoolingHttpClientConnectionManager connectionManager = pooledConnectionManager(maxConnections,
+                        maxConnectionsPerRoute, connectTimeout, readTimeout, connectionTtl, meterRegistry);
+                CloseableHttpClient httpClient = HttpClients.custom()
+                        .setConnectionManager(connectionManager)
+                        .setDefaultRequestConfig(RequestConfig.custom()
+                                .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                                .setResponseTimeout(Timeout.of(readTimeout))
+                                .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                                .build())
+                        .evictIdleConnections(TimeValue.of(idleTimeout))
+                        .evictExpiredConnections()
+                        .build();
+                yield new DeadlineHttpRequestFactory(httpClient, totalTimeout, meterRegistry);
+            }
+            case "http2" -> {
+                log.info("Downstream transport http2: connectTimeout={}, totalTimeout={}", connectTimeout, totalTimeout);
+                HttpClient httpClient = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_2)
+                        .connectTimeout(connectTimeout)
+                        .build();
+                JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+                // The JDK client's request timeout already spans the whole call up to the response headers
+                requestFactory.setReadTimeout(totalTimeout);
+                yield requestFactory;
+            }
+            default -> throw new IllegalArgumentException("Unknown downstream transport: " + transport);
+        };
+    }
+
+    /**
+     * Provides the RestTemplate used by the downstream clients.
+     * The EDOT Java agent instruments both transports; the propagation interceptor
+     * also writes the W3C trace context headers itself, so they are sent even
+     * when the agent does not instrument the chosen client.
+     *
+     * @return The RestTemplate instance
+     */
+    @Bean
+    public RestTemplate restTemplate(ClientHttpRequestFactory downstreamRequestFactory) {
+        RestTemplate restTemplate = new RestTemplate(downstreamRequestFactory);
+        restTemplate.getInterceptors().add(
+                new TracePropagationInterceptor(GlobalOpenTelemetry.getPropagators().getTextMapPropagator()));
+        if (downstreamRequestFactory instanceof DeadlineHttpRequestFactory deadlineFactory) {
+            restTemplate.getInterceptors().add(deadlineFactory.deadlineInterceptor());
+        }
+        return restTemplate;
+    }
+
+    /**
+     * Creates the HTTP/1.1 connection pool, with pool usage exported as
+     * order.http.pool.connections{state=leased|pending|available}.
+     */
+    private PoolingHttpClientConnectionManager pooledConnectionManager(
+            int maxConnections, int maxConnectionsPerRoute, Duration connectTimeout, Duration readTimeout,
+            Duration connectionTtl, MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTtl))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+
+        Gauge.builder("order.http.pool.connections", connectionManager, manager -> manager.getTotalStats().getLeased())
+                .description("Downstream HTTP connections by state")
+                .tag("state", "leased")
+                .register(meterRegistry);
+        Gauge.builder("order.http.pool.connections", connectionManager, manager -> manager.getTotalStats().getPending())
+                .description("Downstream HTTP connections by state")
+                .tag("state", "pending")
+                .register(meterRegistry);
+        Gauge.builder("order.http.pool.connections", connectionManager, manager -> manager.getTotalStats().getAvailable())
+                .description("Downstream HTTP connections by state")
+                .tag("state", "available")
+                .register(meterRegistry);
+        Gauge.builder("order.http.pool.max", connectionManager, manager -> manager.getTotalStats().getMax())
+                .description("Maximum downstream HTTP connections")
+                .register(meterRegistry);
+        return connectionManager;
+    }
+}
@@ -0,0 +1,37 @@
+package com.novamart.order.config;
+
+import com.novamart.order.id.OrderIdGenerator;
+import com.novamart.order.id.RandomOrderIdGenerator;
+import com.novamart.order.id.TimeOrderedOrderIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for order ID generation.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Configuration
+public class OrderIdConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIdConfig.class);
+
+    /**
+     * Provides the order ID generator.
+     * "time-ordered" (default) produces version 7 UUIDs without shared locks;
+     * "random" produces version 4 UUIDs from the shared SecureRandom.
+     *
+     * @return The order ID generator
+     */
+    @Bean
+    public OrderIdGenerator orderIdGenerator(@Value("${order.id.generator:time-ordered}") String generator) {
+        log.info("Using {} order IDs", generator);
+        return switch (generator) {
+            case "time-ordered" -> new TimeOrderedOrderIdGenerator();
+            case "random" -> new RandomOrderIdGenerator();
+            default -> throw new IllegalArgumentException("Unknown order ID generator: " + generator);
+        };
+    }
+}
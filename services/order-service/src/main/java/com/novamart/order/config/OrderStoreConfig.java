@@ -0,0 +1,82 @@
+package com.novamart.order.config;
+
+import com.novamart.order.store.BoundedOrderStore;
+import com.novamart.order.store.DurableOrderStore;
+import com.novamart.order.store.InMemoryOrderStore;
+import com.novamart.order.store.OffHeapOrderStore;
+import com.novamart.order.store.OrderStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Configuration for order storage.
+ * Selects the OrderStore implementation via order.store.type, optionally persisted
+ * with snapshots and a write-ahead log (order.store.persistence.*).
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Configuration
+public class OrderStoreConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStoreConfig.class);
+
+    /**
+     * Provides the order store.
+     * "bounded" (default) evicts by size and age; "offheap" keeps encoded orders in
+     * direct memory and evicts the oldest slab when full; "unbounded" keeps every order.
+     * With snapshots enabled the chosen store is restored from disk at startup; with
+     * the write-ahead log enabled as well, every confirmed order is fsynced before
+     * it is acknowledged.
+     *
+     * @return The order store instance
+     */
+    @Bean
+    public OrderStore orderStore(
+            @Value("${order.store.type:bounded}") String type,
+            @Value("${order.store.max-size:100000}") long maxSize,
+            @Value("${order.store.ttl:24h}") Duration ttl,
+            @Value("${order.store.offheap.slab-size:64MB}") DataSize slabSize,
+            @Value("${order.store.offheap.max-slabs:16}") int maxSlabs,
+            @Value("${order.store.persistence.dir:/var/lib/orders}") String dataDir,
+            @Value("${order.store.persistence.snapshot.enabled:false}") boolean snapshotEnabled,
+            @Value("${order.store.persistence.snapshot.interval:5m}") Duration snapshotInterval,
+            @Value("${order.store.persistence.wal.enabled:false}") boolean walEnabled,
+            @Value("${order.store.persistence.wal.segment-size:64MB}") DataSize walSegmentSize,
+            @Value("${order.store.persistence.wal.max-batch:1024}") int walMaxBatch,
+            MeterRegistry meterRegistry) {
+        OrderStore store = createStore(type, maxSize, ttl, slabSize, maxSlabs, meterRegistry);
+        if (!snapshotEnabled && !walEnabled) {
+            return store;
+        }
+        log.info("Order store persistence enabled: dir={}, snapshotInterval={}, wal={}",
+                dataDir, snapshotInterval, walEnabled);
+        return new DurableOrderStore(store, Paths.get(dataDir), walEnabled, walSegmentSize.toBytes(), walMaxBatch,
+                snapshotInterval, meterRegistry);
+    }
+
+    private OrderStore createStore(String type, long maxSize, Duration ttl, DataSize slabSize, int maxSlabs,
+                                   MeterRegistry meterRegistry) {
+        return switch (type) {
+            case "bounded" -> {
+                log.info("Using bounded order store: maxSize={}, ttl={}", maxSize, ttl);
+                yield new BoundedOrderStore(maxSize, ttl, meterRegistry);
+            }
+            case "offheap" -> {
+                log.info("Using off-heap order store: slabSize={}, maxSlabs={}", slabSize, maxSlabs);
+                yield new OffHeapOrderStore(Math.toIntExact(slabSize.toBytes()), maxSlabs, meterRegistry);
+            }
+            case "unbounded" -> {
+                log.warn("Using unbounded order store: heap grows with every confirmed order");
+                yield new InMemoryOrderStore();
+            }
+            default -> throw new IllegalArgumentException("Unknown order store type: " + type);
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package com.novamart.order.config;
+
+import io.netty.channel.ChannelOption;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking HTTP client for the reactive order pipeline (order.pipeline=reactive).
+ *
+ * A reactor-netty connection pool sized by the same services.http settings as
+ * the blocking transport. When every connection is busy, calls wait in a bounded
+ * pending-acquire queue for at most the pool timeout; past that they fail at
+ * once, which pushes back on callers instead of buffering unbounded work.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "reactive")
+public class ReactiveHttpConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveHttpConfig.class);
+
+    /**
+     * Provides the WebClient used by the reactive inventory and payment clients.
+     *
+     * @return The downstream WebClient
+     */
+    @Bean
+    public WebClient downstreamWebClient(
+            @Value("${services.http.max-connections:200}") int maxConnections,
+            @Value("${services.http.max-pending-acquires:1000}") int maxPendingAcquires,
+            @Value("${services.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${services.http.pool-timeout:500ms}") Duration poolTimeout,
+            @Value("${services.http.total-timeout:8s}") Duration totalTimeout,
+            @Value("${services.http.idle-timeout:30s}") Duration idleTimeout,
+            @Value("${services.http.connection-ttl:5m}") Duration connectionTtl) {
+        log.info("Reactive downstream client: maxConnections={}, maxPendingAcquires={}, totalTimeout={}",
+                maxConnections, maxPendingAcquires, totalTimeout);
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("order-downstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxPendingAcquires)
+                .pendingAcquireTimeout(poolTimeout)
+                .maxIdleTime(idleTimeout)
+                .maxLifeTime(connectionTtl)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(totalTimeout);
+
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Provides the propagator the reactive clients use to send the W3C trace context.
+     *
+     * @return The global text map propagator
+     */
+    @Bean
+    public TextMapPropagator textMapPropagator() {
+        return GlobalOpenTelemetry.getPropagators().getTextMapPropagator();
+    }
+}
@@ -0,0 +1,215 @@
+package com.novamart.order.config;
+
+import com.novamart.order.resilience.AdaptiveConcurrencyLimiter;
+import com.novamart.order.resilience.Bulkhead;
+import com.novamart.order.resilience.CircuitBreaker;
+import com.novamart.order.resilience.DependencyGuard;
+import com.novamart.order.resilience.RequestBudget;
+import com.novamart.order.resilience.RequestHedger;
+import com.novamart.order.resilience.Retrier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Configuration for the circuit breakers, bulkheads and adaptive concurrency
+ * limits around the inventory and payment services.
+ *
+ * Breaker and limiter settings are shared (services.resilience); the bulkhead
+ * size, which also caps the adaptive limit, and the duration from which a call
+ * counts as slow are set per service. Inventory checks, being idempotent reads,
+ * can also be hedged (services.inventory.hedging). Failed calls to either
+ * service are retried (services.resilience.retry) within one retry budget
+ * shared by both.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Configuration
+public class ResilienceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilienceConfig.class);
+
+    private final boolean enabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final Duration waitInOpen;
+    private final int halfOpenCalls;
+    private final Duration bulkheadMaxWait;
+    private final boolean adaptiveLimitEnabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final int baselineWindow;
+    private final boolean retryEnabled;
+    private final int retryMaxAttempts;
+    private final Duration retryInitialBackoff;
+    private final Duration retryMaxBackoff;
+    private final MeterRegistry meterRegistry;
+
+    public ResilienceConfig(
+            @Value("${services.resilience.enabled:true}") boolean enabled,
+            @Value("${services.resilience.circuit-breaker.window-size:50}") int windowSize,
+            @Value("${services.resilience.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${services.resilience.circuit-breaker.failure-rate-threshold:50}") double failureRateThreshold,
+            @Value("${services.resilience.circuit-breaker.slow-call-rate-threshold:80}") double slowCallRateThreshold,
+            @Value("${services.resilience.circuit-breaker.wait-in-open:10s}") Duration waitInOpen,
+            @Value("${services.resilience.circuit-breaker.half-open-calls:5}") int halfOpenCalls,
+            @Value("${services.resilience.bulkhead.max-wait:0ms}") Duration bulkheadMaxWait,
+            @Value("${services.resilience.adaptive-limit.enabled:false}") boolean adaptiveLimitEnabled,
+            @Value("${services.resilience.adaptive-limit.initial-limit:20}") int initialLimit,
+            @Value("${services.resilience.adaptive-limit.min-limit:4}") int minLimit,
+            @Value("${services.resilience.adaptive-limit.latency-tolerance:2.0}") double latencyTolerance,
+            @Value("${services.resilience.adaptive-limit.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${services.resilience.adaptive-limit.baseline-window:500}") int baselineWindow,
+            @Value("${services.resilience.retry.enabled:true}") boolean retryEnabled,
+            @Value("${services.resilience.retry.max-attempts:3}") int retryMaxAttempts,
+            @Value("${services.resilience.retry.initial-backoff:50ms}") Duration retryInitialBackoff,
+            @Value("${services.resilience.retry.max-backoff:500ms}") Duration retryMaxBackoff,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.waitInOpen = waitInOpen;
+        this.halfOpenCalls = halfOpenCalls;
+        this.bulkheadMaxWait = bulkheadMaxWait;
+        this.adaptiveLimitEnabled = adaptiveLimitEnabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.baselineWindow = baselineWindow;
+        this.retryEnabled = retryEnabled;
+        this.retryMaxAttempts = retryMaxAttempts;
+        this.retryInitialBackoff = retryInitialBackoff;
+        this.retryMaxBackoff = retryMaxBackoff;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Provides the guard for payment service calls.
+     *
+     * @return The payment guard
+     */
+    @Bean
+    public DependencyGuard paymentGuard(
+            @Value("${services.payment.bulkhead.max-concurrent:64}") int maxConcurrent,
+            @Value("${services.payment.slow-call-duration:2s}") Duration slowCallDuration) {
+        return guard("payment", maxConcurrent, slowCallDuration);
+    }
+
+    /**
+     * Provides the guard for inventory service calls.
+     *
+     * @return The inventory guard
+     */
+    @Bean
+    public DependencyGuard inventoryGuard(
+            @Value("${services.inventory.bulkhead.max-concurrent:64}") int maxConcurrent,
+            @Value("${services.inventory.slow-call-duration:1s}") Duration slowCallDuration) {
+        return guard("inventory", maxConcurrent, slowCallDuration);
+    }
+
+    /**
+     * Provides the hedger for inventory checks.
+     *
+     * @return The inventory hedger; a pass-through one unless hedging is enabled
+     */
+    @Bean
+    public RequestHedger inventoryHedger(
+            @Qualifier("hedgingExecutor") Executor hedgingExecutor,
+            @Value("${services.inventory.hedging.enabled:false}") boolean hedgingEnabled,
+            @Value("${services.inventory.hedging.delay-percentile:95}") double delayPercentile,
+            @Value("${services.inventory.hedging.initial-delay:50ms}") Duration initialDelay,
+            @Value("${services.inventory.hedging.min-delay:5ms}") Duration minDelay,
+            @Value("${services.inventory.hedging.budget:0.1}") double budget) {
+        if (!hedgingEnabled) {
+            return RequestHedger.passThrough();
+        }
+        log.info("Inventory check hedging: after p{} (initially {}, at least {}), budget={}",
+                delayPercentile, initialDelay, minDelay, budget);
+        return new RequestHedger("inventory", hedgingExecutor, delayPercentile, initialDelay, minDelay, budget,
+                meterRegistry);
+    }
+
+    /**
+     * Provides the budget that retries to every service are paid from.
+     *
+     * @return The retry budget
+     */
+    @Bean
+    public RequestBudget retryBudget(
+            @Value("${services.resilience.retry.budget:0.1}") double ratio,
+            @Value("${services.resilience.retry.burst:10}") int burst) {
+        if (retryEnabled) {
+            log.info("Downstream retries: maxAttempts={}, backoff={}..{}, budget={} (burst {})",
+                    retryMaxAttempts, retryInitialBackoff, retryMaxBackoff, ratio, burst);
+        }
+        return new RequestBudget(ratio, burst);
+    }
+
+    /**
+     * Provides the retrier for payment service calls. Payments are only retried
+     * because the client sends an idempotency key with each one.
+     *
+     * @return The payment retrier
+     */
+    @Bean
+    public Retrier paymentRetrier(RequestBudget retryBudget) {
+        return retrier("payment", retryBudget);
+    }
+
+    /**
+     * Provides the retrier for inventory service calls.
+     *
+     * @return The inventory retrier
+     */
+    @Bean
+    public Retrier inventoryRetrier(RequestBudget retryBudget) {
+        return retrier("inventory", retryBudget);
+    }
+
+    private Retrier retrier(String dependency, RequestBudget retryBudget) {
+        if (!retryEnabled) {
+            return Retrier.passThrough();
+        }
+        // Dropped connections, timeouts and 5xx; never 4xx or calls rejected by the guard
+        return new Retrier(dependency, retryMaxAttempts, retryInitialBackoff, retryMaxBackoff, retryBudget,
+                e -> e instanceof ResourceAccessException || e instanceof HttpServerErrorException,
+                meterRegistry);
+    }
+
+    private DependencyGuard guard(String dependency, int maxConcurrent, Duration slowCallDuration) {
+        if (!enabled) {
+            return DependencyGuard.passThrough(dependency);
+        }
+        log.info("Resilience for {}: maxConcurrent={}, slowCall={}, failureRate={}%, slowCallRate={}%, waitInOpen={}",
+                dependency, maxConcurrent, slowCallDuration, failureRateThreshold, slowCallRateThreshold, waitInOpen);
+        CircuitBreaker circuitBreaker = new CircuitBreaker(dependency, windowSize, minimumCalls, failureRateThreshold,
+                slowCallDuration, slowCallRateThreshold, waitInOpen, halfOpenCalls, meterRegistry);
+        Bulkhead bulkhead = new Bulkhead(dependency, maxConcurrent, bulkheadMaxWait, meterRegistry);
+        AdaptiveConcurrencyLimiter limiter = null;
+        if (adaptiveLimitEnabled) {
+            log.info("Adaptive concurrency limit for {}: initial={}, min={}, max={}, latencyTolerance={}",
+                    dependency, initialLimit, minLimit, maxConcurrent, latencyTolerance);
+            limiter = new AdaptiveConcurrencyLimiter(dependency, initialLimit, Math.min(minLimit, maxConcurrent),
+                    maxConcurrent, latencyTolerance, backoffRatio, baselineWindow, meterRegistry);
+        }
+        // 4xx responses (declined payments, bad requests) mean the service is working
+        return new DependencyGuard(dependency, bulkhead, limiter, circuitBreaker,
+                e -> !(e instanceof HttpClientErrorException), meterRegistry);
+    }
+}
@@ -5,7 +5,6 @@ import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.trace.Tracer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * Configuration for OpenTelemetry instrumentation.
@@ -27,15 +26,4 @@ public class TelemetryConfig {
         OpenTelemetry openTelemetry = GlobalOpenTelemetry.get();
         return openTelemetry.getTracer("order-service", "1.0.0");
     }
-
-    /**
-     * Provides a RestTemplate bean for HTTP client calls.
-     * The EDOT Java agent automatically instruments this for distributed tracing.
-     *
-     * @return The RestTemplate instance
-     */
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
 }
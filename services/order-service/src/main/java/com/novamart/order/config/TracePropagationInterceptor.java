@@ -0,0 +1,36 @@
+package com.novamart.order.config;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Writes the current trace context (W3C traceparent/tracestate by default) into
+ * outgoing request headers. An instrumenting agent that injects its own client
+ * span context later replaces these values.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+class TracePropagationInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final TextMapSetter<HttpHeaders> SETTER = (headers, key, value) -> headers.set(key, value);
+
+    private final TextMapPropagator propagator;
+
+    TracePropagationInterceptor(TextMapPropagator propagator) {
+        this.propagator = propagator;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        propagator.inject(Context.current(), request.getHeaders(), SETTER);
+        return execution.execute(request, body);
+    }
+}
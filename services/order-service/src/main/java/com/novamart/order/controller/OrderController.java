@@ -1,80 +1,104 @@
 package com.novamart.order.controller;
 
-import com.novamart.order.model.Order;
 import com.novamart.order.model.OrderRequest;
 import com.novamart.order.model.OrderResponse;
+import com.novamart.order.service.IdempotencyKeyConflictException;
+import com.novamart.order.service.OrderIdempotencyStore;
 import com.novamart.order.service.OrderService;
+import com.novamart.order.service.OrderStageMetrics;
+import com.novamart.order.service.OrderStageTimings;
+import com.novamart.order.tracelog.AsyncTraceLogWriter;
+import com.novamart.order.tracelog.DetailedTraceSampler;
+import com.novamart.order.tracelog.TraceLogMode;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
-
 /**
- * REST controller for order operations.
+ * REST controller for order operations on the blocking pipeline (the default).
  * Includes Jordan Rivera's "optimization" bug when ORDER_SERVICE_ENABLE_BUG is true.
  * Workshop: From Commit to Culprit - Order Service
  */
 @RestController
 @RequestMapping("/api/orders")
-public class OrderController {
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "blocking", matchIfMissing = true)
+public class OrderController extends OrderControllerSupport {
 
     private static final Logger log = LoggerFactory.getLogger(OrderController.class);
 
-    private final OrderService orderService;
-    private final Tracer tracer;
-    private final boolean bugEnabled;
-
     public OrderController(
             OrderService orderService,
+            OrderIdempotencyStore idempotencyStore,
+            OrderStageMetrics stageMetrics,
             Tracer tracer,
-            @Value("${order.service.bug.enabled:false}") boolean bugEnabled) {
-        this.orderService = orderService;
-        this.tracer = tracer;
-        this.bugEnabled = bugEnabled;
-
-        if (bugEnabled) {
-            log.warn("WORKSHOP MODE: Bug is ENABLED (v1.1-bad)");
-        } else {
-            log.info("Running healthy version (v1.0)");
-        }
+            AsyncTraceLogWriter traceLogWriter,
+            DetailedTraceSampler detailedTraceSampler,
+            @Value("${order.service.bug.enabled:false}") boolean bugEnabled,
+            @Value("${order.service.trace-log.mode:blocking}") String traceLogMode) {
+        super(orderService, idempotencyStore, stageMetrics, tracer, traceLogWriter, detailedTraceSampler,
+                bugEnabled, traceLogMode);
     }
 
     /**
      * Creates a new order.
      *
      * In v1.1-bad, this includes Jordan's "detailed trace logging" optimization
-     * that adds a 2-second delay to write trace data to disk.
+     * that adds a 2-second delay to write trace data to disk. With the trace log
+     * mode set to async, the same data is handed to the background writer instead.
+     * Only requests picked by the {@link DetailedTraceSampler} are traced.
      *
-     * @param request The order request
-     * @return The order response
+     * With an Idempotency-Key header, a retry of an order that was already
+     * confirmed returns the original response instead of placing it again.
+     *
+     * @param request        The order request
+     * @param idempotencyKey Optional client key identifying this order across retries
+     * @return The order response, 400 for an invalid key, or 422 if the key was used for a different request
      */
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@RequestBody OrderRequest request) {
+    public ResponseEntity<OrderResponse> createOrder(
+            @RequestBody OrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("Received order creation request for customer {}", request.getCustomerId());
+        if (!isValidIdempotencyKey(idempotencyKey)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Detailed tracing defaults to on when ORDER_SERVICE_ENABLE_BUG=true (v1.1-bad)
+        boolean traced = detailedTraceSampler.shouldSample(Span.current().getSpanContext());
 
         // THE BUG: Jordan Rivera's "optimization" from PR-1247
-        // Only active when ORDER_SERVICE_ENABLE_BUG=true (v1.1-bad)
-        if (bugEnabled) {
+        if (traced && traceLogMode == TraceLogMode.BLOCKING) {
+            long traceStart = System.nanoTime();
             executeDetailedTraceLogging();
+            stageMetrics.recordDetailedTrace(System.nanoTime() - traceStart);
         }
 
         // Process the order
-        OrderResponse response = orderService.createOrder(request);
-
-        HttpStatus status = "CONFIRMED".equals(response.getStatus())
-                ? HttpStatus.CREATED
-                : HttpStatus.BAD_REQUEST;
+        try {
+            OrderResponse response = idempotencyKey == null
+                    ? processOrder(request, traced)
+                    : idempotencyStore.execute(idempotencyKey, request, () -> processOrder(request, traced));
+            return toResponseEntity(response);
+        } catch (IdempotencyKeyConflictException e) {
+            return toResponseEntity(e);
+        }
+    }
 
-        return new ResponseEntity<>(response, status);
+    private OrderResponse processOrder(OrderRequest request, boolean traced) {
+        if (traced && traceLogMode == TraceLogMode.ASYNC) {
+            OrderStageTimings timings = new OrderStageTimings();
+            long start = System.nanoTime();
+            OrderResponse response = orderService.createOrder(request, timings);
+            enqueueDetailedTrace(Span.current().getSpanContext(), request, response, System.nanoTime() - start, timings);
+            return response;
+        }
+        return orderService.createOrder(request);
     }
 
     /**
@@ -110,48 +134,4 @@ public class OrderController {
             optimizationSpan.end();
         }
     }
-
-    /**
-     * Retrieves an order by ID.
-     *
-     * @param id The order ID
-     * @return The order or 404 if not found
-     */
-    @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrder(@PathVariable String id) {
-        log.debug("Retrieving order {}", id);
-
-        Optional<Order> order = orderService.getOrder(id);
-        return order.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
-    }
-
-    /**
-     * Health check endpoint.
-     * Required for container health checks.
-     *
-     * @return Health status
-     */
-    @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> health() {
-        Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
-        health.put("service", "order-service");
-        health.put("timestamp", System.currentTimeMillis());
-        return ResponseEntity.ok(health);
-    }
-
-    /**
-     * Readiness check endpoint.
-     * Indicates if the service is ready to accept traffic.
-     *
-     * @return Readiness status
-     */
-    @GetMapping("/ready")
-    public ResponseEntity<Map<String, Object>> ready() {
-        Map<String, Object> readiness = new HashMap<>();
-        readiness.put("ready", true);
-        readiness.put("service", "order-service");
-        return ResponseEntity.ok(readiness);
-    }
 }
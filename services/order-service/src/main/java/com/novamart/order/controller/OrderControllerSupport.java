@@ -0,0 +1,252 @@
+package com.novamart.order.controller;
+
+import com.novamart.order.model.Order;
+import com.novamart.order.model.OrderPage;
+import com.novamart.order.model.OrderRequest;
+import com.novamart.order.model.OrderResponse;
+import com.novamart.order.service.IdempotencyKeyConflictException;
+import com.novamart.order.service.OrderIdempotencyStore;
+import com.novamart.order.service.OrderService;
+import com.novamart.order.service.OrderStageMetrics;
+import com.novamart.order.service.OrderStageTimings;
+import com.novamart.order.tracelog.AsyncTraceLogWriter;
+import com.novamart.order.tracelog.DetailedTraceSampler;
+import com.novamart.order.tracelog.TraceLogMode;
+import com.novamart.order.tracelog.TraceRecord;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Order endpoints shared by the blocking and reactive order controllers.
+ * Subclasses provide single-order creation for their pipeline (order.pipeline),
+ * deduplicated through the {@link OrderIdempotencyStore} when the client sends an
+ * Idempotency-Key header.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public abstract class OrderControllerSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderControllerSupport.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    protected final OrderService orderService;
+    protected final Tracer tracer;
+    protected final AsyncTraceLogWriter traceLogWriter;
+    protected final DetailedTraceSampler detailedTraceSampler;
+    protected final TraceLogMode traceLogMode;
+    protected final OrderIdempotencyStore idempotencyStore;
+    protected final OrderStageMetrics stageMetrics;
+
+    protected OrderControllerSupport(
+            OrderService orderService,
+            OrderIdempotencyStore idempotencyStore,
+            OrderStageMetrics stageMetrics,
+            Tracer tracer,
+            AsyncTraceLogWriter traceLogWriter,
+            DetailedTraceSampler detailedTraceSampler,
+            boolean bugEnabled,
+            String traceLogMode) {
+        this.orderService = orderService;
+        this.idempotencyStore = idempotencyStore;
+        this.stageMetrics = stageMetrics;
+        this.tracer = tracer;
+        this.traceLogWriter = traceLogWriter;
+        this.detailedTraceSampler = detailedTraceSampler;
+        this.traceLogMode = TraceLogMode.from(traceLogMode);
+
+        if (bugEnabled) {
+            log.warn("WORKSHOP MODE: Bug is ENABLED (v1.1-bad), trace log mode: {}", this.traceLogMode);
+        } else {
+            log.info("Running healthy version (v1.0)");
+        }
+    }
+
+    /**
+     * Maps an order outcome to its HTTP response.
+     */
+    protected static ResponseEntity<OrderResponse> toResponseEntity(OrderResponse response) {
+        HttpStatus status = "CONFIRMED".equals(response.getStatus())
+                ? HttpStatus.CREATED
+                : HttpStatus.BAD_REQUEST;
+
+        return new ResponseEntity<>(response, status);
+    }
+
+    /**
+     * @return Whether an Idempotency-Key header is acceptable (absent, or non-blank and at most 255 characters)
+     */
+    protected static boolean isValidIdempotencyKey(String idempotencyKey) {
+        return idempotencyKey == null
+                || (!idempotencyKey.isBlank() && idempotencyKey.length() <= MAX_IDEMPOTENCY_KEY_LENGTH);
+    }
+
+    /**
+     * Maps reuse of an idempotency key for a different request to 422.
+     */
+    protected static ResponseEntity<OrderResponse> toResponseEntity(IdempotencyKeyConflictException e) {
+        log.debug("Rejected order request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+    }
+
+    /**
+     * Async replacement for the blocking detailed trace logging.
+     * Captures the same detailed trace data but only enqueues it; the background
+     * writer appends it to the trace log in batches, off the request thread.
+     * Capture is bounded by the sampler's latency budget: a record that cannot be
+     * built and enqueued in time is dropped rather than delaying the response.
+     * The time taken is recorded as the detailed_trace stage.
+     *
+     * @param spanContext   Span context of the request
+     * @param request       The order request
+     * @param response      The order response
+     * @param durationNanos Time spent creating the order
+     * @param timings       Per-stage durations recorded by the service
+     */
+    protected void enqueueDetailedTrace(
+            SpanContext spanContext,
+            OrderRequest request,
+            OrderResponse response,
+            long durationNanos,
+            OrderStageTimings timings) {
+        long start = System.nanoTime();
+        try {
+            offerDetailedTrace(spanContext, request, response, durationNanos, timings,
+                    start + detailedTraceSampler.getBudgetNanos());
+        } finally {
+            stageMetrics.recordDetailedTrace(System.nanoTime() - start);
+        }
+    }
+
+    private void offerDetailedTrace(
+            SpanContext spanContext,
+            OrderRequest request,
+            OrderResponse response,
+            long durationNanos,
+            OrderStageTimings timings,
+            long deadline) {
+        TraceRecord record = new TraceRecord(
+                System.currentTimeMillis(),
+                spanContext.getTraceId(),
+                spanContext.getSpanId(),
+                response.getOrderId(),
+                request.getCustomerId(),
+                request.getItems() == null ? 0 : request.getItems().size(),
+                response.getStatus(),
+                durationNanos,
+                timings.getCalculationNanos(),
+                timings.getInventoryNanos(),
+                timings.getPaymentNanos(),
+                timings.getStoreNanos());
+
+        if (System.nanoTime() - deadline > 0) {
+            detailedTraceSampler.recordBudgetExceeded();
+            return;
+        }
+        if (!traceLogWriter.offer(record, deadline) && System.nanoTime() - deadline > 0) {
+            detailedTraceSampler.recordBudgetExceeded();
+        }
+    }
+
+    /**
+     * Creates a batch of orders, checking inventory once for the whole batch.
+     * Each order succeeds or fails on its own; the response lists every outcome.
+     *
+     * @param requests The order requests (1 to 100)
+     * @return One response per request, in request order, or 400 for an empty or oversized batch
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderResponse>> createOrders(@RequestBody List<OrderRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Received batch of {} orders", requests.size());
+
+        return ResponseEntity.ok(orderService.createOrders(requests));
+    }
+
+    /**
+     * Retrieves an order by ID.
+     *
+     * @param id The order ID
+     * @return The order or 404 if not found
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Order> getOrder(@PathVariable String id) {
+        log.debug("Retrieving order {}", id);
+
+        Optional<Order> order = orderService.getOrder(id);
+        return order.map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Lists a customer's orders, newest first.
+     *
+     * @param customerId The customer ID
+     * @param limit      Page size (1 to 100, default 20)
+     * @param cursor     The next_cursor from the previous page, if any
+     * @return The page of orders, or 400 for an invalid limit or cursor
+     */
+    @GetMapping
+    public ResponseEntity<OrderPage> listCustomerOrders(
+            @RequestParam("customer_id") String customerId,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.debug("Listing orders for customer {}", customerId);
+
+        try {
+            return ResponseEntity.ok(orderService.getCustomerOrders(customerId, cursor, Math.min(limit, MAX_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            log.debug("Rejected order listing cursor for customer {}: {}", customerId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Health check endpoint.
+     * Required for container health checks.
+     *
+     * @return Health status
+     */
+    @GetMapping("/health")
+    public ResponseEntity<Map<String, Object>> health() {
+        Map<String, Object> health = new HashMap<>();
+        health.put("status", "UP");
+        health.put("service", "order-service");
+        health.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(health);
+    }
+
+    /**
+     * Readiness check endpoint.
+     * Indicates if the service is ready to accept traffic.
+     *
+     * @return Readiness status
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        Map<String, Object> readiness = new HashMap<>();
+        readiness.put("ready", true);
+        readiness.put("service", "order-service");
+        return ResponseEntity.ok(readiness);
+    }
+}
@@ -0,0 +1,136 @@
+package com.novamart.order.controller;
+
+import com.novamart.order.model.OrderRequest;
+import com.novamart.order.model.OrderResponse;
+import com.novamart.order.service.IdempotencyKeyConflictException;
+import com.novamart.order.service.OrderIdempotencyStore;
+import com.novamart.order.service.OrderService;
+import com.novamart.order.service.OrderStageMetrics;
+import com.novamart.order.service.OrderStageTimings;
+import com.novamart.order.service.ReactiveOrderService;
+import com.novamart.order.tracelog.AsyncTraceLogWriter;
+import com.novamart.order.tracelog.DetailedTraceSampler;
+import com.novamart.order.tracelog.TraceLogMode;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * REST controller for order operations on the reactive pipeline
+ * (order.pipeline=reactive).
+ *
+ * Order creation returns a {@link Mono}, so the request thread is released while
+ * the downstream calls are in flight and the response is written when the
+ * order completes. Reads are served as on the blocking pipeline.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@RestController
+@RequestMapping("/api/orders")
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "reactive")
+public class ReactiveOrderController extends OrderControllerSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveOrderController.class);
+
+    private final ReactiveOrderService reactiveOrderService;
+
+    public ReactiveOrderController(
+            OrderService orderService,
+            ReactiveOrderService reactiveOrderService,
+            OrderIdempotencyStore idempotencyStore,
+            OrderStageMetrics stageMetrics,
+            Tracer tracer,
+            AsyncTraceLogWriter traceLogWriter,
+            DetailedTraceSampler detailedTraceSampler,
+            @Value("${order.service.bug.enabled:false}") boolean bugEnabled,
+            @Value("${order.service.trace-log.mode:blocking}") String traceLogMode) {
+        super(orderService, idempotencyStore, stageMetrics, tracer, traceLogWriter, detailedTraceSampler,
+                bugEnabled, traceLogMode);
+        this.reactiveOrderService = reactiveOrderService;
+    }
+
+    /**
+     * Creates a new order without holding a thread while it is processed.
+     *
+     * Detailed trace logging behaves as in {@link OrderController#createOrder}:
+     * in blocking mode the order waits out the same 2-second delay (on a timer
+     * rather than a sleeping thread), in async mode the record is enqueued.
+     * Idempotency-Key is handled as in {@link OrderController#createOrder}.
+     *
+     * @param request        The order request
+     * @param idempotencyKey Optional client key identifying this order across retries
+     * @return The order response, 400 for an invalid key, or 422 if the key was used for a different request
+     */
+    @PostMapping
+    public Mono<ResponseEntity<OrderResponse>> createOrder(
+            @RequestBody OrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        log.info("Received order creation request for customer {}", request.getCustomerId());
+        if (!isValidIdempotencyKey(idempotencyKey)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        SpanContext spanContext = Span.current().getSpanContext();
+        boolean traced = detailedTraceSampler.shouldSample(spanContext);
+
+        Mono<Void> detailedTraceLogging = traced && traceLogMode == TraceLogMode.BLOCKING
+                ? delayForDetailedTraceLogging(Context.current())
+                : Mono.empty();
+
+        Mono<OrderResponse> response = idempotencyKey == null
+                ? processOrder(request, spanContext, traced)
+                : idempotencyStore.executeReactive(idempotencyKey, request,
+                        () -> processOrder(request, spanContext, traced));
+
+        return detailedTraceLogging.then(response)
+                .map(OrderControllerSupport::toResponseEntity)
+                .onErrorResume(IdempotencyKeyConflictException.class, e -> Mono.just(toResponseEntity(e)));
+    }
+
+    private Mono<OrderResponse> processOrder(OrderRequest request, SpanContext spanContext, boolean traced) {
+        if (traced && traceLogMode == TraceLogMode.ASYNC) {
+            OrderStageTimings timings = new OrderStageTimings();
+            long start = System.nanoTime();
+            return reactiveOrderService.createOrder(request, timings)
+                    .doOnNext(result -> enqueueDetailedTrace(
+                            spanContext, request, result, System.nanoTime() - start, timings));
+        }
+        return reactiveOrderService.createOrder(request);
+    }
+
+    /**
+     * The reactive pipeline's form of Jordan Rivera's detailed trace logging
+     * (PR-1247): the same span and 2-second delay, without blocking a thread.
+     */
+    private Mono<Void> delayForDetailedTraceLogging(Context parent) {
+        return Mono.defer(() -> {
+            Span optimizationSpan = tracer.spanBuilder("detailed-trace-logging")
+                    .setParent(parent)
+                    .setAttribute("logging.type", "detailed-trace")
+                    .setAttribute("logging.author", "jordan.rivera")
+                    .setAttribute("logging.commit_sha", "a1b2c3d4")
+                    .setAttribute("logging.pr_number", "PR-1247")
+                    .setAttribute("logging.delay_ms", 2000)
+                    .setAttribute("logging.destination", "/var/log/orders/trace.log")
+                    .startSpan();
+            log.debug("Writing detailed trace data to disk: 2000ms");
+            long start = System.nanoTime();
+
+            return Mono.delay(Duration.ofMillis(2000))
+                    .then()
+                    .doFinally(signal -> {
+                        optimizationSpan.end();
+                        stageMetrics.recordDetailedTrace(System.nanoTime() - start);
+                    });
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.novamart.order.id;
+
+/**
+ * Source of new order IDs.
+ *
+ * Implementations must be thread-safe and must return IDs in the standard
+ * 36-character UUID text form, which is what clients and downstream services expect.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public interface OrderIdGenerator {
+
+    /**
+     * @return A new, unique order ID
+     */
+    String nextId();
+}
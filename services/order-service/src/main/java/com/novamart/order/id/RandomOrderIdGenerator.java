@@ -0,0 +1,20 @@
+package com.novamart.order.id;
+
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUIDs from {@link UUID#randomUUID()}.
+ *
+ * Every call draws from one shared {@code SecureRandom}, which serializes
+ * concurrent callers, and the IDs have no order, so consecutive orders land far
+ * apart in any sorted index or log. Kept for deployments that treat order IDs
+ * as unguessable.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class RandomOrderIdGenerator implements OrderIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.novamart.order.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered (version 7) UUIDs, as defined in RFC 9562.
+ *
+ * The top 48 bits are the Unix time in milliseconds, so IDs sort by creation
+ * time and new orders append to the end of ordered indexes and logs instead of
+ * scattering across them. The remaining 74 bits are random, drawn from
+ * {@link ThreadLocalRandom}: no lock or shared state is touched, so generation
+ * scales with the number of request threads.
+ *
+ * Ordering is to the millisecond; IDs created in the same millisecond are in
+ * random order. The random bits are not from a cryptographic source, so IDs
+ * should not be relied on as unguessable (use {@link RandomOrderIdGenerator}).
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class TimeOrderedOrderIdGenerator implements OrderIdGenerator {
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC = 0x8000_0000_0000_0000L;
+
+    private final LongSupplier clock;
+
+    public TimeOrderedOrderIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock Supplies the current time in epoch milliseconds
+     */
+    TimeOrderedOrderIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextId() {
+        return nextUuid().toString();
+    }
+
+    UUID nextUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long random74 = random.nextLong();
+        long mostSigBits = (clock.getAsLong() << 16) | VERSION_7 | (random.nextInt() & 0x0FFF);
+        long leastSigBits = VARIANT_RFC | (random74 >>> 2);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -10,7 +10,7 @@ import java.util.List;
 
 /**
  * Domain model representing an order.
- * Stored in-memory (ConcurrentHashMap) - no database required for workshop.
+ * Stored in an OrderStore (bounded in-memory by default) - no database required for workshop.
  * Workshop: From Commit to Culprit - Order Service
  */
 @Data
@@ -0,0 +1,30 @@
+package com.novamart.order.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a customer's order history, newest first.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+
+    @JsonProperty("customer_id")
+    private String customerId;
+
+    @JsonProperty("orders")
+    private List<Order> orders;
+
+    // Pass back as "cursor" to fetch the next page; null on the last page
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+}
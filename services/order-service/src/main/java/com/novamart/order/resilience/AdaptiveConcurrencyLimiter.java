@@ -0,0 +1,154 @@
+package com.novamart.order.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the calls in flight to one downstream service to a limit it learns
+ * from their latency (additive increase, multiplicative decrease).
+ *
+ * A call is congested if it failed or took longer than latency-tolerance times
+ * the service's unloaded latency, taken as the fastest call of the last
+ * baseline-window calls. Each congested call cuts the limit by backoff-ratio,
+ * at most once per round trip: calls started before the last cut do not cut it
+ * again. Each other call, while at least half the limit is in use, raises it by
+ * 1/limit, so about one per limit's worth of calls. Calls over the limit are
+ * rejected at once rather than queued.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double backoffRatio;
+    private final int baselineWindow;
+    private final LongSupplier ticker;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private boolean decreased;
+    private long lastDecreaseAt;
+
+    /**
+     * @param dependency       Name of the downstream service
+     * @param initialLimit     Limit before any call has completed
+     * @param minLimit         Lowest the limit goes
+     * @param maxLimit         Highest the limit goes
+     * @param latencyTolerance How many times the unloaded latency a call may take before it is congested
+     * @param backoffRatio     Factor the limit is multiplied by on congestion
+     * @param baselineWindow   Calls over which the unloaded latency is taken
+     * @param meterRegistry    Registry for limiter metrics
+     */
+    public AdaptiveConcurrencyLimiter(String dependency, int initialLimit, int minLimit, int maxLimit,
+                                      double latencyTolerance, double backoffRatio, int baselineWindow,
+                                      MeterRegistry meterRegistry) {
+        this(dependency, initialLimit, minLimit, maxLimit, latencyTolerance, backoffRatio, baselineWindow,
+                meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String dependency, int initialLimit, int minLimit, int maxLimit,
+                               double latencyTolerance, double backoffRatio, int baselineWindow,
+                               MeterRegistry meterRegistry, LongSupplier ticker) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.baselineWindow = baselineWindow;
+        this.ticker = ticker;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+
+        Gauge.builder("order.resilience.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Calls the adaptive limiter currently lets in flight")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+        Gauge.builder("order.resilience.inflight", inFlight, AtomicInteger::get)
+                .description("Calls in flight through the adaptive limiter")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return The current limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return Calls currently in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Takes a slot if fewer calls than the limit are in flight.
+     *
+     * @return Whether a slot was taken; each taken slot must be given back with
+     *         {@link #onSample} or {@link #release()}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot for a call that was not made.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Gives back a slot and adjusts the limit to the call's outcome.
+     *
+     * @param durationNanos How long the call took
+     * @param failed        Whether the call failed
+     */
+    public void onSample(long durationNanos, boolean failed) {
+        int inFlightDuringCall = inFlight.getAndDecrement();
+        long now = ticker.getAsLong();
+        synchronized (this) {
+            windowMinNanos = Math.min(windowMinNanos, durationNanos);
+            long baseline = Math.min(baselineNanos, windowMinNanos);
+            if (++windowSamples >= baselineWindow) {
+                baselineNanos = windowMinNanos;
+                windowMinNanos = Long.MAX_VALUE;
+                windowSamples = 0;
+            }
+
+            if (failed || durationNanos > baseline * latencyTolerance) {
+                if (decreased && now - durationNanos - lastDecreaseAt < 0) {
+                    return;
+                }
+                estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+                decreased = true;
+                lastDecreaseAt = now;
+            } else if (inFlightDuringCall * 2 >= estimatedLimit) {
+                estimatedLimit = Math.min(maxLimit, estimatedLimit + 1.0 / estimatedLimit);
+            }
+            limit = (int) estimatedLimit;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.novamart.order.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the calls in flight to one downstream service, so a slow service can
+ * hold at most max-concurrent request threads instead of all of them.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class Bulkhead {
+
+    private final Semaphore permits;
+    private final long maxWaitNanos;
+
+    /**
+     * @param dependency    Name of the downstream service
+     * @param maxConcurrent Maximum calls in flight
+     * @param maxWait       How long a call may wait for a free slot; zero to fail at once
+     * @param meterRegistry Registry for bulkhead metrics
+     */
+    public Bulkhead(String dependency, int maxConcurrent, Duration maxWait, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxWaitNanos = maxWait.toNanos();
+        Gauge.builder("order.resilience.bulkhead.available", permits, Semaphore::availablePermits)
+                .description("Calls that can still be started before the bulkhead rejects them")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot, waiting up to max-wait for one to free up.
+     *
+     * @return Whether a slot was taken; each taken slot must be given back with {@link #release()}
+     */
+    public boolean tryAcquire() {
+        if (maxWaitNanos <= 0) {
+            return permits.tryAcquire();
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Gives back a slot taken with {@link #tryAcquire()}.
+     */
+    public void release() {
+        permits.release();
+    }
+}
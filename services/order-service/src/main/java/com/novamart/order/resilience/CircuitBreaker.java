@@ -0,0 +1,218 @@
+package com.novamart.order.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker over the outcomes of the last calls to one downstream service.
+ *
+ * Closed, it lets every call through and keeps the outcomes of the last
+ * window-size calls. Once at least minimum-calls are recorded and either the
+ * failure rate or the slow-call rate reaches its threshold, it opens and
+ * rejects calls for wait-in-open. It then lets half-open-calls probes through:
+ * if their rates stay under the thresholds it closes, otherwise it opens again.
+ *
+ * Transitions are counted in order.resilience.circuit.transitions and added as
+ * an event to the span of the call that caused them.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final AttributeKey<String> FROM_STATE = AttributeKey.stringKey("resilience.circuit.from");
+    private static final AttributeKey<String> TO_STATE = AttributeKey.stringKey("resilience.circuit.to");
+
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    /**
+     * States of the breaker.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN;
+
+        /**
+         * @return The state as used in metric tags and span attributes
+         */
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final String dependency;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier ticker;
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+
+    private volatile State state = State.CLOSED;
+
+    // Guarded by this
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int halfOpenPermits;
+
+    /**
+     * @param dependency            Name of the downstream service
+     * @param windowSize            Number of most recent calls the rates are taken over
+     * @param minimumCalls          Calls recorded before the breaker may open
+     * @param failureRateThreshold  Failure percentage that opens the breaker
+     * @param slowCallDuration      Duration from which a call counts as slow
+     * @param slowCallRateThreshold Slow-call percentage that opens the breaker
+     * @param waitInOpen            Time calls are rejected before probing
+     * @param halfOpenCalls         Probe calls that decide whether to close again
+     * @param meterRegistry         Registry for breaker metrics
+     */
+    public CircuitBreaker(String dependency, int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration slowCallDuration, double slowCallRateThreshold, Duration waitInOpen,
+                          int halfOpenCalls, MeterRegistry meterRegistry) {
+        this(dependency, windowSize, minimumCalls, failureRateThreshold, slowCallDuration, slowCallRateThreshold,
+                waitInOpen, halfOpenCalls, meterRegistry, System::nanoTime);
+    }
+
+    CircuitBreaker(String dependency, int windowSize, int minimumCalls, double failureRateThreshold,
+                   Duration slowCallDuration, double slowCallRateThreshold, Duration waitInOpen,
+                   int halfOpenCalls, MeterRegistry meterRegistry, LongSupplier ticker) {
+        if (windowSize < 1 || minimumCalls < 1 || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("Circuit breaker window, minimum and half-open calls must be positive");
+        }
+        this.dependency = dependency;
+        this.outcomes = new byte[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = waitInOpen.toNanos();
+        this.halfOpenCalls = Math.min(halfOpenCalls, windowSize);
+        this.ticker = ticker;
+
+        for (State candidate : State.values()) {
+            Gauge.builder("order.resilience.circuit.state", this, breaker -> breaker.state == candidate ? 1 : 0)
+                    .description("1 for the circuit breaker's current state, 0 otherwise")
+                    .tag("dependency", dependency)
+                    .tag("state", candidate.tag())
+                    .register(meterRegistry);
+            transitions.put(candidate, Counter.builder("order.resilience.circuit.transitions")
+                    .description("Circuit breaker transitions, by the state entered")
+                    .tag("dependency", dependency)
+                    .tag("state", candidate.tag())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * @return The current state
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Asks to make a call. Every permitted call must be followed by {@link #onResult}.
+     *
+     * @return Whether the call may be made
+     */
+    public boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (ticker.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits >= halfOpenCalls) {
+                    return false;
+                }
+                halfOpenPermits++;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param durationNanos How long the call took
+     * @param failure       Whether the call failed
+     */
+    public synchronized void onResult(long durationNanos, boolean failure) {
+        if (state == State.OPEN) {
+            // Started before the breaker opened
+            return;
+        }
+        byte outcome = (byte) ((failure ? FAILURE : 0) | (durationNanos >= slowCallNanos ? SLOW : 0));
+        if (recorded == outcomes.length) {
+            byte evicted = outcomes[next];
+            failures -= evicted & FAILURE;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        failures += outcome & FAILURE;
+        slowCalls += (outcome & SLOW) >> 1;
+
+        if (state == State.HALF_OPEN) {
+            if (recorded >= halfOpenCalls) {
+                transitionTo(thresholdsReached() ? State.OPEN : State.CLOSED);
+            }
+        } else if (recorded >= minimumCalls && thresholdsReached()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private boolean thresholdsReached() {
+        return failures * 100.0 / recorded >= failureRateThreshold
+                || slowCalls * 100.0 / recorded >= slowCallRateThreshold;
+    }
+
+    /**
+     * Enters a state with an empty window, so each state is judged on its own calls.
+     */
+    private void transitionTo(State target) {
+        State previous = state;
+        if (target == State.OPEN) {
+            log.warn("Circuit breaker for {} opened: {} of {} calls failed, {} slow",
+                    dependency, failures, recorded, slowCalls);
+        } else {
+            log.info("Circuit breaker for {} {} -> {}", dependency, previous.tag(), target.tag());
+        }
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        halfOpenPermits = 0;
+        openedAt = ticker.getAsLong();
+        state = target;
+
+        transitions.get(target).increment();
+        Span.current().addEvent("circuit_breaker.transition",
+                Attributes.of(FROM_STATE, previous.tag(), TO_STATE, target.tag()));
+    }
+}
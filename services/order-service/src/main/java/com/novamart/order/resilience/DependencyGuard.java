@@ -0,0 +1,143 @@
+package com.novamart.order.resilience;
+
+import com.novamart.order.telemetry.OrderAttributes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Span;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls to one downstream service through its {@link Bulkhead}, optional
+ * {@link AdaptiveConcurrencyLimiter} and {@link CircuitBreaker}, rejecting them
+ * with a {@link DependencyUnavailableException} when any is closed to new calls.
+ *
+ * The current span gets the breaker state (resilience.circuit.state) and, for
+ * a rejected call, the reason (resilience.rejected); rejections are counted in
+ * order.resilience.rejections.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class DependencyGuard {
+
+    private final String dependency;
+    private final Bulkhead bulkhead;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final Predicate<RuntimeException> isFailure;
+    private final Counter bulkheadRejections;
+    private final Counter limitRejections;
+    private final Counter circuitRejections;
+
+    /**
+     * @param dependency     Name of the downstream service
+     * @param bulkhead       Limit on calls in flight
+     * @param limiter        Adaptive limit on calls in flight, within the bulkhead's; null for none
+     * @param circuitBreaker Breaker fed with every call's outcome
+     * @param isFailure      Which exceptions count as failures of the service (others, such as
+     *                       declined requests, are recorded as successful calls)
+     * @param meterRegistry  Registry for rejection metrics
+     */
+    public DependencyGuard(String dependency, Bulkhead bulkhead, AdaptiveConcurrencyLimiter limiter,
+                           CircuitBreaker circuitBreaker, Predicate<RuntimeException> isFailure,
+                           MeterRegistry meterRegistry) {
+        this.dependency = dependency;
+        this.bulkhead = bulkhead;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+        this.isFailure = isFailure;
+        this.bulkheadRejections = rejectionCounter("bulkhead_full", meterRegistry);
+        this.limitRejections = limiter != null ? rejectionCounter("limit_exceeded", meterRegistry) : null;
+        this.circuitRejections = rejectionCounter("circuit_open", meterRegistry);
+    }
+
+    /**
+     * Creates a guard that makes every call, for when resilience is turned off.
+     *
+     * @param dependency Name of the downstream service
+     * @return The guard
+     */
+    public static DependencyGuard passThrough(String dependency) {
+        return new DependencyGuard(dependency);
+    }
+
+    private DependencyGuard(String dependency) {
+        this.dependency = dependency;
+        this.bulkhead = null;
+        this.limiter = null;
+        this.circuitBreaker = null;
+        this.isFailure = null;
+        this.bulkheadRejections = null;
+        this.limitRejections = null;
+        this.circuitRejections = null;
+    }
+
+    /**
+     * Makes a call unless the service is unavailable.
+     *
+     * @param call The call to the service
+     * @return What the call returned
+     * @throws DependencyUnavailableException If the bulkhead is full, the limit is reached or the breaker is open
+     */
+    public <T> T call(Supplier<T> call) {
+        if (bulkhead == null) {
+            return call.get();
+        }
+        Span span = Span.current();
+        if (!bulkhead.tryAcquire()) {
+            throw reject(span, bulkheadRejections, "bulkhead_full");
+        }
+        try {
+            // Before the breaker, so a half-open probe permit is never taken for a call that is then shed
+            if (limiter != null && !limiter.tryAcquire()) {
+                throw reject(span, limitRejections, "limit_exceeded");
+            }
+            if (!circuitBreaker.tryAcquirePermission()) {
+                if (limiter != null) {
+                    limiter.release();
+                }
+                throw reject(span, circuitRejections, "circuit_open");
+            }
+            span.setAttribute(OrderAttributes.RESILIENCE_CIRCUIT_STATE, circuitBreaker.getState().tag());
+
+            long start = System.nanoTime();
+            boolean failure = false;
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                failure = isFailure.test(e);
+                throw e;
+            } finally {
+                long durationNanos = System.nanoTime() - start;
+                circuitBreaker.onResult(durationNanos, failure);
+                if (limiter != null) {
+                    limiter.onSample(durationNanos, failure);
+                }
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * @return The name of the guarded service
+     */
+    public String getDependency() {
+        return dependency;
+    }
+
+    private DependencyUnavailableException reject(Span span, Counter rejections, String reason) {
+        rejections.increment();
+        span.setAttribute(OrderAttributes.RESILIENCE_CIRCUIT_STATE, circuitBreaker.getState().tag());
+        span.setAttribute(OrderAttributes.RESILIENCE_REJECTED, reason);
+        return new DependencyUnavailableException(dependency, reason);
+    }
+
+    private Counter rejectionCounter(String reason, MeterRegistry meterRegistry) {
+        return Counter.builder("order.resilience.rejections")
+                .description("Calls rejected without reaching the downstream service")
+                .tag("dependency", dependency)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
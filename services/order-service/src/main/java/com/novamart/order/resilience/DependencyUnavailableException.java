@@ -0,0 +1,43 @@
+package com.novamart.order.resilience;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Thrown instead of calling a downstream service that is known to be failing or
+ * already has as many calls in flight as it is allowed, so the order fails fast.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    private final String dependency;
+    private final String reason;
+
+    /**
+     * @param dependency Name of the downstream service
+     * @param reason     Why the call was not made (circuit_open, bulkhead_full)
+     */
+    public DependencyUnavailableException(String dependency, String reason) {
+        // Thrown on every rejected call, so no stack trace
+        super(dependency + " unavailable: " + reason, null, false, false);
+        this.dependency = dependency;
+        this.reason = reason;
+    }
+
+    /**
+     * Gets back a rejection that happened in an async step.
+     *
+     * @param e Exception from joining the step's future
+     * @return The {@link DependencyUnavailableException} it wraps, or the exception itself
+     */
+    public static RuntimeException unwrap(CompletionException e) {
+        return e.getCause() instanceof DependencyUnavailableException unavailable ? unavailable : e;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
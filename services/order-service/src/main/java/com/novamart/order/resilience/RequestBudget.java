@@ -0,0 +1,54 @@
+package com.novamart.order.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps extra requests (retries, hedges) at a share of normal requests.
+ *
+ * Each normal request earns ratio of a token and each extra request spends a
+ * whole one; up to burst tokens are kept, so a quiet period allows a short
+ * burst of extra requests but a sustained outage cannot multiply the load.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class RequestBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long tokensPerRequest;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+
+    /**
+     * @param ratio Extra requests allowed per normal request (0.1 = one per ten)
+     * @param burst Extra requests allowed at once after a quiet period
+     */
+    public RequestBudget(double ratio, int burst) {
+        this.tokensPerRequest = Math.round(ratio * TOKEN);
+        this.maxTokens = burst * TOKEN;
+        this.tokens = new AtomicLong(maxTokens);
+    }
+
+    /**
+     * Earns budget for a normal request.
+     */
+    public void onRequest() {
+        tokens.getAndUpdate(current -> Math.min(maxTokens, current + tokensPerRequest));
+    }
+
+    /**
+     * Spends budget on an extra request.
+     *
+     * @return Whether the extra request may be made
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.novamart.order.resilience;
+
+import com.novamart.order.telemetry.OrderAttributes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Span;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second copy of an idempotent call when the first is slow, and
+ * returns whichever answers first.
+ *
+ * The hedge goes out once the call has taken longer than the configured
+ * percentile of recent call latencies (the initial delay until enough calls
+ * are seen, never less than the minimum delay). A {@link RequestBudget} keeps
+ * hedges under a share of calls; a slow call with no budget left is simply
+ * waited for. The slower copy is not
+ * cancelled and finishes in the background.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class RequestHedger {
+
+    private static final int LATENCY_WINDOW = 256;
+    private static final int RECOMPUTE_EVERY = 32;
+    private static final int BURST = 10;
+
+    private final Executor executor;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final RequestBudget budget;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private final Counter overBudget;
+
+    private volatile long delayNanos;
+
+    // Guarded by this
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private long samples;
+
+    /**
+     * @param dependency    Name of the downstream service
+     * @param executor      Executor the call and its hedge run on (in the caller's trace context);
+     *                      not one whose tasks make hedged calls, or they can starve it
+     * @param percentile    Percentile of recent latencies after which the hedge is sent
+     * @param initialDelay  Delay used until enough latencies are recorded
+     * @param minDelay      Lowest the delay goes
+     * @param budget        Hedges allowed per call (0.1 = at most one hedge per ten calls)
+     * @param meterRegistry Registry for hedging metrics
+     */
+    public RequestHedger(String dependency, Executor executor, double percentile, Duration initialDelay,
+                         Duration minDelay, double budget, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budget = new RequestBudget(budget, BURST);
+        this.delayNanos = Math.max(minDelayNanos, initialDelay.toNanos());
+
+        this.hedgesSent = hedgeCounter(dependency, "sent", meterRegistry);
+        this.hedgesWon = hedgeCounter(dependency, "won", meterRegistry);
+        this.overBudget = hedgeCounter(dependency, "over_budget", meterRegistry);
+        Gauge.builder("order.resilience.hedge.delay", this, hedger -> hedger.delayNanos / 1_000_000.0)
+                .description("How long a call runs before it is hedged")
+                .tag("dependency", dependency)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates a hedger that makes each call once, on the calling thread, for when hedging is turned off.
+     *
+     * @return The hedger
+     */
+    public static RequestHedger passThrough() {
+        return new RequestHedger();
+    }
+
+    private RequestHedger() {
+        this.executor = null;
+        this.percentile = 0;
+        this.minDelayNanos = 0;
+        this.budget = null;
+        this.hedgesSent = null;
+        this.hedgesWon = null;
+        this.overBudget = null;
+    }
+
+    /**
+     * @return How long a call currently runs before it is hedged
+     */
+    public Duration getDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    /**
+     * Makes an idempotent call, hedging it if it is slow and the budget allows.
+     *
+     * @param call The call; may run twice, concurrently
+     * @return The first successful answer, or the last failure if both copies fail
+     */
+    public <T> T call(Supplier<T> call) {
+        if (executor == null) {
+            return call.get();
+        }
+        budget.onRequest();
+
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(timed(call), executor);
+        try {
+            return primary.get(delayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Slow: hedge below
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+
+        if (!budget.tryAcquire()) {
+            overBudget.increment();
+            return join(primary);
+        }
+        hedgesSent.increment();
+        Span span = Span.current();
+        span.setAttribute(OrderAttributes.RESILIENCE_HEDGED, true);
+
+        CompletableFuture<T> hedge = CompletableFuture.supplyAsync(timed(call), executor);
+        CompletableFuture<CompletableFuture<T>> first = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        primary.whenComplete((result, error) -> settle(first, pending, primary, error));
+        hedge.whenComplete((result, error) -> settle(first, pending, hedge, error));
+
+        CompletableFuture<T> winner = join(first);
+        boolean hedgeWon = winner == hedge;
+        if (hedgeWon) {
+            hedgesWon.increment();
+        }
+        span.setAttribute(OrderAttributes.RESILIENCE_HEDGE_WON, hedgeWon);
+        return winner.join();
+    }
+
+    /**
+     * Completes first with the first copy to succeed, or fails it once both copies have failed.
+     */
+    private static <T> void settle(CompletableFuture<CompletableFuture<T>> first, AtomicInteger pending,
+                                   CompletableFuture<T> copy, Throwable error) {
+        if (error == null) {
+            first.complete(copy);
+        } else if (pending.decrementAndGet() == 0) {
+            first.completeExceptionally(error);
+        }
+    }
+
+    private <T> Supplier<T> timed(Supplier<T> call) {
+        return () -> {
+            long start = System.nanoTime();
+            T result = call.get();
+            record(System.nanoTime() - start);
+            return result;
+        };
+    }
+
+    /**
+     * Records a successful call's latency, recomputing the delay every few calls
+     * once the window is full.
+     */
+    private synchronized void record(long latencyNanos) {
+        latencies[(int) (samples++ % LATENCY_WINDOW)] = latencyNanos;
+        if (samples >= LATENCY_WINDOW && samples % RECOMPUTE_EVERY == 0) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * LATENCY_WINDOW) - 1;
+            delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, Math.min(LATENCY_WINDOW - 1, index))]);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+
+    private static Counter hedgeCounter(String dependency, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("order.resilience.hedges")
+                .description("Slow calls that were hedged, won by the hedge, or not hedged for lack of budget")
+                .tag("dependency", dependency)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,133 @@
+package com.novamart.order.resilience;
+
+import com.novamart.order.telemetry.OrderAttributes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Span;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Retries calls to one downstream service that failed in a way worth retrying.
+ *
+ * Attempt n waits a random time up to min(max-backoff, initial-backoff x 2^(n-1))
+ * ("full jitter"), so clients that failed together do not retry together.
+ * Every retry must be paid for from a {@link RequestBudget} shared by all
+ * services; without budget the failure is returned as it is, so retries cannot
+ * multiply the load on a service that is already down. Only idempotent calls
+ * may be retried.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class Retrier {
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final RequestBudget budget;
+    private final Predicate<RuntimeException> isRetryable;
+    private final Counter retries;
+    private final Counter overBudget;
+
+    /**
+     * @param dependency     Name of the downstream service
+     * @param maxAttempts    Attempts per call, including the first
+     * @param initialBackoff Upper bound of the wait before the first retry
+     * @param maxBackoff     Upper bound of any wait
+     * @param budget         Budget every retry is paid from
+     * @param isRetryable    Which failures are retried (transport errors, 5xx; never rejections)
+     * @param meterRegistry  Registry for retry metrics
+     */
+    public Retrier(String dependency, int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+                   RequestBudget budget, Predicate<RuntimeException> isRetryable, MeterRegistry meterRegistry) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.budget = budget;
+        this.isRetryable = isRetryable;
+        this.retries = retryCounter(dependency, "retried", meterRegistry);
+        this.overBudget = retryCounter(dependency, "over_budget", meterRegistry);
+    }
+
+    /**
+     * Creates a retrier that makes each call once, for when retries are turned off.
+     *
+     * @return The retrier
+     */
+    public static Retrier passThrough() {
+        return new Retrier();
+    }
+
+    private Retrier() {
+        this.maxAttempts = 1;
+        this.initialBackoffNanos = 0;
+        this.maxBackoffNanos = 0;
+        this.budget = null;
+        this.isRetryable = null;
+        this.retries = null;
+        this.overBudget = null;
+    }
+
+    /**
+     * Makes an idempotent call, retrying retryable failures while attempts and budget last.
+     *
+     * @param call The call; may be made several times
+     * @return What the successful attempt returned
+     */
+    public <T> T call(Supplier<T> call) {
+        if (maxAttempts <= 1) {
+            return call.get();
+        }
+        budget.onRequest();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isRetryable.test(e)) {
+                    throw e;
+                }
+                if (!budget.tryAcquire()) {
+                    overBudget.increment();
+                    throw e;
+                }
+                retries.increment();
+                Span.current().setAttribute(OrderAttributes.RESILIENCE_RETRIES, attempt);
+                if (!sleep(backoffNanos(attempt))) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A random wait before the given retry, up to its exponential bound
+     */
+    long backoffNanos(int retry) {
+        long bound = initialBackoffNanos << Math.min(retry - 1, 30);
+        if (bound <= 0 || bound > maxBackoffNanos) {
+            bound = maxBackoffNanos;
+        }
+        return ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    private static boolean sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Counter retryCounter(String dependency, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("order.resilience.retries")
+                .description("Failed calls that were retried, or not retried for lack of budget")
+                .tag("dependency", dependency)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
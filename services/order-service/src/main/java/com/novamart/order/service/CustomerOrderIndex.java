@@ -0,0 +1,133 @@
+package com.novamart.order.service;
+
+import com.novamart.order.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Secondary index from customer id to that customer's order ids, newest first.
+ *
+ * Each customer has a concurrent skip list ordered by creation time, so a page
+ * of a customer's history is found in O(log n + page) without touching the
+ * order store for orders outside the page. Pages are addressed by an opaque
+ * cursor naming the last entry returned, which stays valid while new orders
+ * are added.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class CustomerOrderIndex {
+
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<Entry>> ordersByCustomer =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Indexed reference to one order.
+     *
+     * @param createdAt When the order was created
+     * @param orderId   The order ID
+     */
+    public record Entry(Instant createdAt, String orderId) {
+
+        private static final Comparator<Entry> NEWEST_FIRST =
+                Comparator.comparing(Entry::createdAt, Comparator.reverseOrder())
+                        .thenComparing(Entry::orderId);
+    }
+
+    /**
+     * Adds an order to its customer's history. Orders without a customer or
+     * creation time are not indexed.
+     *
+     * @param order The stored order
+     */
+    public void add(Order order) {
+        if (order.getCustomerId() == null || order.getCreatedAt() == null) {
+            return;
+        }
+        Entry entry = new Entry(order.getCreatedAt(), order.getOrderId());
+        ordersByCustomer.compute(order.getCustomerId(), (customerId, entries) -> {
+            if (entries == null) {
+                entries = new ConcurrentSkipListSet<>(Entry.NEWEST_FIRST);
+            }
+            entries.add(entry);
+            return entries;
+        });
+    }
+
+    /**
+     * Removes an order from its customer's history.
+     *
+     * @param order The order that left the store
+     */
+    public void remove(Order order) {
+        if (order.getCustomerId() == null || order.getCreatedAt() == null) {
+            return;
+        }
+        remove(order.getCustomerId(), new Entry(order.getCreatedAt(), order.getOrderId()));
+    }
+
+    /**
+     * Removes an entry, dropping the customer once their history is empty.
+     */
+    void remove(String customerId, Entry entry) {
+        ordersByCustomer.computeIfPresent(customerId, (id, entries) -> {
+            entries.remove(entry);
+            return entries.isEmpty() ? null : entries;
+        });
+    }
+
+    /**
+     * Iterates a customer's orders, newest first, starting after the given entry.
+     *
+     * @param customerId The customer ID
+     * @param after      Last entry of the previous page, or null for the first page
+     * @return Weakly consistent iterator over the remaining entries
+     */
+    Iterator<Entry> entriesAfter(String customerId, Entry after) {
+        NavigableSet<Entry> entries = ordersByCustomer.get(customerId);
+        if (entries == null) {
+            return Collections.emptyIterator();
+        }
+        return (after == null ? entries : entries.tailSet(after, false)).iterator();
+    }
+
+    /**
+     * @return Number of customers with at least one indexed order
+     */
+    public int customerCount() {
+        return ordersByCustomer.size();
+    }
+
+    /**
+     * Encodes an entry as an opaque, URL-safe page cursor.
+     */
+    static String encodeCursor(Entry entry) {
+        String value = entry.createdAt().getEpochSecond() + ":" + entry.createdAt().getNano() + ":" + entry.orderId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor}.
+     *
+     * @throws IllegalArgumentException If the cursor is malformed
+     */
+    static Entry decodeCursor(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = value.split(":", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new Entry(createdAt, parts[2]);
+        } catch (IllegalArgumentException | java.time.DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
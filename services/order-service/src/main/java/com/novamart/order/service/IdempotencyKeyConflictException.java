@@ -0,0 +1,13 @@
+package com.novamart.order.service;
+
+/**
+ * Thrown when an idempotency key is reused for an order request that differs
+ * from the one the key was first used for.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String idempotencyKey) {
+        super("Idempotency key " + idempotencyKey + " was already used for a different order request");
+    }
+}
@@ -0,0 +1,173 @@
+package com.novamart.order.service;
+
+import com.novamart.order.cache.SegmentedLruCache;
+import com.novamart.order.resilience.DependencyUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived, per-product cache of inventory availability.
+ *
+ * In-stock answers are kept for the TTL and out-of-stock answers for the
+ * negative TTL, so a hot product is checked with the inventory service at most
+ * about once per TTL. A cached out-of-stock product answers a whole check on its
+ * own. Loads are single-flight: a product already being loaded by one request
+ * is waited for, not loaded again, by concurrent requests. Failed loads are not
+ * cached; rejected loads are rethrown to every waiting request.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+class InventoryAvailabilityCache {
+
+    /**
+     * A cached answer and when it stops being used.
+     */
+    private record Availability(boolean inStock, long expiresAtNanos) {
+    }
+
+    private final Function<Collection<String>, Map<String, Boolean>> checkProducts;
+    private final SegmentedLruCache<String, Availability> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<Boolean>> loading = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier ticker;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+
+    /**
+     * @param checkProducts Checks a set of products in one call; empty result if the call failed
+     * @param ttl           How long an in-stock answer is used
+     * @param negativeTtl   How long an out-of-stock answer is used
+     * @param maximumSize   Maximum number of products cached
+     * @param meterRegistry Registry for cache metrics
+     */
+    InventoryAvailabilityCache(Function<Collection<String>, Map<String, Boolean>> checkProducts, Duration ttl,
+                               Duration negativeTtl, long maximumSize, MeterRegistry meterRegistry) {
+        this(checkProducts, ttl, negativeTtl, maximumSize, meterRegistry, System::nanoTime);
+    }
+
+    InventoryAvailabilityCache(Function<Collection<String>, Map<String, Boolean>> checkProducts, Duration ttl,
+                               Duration negativeTtl, long maximumSize, MeterRegistry meterRegistry,
+                               LongSupplier ticker) {
+        this.checkProducts = checkProducts;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.ticker = ticker;
+        // Entries expire by their own deadline; the cache's TTL only clears out the longest-lived ones
+        this.cache = new SegmentedLruCache<>(maximumSize, ttl.compareTo(negativeTtl) >= 0 ? ttl : negativeTtl,
+                16, null);
+
+        FunctionCounter.builder("order.inventory.cache.requests", hits, LongAdder::sum)
+                .description("Product availability lookups answered from the cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.inventory.cache.requests", misses, LongAdder::sum)
+                .description("Product availability lookups that needed the inventory service")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.inventory.cache.coalesced", coalescedLoads, LongAdder::sum)
+                .description("Misses that waited for another request's load of the same product")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks inventory availability for the given product IDs, loading only the
+     * products without a current answer.
+     *
+     * @param productIds List of product IDs to check
+     * @return true if all products are available; false otherwise or if a load failed
+     * @throws DependencyUnavailableException If a load was rejected
+     */
+    boolean checkAvailability(List<String> productIds) {
+        long now = ticker.getAsLong();
+        List<String> missing = null;
+        for (String productId : productIds) {
+            Availability availability = cache.get(productId);
+            if (availability != null && now - availability.expiresAtNanos() < 0) {
+                hits.increment();
+                if (!availability.inStock()) {
+                    return false;
+                }
+            } else {
+                misses.increment();
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(productId);
+            }
+        }
+        return missing == null || load(missing);
+    }
+
+    /**
+     * Loads the given products, joining loads already in flight, and waits for all of them.
+     */
+    private boolean load(List<String> productIds) {
+        Map<String, CompletableFuture<Boolean>> awaited = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Boolean>> owned = new LinkedHashMap<>();
+        for (String productId : productIds) {
+            if (awaited.containsKey(productId)) {
+                continue;
+            }
+            CompletableFuture<Boolean> created = new CompletableFuture<>();
+            CompletableFuture<Boolean> inFlight = loading.putIfAbsent(productId, created);
+            if (inFlight == null) {
+                owned.put(productId, created);
+                awaited.put(productId, created);
+            } else {
+                coalescedLoads.increment();
+                awaited.put(productId, inFlight);
+            }
+        }
+
+        // Complete our own loads before waiting on anyone else's, so loads never wait on each other
+        if (!owned.isEmpty()) {
+            Map<String, Boolean> inStock;
+            try {
+                inStock = checkProducts.apply(owned.keySet());
+            } catch (DependencyUnavailableException e) {
+                owned.forEach((productId, availability) -> {
+                    loading.remove(productId, availability);
+                    availability.completeExceptionally(e);
+                });
+                throw e;
+            } catch (RuntimeException e) {
+                inStock = Map.of();
+            }
+            long loadedAt = ticker.getAsLong();
+            for (Map.Entry<String, CompletableFuture<Boolean>> entry : owned.entrySet()) {
+                Boolean available = inStock.get(entry.getKey());
+                if (available != null) {
+                    long ttl = available ? ttlNanos : negativeTtlNanos;
+                    cache.put(entry.getKey(), new Availability(available, loadedAt + ttl));
+                }
+                loading.remove(entry.getKey(), entry.getValue());
+                entry.getValue().complete(Boolean.TRUE.equals(available));
+            }
+        }
+
+        boolean allInStock = true;
+        for (CompletableFuture<Boolean> availability : awaited.values()) {
+            try {
+                allInStock &= availability.join();
+            } catch (CompletionException e) {
+                throw DependencyUnavailableException.unwrap(e);
+            }
+        }
+        return allInStock;
+    }
+}
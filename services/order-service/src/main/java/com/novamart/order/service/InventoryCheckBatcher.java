@@ -0,0 +1,167 @@
+package com.novamart.order.service;
+
+import com.novamart.order.resilience.DependencyUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent inventory checks into one inventory-service call.
+ *
+ * The first check to arrive opens a batch and becomes its leader: it waits up
+ * to the batching window, or until the batch holds {@code maxItems} products,
+ * while later checks join the batch. The leader then closes the batch, checks
+ * every product in it with one request on its own thread (so the call is traced
+ * under the leader's request), and hands the per-product answer to each waiting
+ * caller. No background thread is involved.
+ *
+ * Batch sizes and the time each check waited before its request was sent are
+ * recorded, to weigh the window against the round trips it saves.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+class InventoryCheckBatcher {
+
+    private final Function<Collection<String>, Map<String, Boolean>> checkProducts;
+    private final long windowNanos;
+    private final int maxItems;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer waitTimer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchFull = lock.newCondition();
+
+    // Guarded by lock
+    private Batch openBatch;
+
+    /**
+     * @param checkProducts Checks a set of products in one call; empty result if the call failed
+     * @param window        How long a batch stays open for more checks
+     * @param maxItems      Distinct products after which a batch is sent without waiting out the window
+     * @param meterRegistry Registry for batching metrics
+     */
+    InventoryCheckBatcher(Function<Collection<String>, Map<String, Boolean>> checkProducts, Duration window,
+                          int maxItems, MeterRegistry meterRegistry) {
+        this.checkProducts = checkProducts;
+        this.windowNanos = window.toNanos();
+        this.maxItems = maxItems;
+        this.batchSizeSummary = DistributionSummary.builder("order.inventory.batch.size")
+                .description("Inventory checks answered by a single inventory-service call")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("order.inventory.batch.wait")
+                .description("Time an inventory check waited for its batch to be sent")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks inventory availability for the given product IDs as part of a batch.
+     *
+     * @param productIds List of product IDs to check
+     * @return true if all products are available; false otherwise or if the batch call failed
+     * @throws DependencyUnavailableException If the batch call was rejected
+     */
+    boolean checkAvailability(List<String> productIds) {
+        Map<String, Boolean> inStock = checkProducts(productIds);
+        return productIds.stream().allMatch(productId -> inStock.getOrDefault(productId, false));
+    }
+
+    /**
+     * Checks products as part of a batch.
+     *
+     * @param productIds Product IDs to check
+     * @return Whether each product of the batch is in stock; empty if the batch call failed
+     * @throws DependencyUnavailableException If the batch call was rejected
+     */
+    Map<String, Boolean> checkProducts(Collection<String> productIds) {
+        long arrived = System.nanoTime();
+        Batch batch;
+        boolean leader;
+
+        lock.lock();
+        try {
+            leader = openBatch == null;
+            if (leader) {
+                openBatch = new Batch();
+            }
+            batch = openBatch;
+            batch.productIds.addAll(productIds);
+            batch.checks++;
+            if (batch.productIds.size() >= maxItems) {
+                openBatch = null;
+                batchFull.signalAll();
+            }
+
+            if (leader) {
+                awaitBatch(batch);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (leader) {
+            sendBatch(batch);
+        }
+        Map<String, Boolean> inStock;
+        try {
+            inStock = batch.result.join();
+        } catch (CompletionException e) {
+            throw DependencyUnavailableException.unwrap(e);
+        }
+        waitTimer.record(Math.max(0, batch.sentAt - arrived), TimeUnit.NANOSECONDS);
+        return inStock;
+    }
+
+    /**
+     * Waits, holding the lock between waits, until the batch fills up or the window
+     * ends, and closes it. An interrupt sends the batch early.
+     */
+    private void awaitBatch(Batch batch) {
+        long remaining = windowNanos;
+        try {
+            while (openBatch == batch && remaining > 0) {
+                remaining = batchFull.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (openBatch == batch) {
+            openBatch = null;
+        }
+    }
+
+    private void sendBatch(Batch batch) {
+        // The batch is closed, so its fields are no longer written
+        batch.sentAt = System.nanoTime();
+        batchSizeSummary.record(batch.checks);
+        try {
+            batch.result.complete(checkProducts.apply(batch.productIds));
+        } catch (DependencyUnavailableException e) {
+            batch.result.completeExceptionally(e);
+        } catch (RuntimeException e) {
+            batch.result.complete(Map.of());
+        }
+    }
+
+    /**
+     * Checks collected while a batch is open. Written under the lock until the
+     * batch is closed; read by the callers once its result is complete.
+     */
+    private static final class Batch {
+        private final Set<String> productIds = new LinkedHashSet<>();
+        private final CompletableFuture<Map<String, Boolean>> result = new CompletableFuture<>();
+        private int checks;
+        private long sentAt;
+    }
+}
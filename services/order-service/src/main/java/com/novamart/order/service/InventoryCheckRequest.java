@@ -0,0 +1,44 @@
+package com.novamart.order.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Body of an inventory-service stock check:
+ * { "items": [{"item_id": "...", "quantity": 1}, ...] }
+ *
+ * Written by {@link Serializer} straight from the product IDs into the output
+ * buffer, rather than building a map per item for Jackson to walk.
+ * Workshop: From Commit to Culprit - Order Service
+ *
+ * @param productIds Products to check, one unit of each
+ */
+@JsonSerialize(using = InventoryCheckRequest.Serializer.class)
+public record InventoryCheckRequest(Collection<String> productIds) {
+
+    /**
+     * Streams the request as the inventory service's items array.
+     */
+    public static final class Serializer extends JsonSerializer<InventoryCheckRequest> {
+
+        @Override
+        public void serialize(InventoryCheckRequest request, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+            for (String productId : request.productIds()) {
+                generator.writeStartObject();
+                generator.writeStringField("item_id", productId);
+                generator.writeNumberField("quantity", 1);  // Default quantity for availability check
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+}
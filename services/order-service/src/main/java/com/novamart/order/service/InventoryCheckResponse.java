@@ -0,0 +1,34 @@
+package com.novamart.order.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Reply to an inventory-service stock check. Only the fields the order service
+ * reads are bound; the rest of the reply is skipped while parsing.
+ * Workshop: From Commit to Culprit - Order Service
+ *
+ * @param available Whether every requested product is in stock
+ * @param items     Per-product results (empty if the reply had none)
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record InventoryCheckResponse(
+        @JsonProperty("available") boolean available,
+        @JsonProperty("items") List<Item> items) {
+
+    public InventoryCheckResponse {
+        items = items == null ? List.of() : items;
+    }
+
+    /**
+     * @param itemId  The product ID
+     * @param inStock Whether the product is in stock
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Item(
+            @JsonProperty("item_id") String itemId,
+            @JsonProperty("in_stock") boolean inStock) {
+    }
+}
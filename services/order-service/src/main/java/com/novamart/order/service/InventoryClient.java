@@ -1,10 +1,17 @@
 package com.novamart.order.service;
 
+import com.novamart.order.resilience.DependencyGuard;
+import com.novamart.order.resilience.DependencyUnavailableException;
+import com.novamart.order.resilience.RequestHedger;
+import com.novamart.order.resilience.Retrier;
+import com.novamart.order.telemetry.OrderAttributes;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -13,6 +20,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +29,19 @@ import java.util.Map;
 /**
  * Client for communicating with the Inventory Service.
  * Checks product availability before order confirmation.
+ *
+ * With caching enabled (services.inventory.cache), recent per-product answers are
+ * reused from an {@link InventoryAvailabilityCache}. With batching enabled
+ * (services.inventory.batching), checks made at the same time by different
+ * requests, or their cache misses, are coalesced by an {@link InventoryCheckBatcher}
+ * into one inventory-service call.
+ *
+ * Calls go through the inventory {@link DependencyGuard}; a call it rejects throws
+ * {@link DependencyUnavailableException} instead of reporting products as unavailable.
+ * With hedging enabled (services.inventory.hedging), a slow check is sent a
+ * second time by the {@link RequestHedger} and the first answer is used. A check
+ * that fails on the way (dropped connection, timeout, 5xx) is retried by the
+ * {@link Retrier}.
  * Workshop: From Commit to Culprit - Order Service
  */
 @Component
@@ -30,14 +52,50 @@ public class InventoryClient {
     private final RestTemplate restTemplate;
     private final Tracer tracer;
     private final String inventoryServiceUrl;
+    private final InventoryCheckBatcher batcher;
+    private final InventoryAvailabilityCache availabilityCache;
+    private final DependencyGuard guard;
+    private final RequestHedger hedger;
+    private final Retrier retrier;
 
     public InventoryClient(
             RestTemplate restTemplate,
             Tracer tracer,
-            @Value("${services.inventory.url}") String inventoryServiceUrl) {
+            @Value("${services.inventory.url}") String inventoryServiceUrl,
+            @Qualifier("inventoryGuard") DependencyGuard guard,
+            @Qualifier("inventoryHedger") RequestHedger hedger,
+            @Qualifier("inventoryRetrier") Retrier retrier,
+            @Value("${services.inventory.batching.enabled:false}") boolean batchingEnabled,
+            @Value("${services.inventory.batching.window:2ms}") Duration batchingWindow,
+            @Value("${services.inventory.batching.max-items:64}") int batchingMaxItems,
+            @Value("${services.inventory.cache.enabled:false}") boolean cacheEnabled,
+            @Value("${services.inventory.cache.ttl:500ms}") Duration cacheTtl,
+            @Value("${services.inventory.cache.negative-ttl:500ms}") Duration cacheNegativeTtl,
+            @Value("${services.inventory.cache.max-size:10000}") long cacheMaxSize,
+            MeterRegistry meterRegistry) {
         this.restTemplate = restTemplate;
         this.tracer = tracer;
         this.inventoryServiceUrl = inventoryServiceUrl;
+        this.guard = guard;
+        this.hedger = hedger;
+        this.retrier = retrier;
+        this.batcher = batchingEnabled
+                ? new InventoryCheckBatcher(this::checkAvailabilityByProduct, batchingWindow, batchingMaxItems,
+                        meterRegistry)
+                : null;
+        if (batchingEnabled) {
+            log.info("Inventory check batching: window={}, maxItems={}", batchingWindow, batchingMaxItems);
+        }
+
+        this.availabilityCache = cacheEnabled
+                ? new InventoryAvailabilityCache(
+                        batcher != null ? batcher::checkProducts : this::checkAvailabilityByProduct,
+                        cacheTtl, cacheNegativeTtl, cacheMaxSize, meterRegistry)
+                : null;
+        if (cacheEnabled) {
+            log.info("Inventory availability cache: ttl={}, negativeTtl={}, maxSize={}",
+                    cacheTtl, cacheNegativeTtl, cacheMaxSize);
+        }
     }
 
     /**
@@ -45,50 +103,103 @@ public class InventoryClient {
      *
      * @param productIds List of product IDs to check
      * @return true if all products are available, false otherwise
+     * @throws DependencyUnavailableException If the inventory service is not being called
      */
     public boolean checkAvailability(List<String> productIds) {
         Span span = tracer.spanBuilder("inventory.check")
-                .setAttribute("inventory.product_count", productIds.size())
+                .setAttribute(OrderAttributes.INVENTORY_PRODUCT_COUNT, (long) productIds.size())
                 .startSpan();
 
         try (Scope scope = span.makeCurrent()) {
+            if (availabilityCache != null || batcher != null) {
+                boolean available = availabilityCache != null
+                        ? availabilityCache.checkAvailability(productIds)
+                        : batcher.checkAvailability(productIds);
+                span.setAttribute(OrderAttributes.INVENTORY_AVAILABLE, available);
+                return available;
+            }
             log.info("Checking inventory availability for {} products", productIds.size());
 
-            // Build request payload matching inventory service's expected format
-            // Format: { "items": [{"item_id": "...", "quantity": 1}, ...] }
-            List<Map<String, Object>> items = productIds.stream()
-                    .map(productId -> {
-                        Map<String, Object> item = new HashMap<>();
-                        item.put("item_id", productId);
-                        item.put("quantity", 1);  // Default quantity for availability check
-                        return item;
-                    })
-                    .toList();
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("items", items);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
             // Call inventory service
-            String url = inventoryServiceUrl + "/api/inventory/check";
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, request, Map.class);
+            ResponseEntity<InventoryCheckResponse> response = postCheck(checkRequest(productIds));
 
-            boolean available = Boolean.TRUE.equals(response.getBody().get("available"));
-            span.setAttribute("inventory.available", available);
+            boolean available = response.getBody().available();
+            span.setAttribute(OrderAttributes.INVENTORY_AVAILABLE, available);
 
             log.info("Inventory check completed: available={}", available);
             return available;
 
+        } catch (DependencyUnavailableException e) {
+            log.warn("Inventory check not attempted: {}", e.getMessage());
+            OrderAttributes.markError(span);
+            throw e;
         } catch (Exception e) {
             log.error("Failed to check inventory availability", e);
-            span.recordException(e);
-            span.setAttribute("error", true);
+            OrderAttributes.recordError(span, e);
             return false;
         } finally {
             span.end();
         }
     }
+
+    /**
+     * Checks availability of many products in one call, for a batch of orders.
+     *
+     * @param productIds Product IDs to check
+     * @return Whether each product is in stock; empty if the check failed
+     * @throws DependencyUnavailableException If the inventory service is not being called
+     */
+    public Map<String, Boolean> checkAvailabilityByProduct(Collection<String> productIds) {
+        Span span = tracer.spanBuilder("inventory.check_batch")
+                .setAttribute(OrderAttributes.INVENTORY_PRODUCT_COUNT, (long) productIds.size())
+                .startSpan();
+
+        try (Scope scope = span.makeCurrent()) {
+            log.info("Checking inventory availability for {} products in one batch", productIds.size());
+
+            ResponseEntity<InventoryCheckResponse> response = postCheck(checkRequest(productIds));
+
+            List<InventoryCheckResponse.Item> items = response.getBody().items();
+            Map<String, Boolean> inStock = new HashMap<>(items.size() * 2);
+            for (InventoryCheckResponse.Item item : items) {
+                inStock.put(item.itemId(), item.inStock());
+            }
+            long availableCount = inStock.values().stream().filter(Boolean::booleanValue).count();
+            span.setAttribute(OrderAttributes.INVENTORY_AVAILABLE_COUNT, availableCount);
+
+            log.info("Batch inventory check completed: {} of {} products in stock", availableCount, inStock.size());
+            return inStock;
+
+        } catch (DependencyUnavailableException e) {
+            log.warn("Batch inventory check not attempted: {}", e.getMessage());
+            OrderAttributes.markError(span);
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to check inventory availability for batch", e);
+            OrderAttributes.recordError(span, e);
+            return Map.of();
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Posts a check to the inventory service, hedged, retried and through the guard.
+     * Each hedged copy and each retry goes through the guard on its own.
+     */
+    private ResponseEntity<InventoryCheckResponse> postCheck(HttpEntity<InventoryCheckRequest> request) {
+        String url = inventoryServiceUrl + "/api/inventory/check";
+        return retrier.call(() -> hedger.call(
+                () -> guard.call(() -> restTemplate.postForEntity(url, request, InventoryCheckResponse.class))));
+    }
+
+    /**
+     * Builds a request payload matching the inventory service's expected format
+     * (see {@link InventoryCheckRequest}).
+     */
+    private HttpEntity<InventoryCheckRequest> checkRequest(Collection<String> productIds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(new InventoryCheckRequest(productIds), headers);
+    }
 }
@@ -0,0 +1,167 @@
+package com.novamart.order.service;
+
+import com.novamart.order.cache.SegmentedLruCache;
+import com.novamart.order.model.OrderRequest;
+import com.novamart.order.model.OrderResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates order creation by client-supplied idempotency key.
+ *
+ * The first request with a key claims it and creates the order; a retry with the
+ * same key gets the original response back instead of placing a second order.
+ * A duplicate that arrives while the first is still in flight waits for its
+ * outcome. Only confirmed orders are remembered: when creation fails or throws,
+ * the key is released so a retry is attempted again.
+ *
+ * Keys are scoped to the customer and held in a {@link SegmentedLruCache}, so
+ * memory is bounded by order.idempotency.max-keys and keys expire after
+ * order.idempotency.ttl. A request that reuses a key with a different body is
+ * rejected with {@link IdempotencyKeyConflictException}.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Component
+public class OrderIdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIdempotencyStore.class);
+
+    private final SegmentedLruCache<String, Entry> entries;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public OrderIdempotencyStore(
+            @Value("${order.idempotency.max-keys:100000}") long maxKeys,
+            @Value("${order.idempotency.ttl:24h}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.entries = new SegmentedLruCache<>(maxKeys, ttl,
+                Runtime.getRuntime().availableProcessors() * 4, null);
+        log.info("Order idempotency keys: maxKeys={}, ttl={}", maxKeys, ttl);
+
+        Gauge.builder("order.idempotency.keys", entries, SegmentedLruCache::size)
+                .description("Idempotency keys currently remembered")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.idempotency.requests", created, LongAdder::sum)
+                .description("Order requests with an idempotency key")
+                .tag("result", "new")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.idempotency.requests", replayed, LongAdder::sum)
+                .description("Order requests with an idempotency key")
+                .tag("result", "replayed")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.idempotency.requests", conflicts, LongAdder::sum)
+                .description("Order requests with an idempotency key")
+                .tag("result", "conflict")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates an order once per idempotency key.
+     *
+     * @param idempotencyKey The client's idempotency key
+     * @param request        The order request
+     * @param createOrder    Creates the order; only called if the key is new
+     * @return The order response, or the original response if the key was used before
+     * @throws IdempotencyKeyConflictException If the key was used for a different request
+     */
+    public OrderResponse execute(String idempotencyKey, OrderRequest request, Supplier<OrderResponse> createOrder) {
+        CompletableFuture<OrderResponse> response = claim(idempotencyKey, request,
+                () -> CompletableFuture.completedFuture(createOrder.get()));
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Reactive form of {@link #execute(String, OrderRequest, Supplier)}.
+     *
+     * Order creation is subscribed to independently of the returned {@link Mono},
+     * so a client that disconnects does not abandon an order half way; its retry
+     * picks up the outcome instead.
+     *
+     * @param idempotencyKey The client's idempotency key
+     * @param request        The order request
+     * @param createOrder    Creates the order; only subscribed to if the key is new
+     * @return The order response, or the original response if the key was used before
+     */
+    public Mono<OrderResponse> executeReactive(
+            String idempotencyKey,
+            OrderRequest request,
+            Supplier<Mono<OrderResponse>> createOrder) {
+        // Each subscriber gets its own copy, so cancelling one does not cancel the shared outcome
+        return Mono.defer(() -> Mono.fromFuture(
+                claim(idempotencyKey, request, () -> createOrder.get().toFuture()).copy()));
+    }
+
+    /**
+     * Claims the key and starts creation, or returns the outcome of whoever claimed it first.
+     */
+    private CompletableFuture<OrderResponse> claim(
+            String idempotencyKey,
+            OrderRequest request,
+            Supplier<CompletableFuture<OrderResponse>> createOrder) {
+        String scopedKey = request.getCustomerId() + ':' + idempotencyKey;
+        Entry entry = new Entry(request, new CompletableFuture<>());
+
+        Entry existing = entries.putIfAbsent(scopedKey, entry);
+        if (existing != null) {
+            // Compare whole requests: equal hash codes do not make two bodies the same
+            if (!existing.request().equals(request)) {
+                conflicts.increment();
+                return CompletableFuture.failedFuture(new IdempotencyKeyConflictException(idempotencyKey));
+            }
+            replayed.increment();
+            log.debug("Replaying order for idempotency key {}", idempotencyKey);
+            return existing.response();
+        }
+        created.increment();
+
+        CompletableFuture<OrderResponse> creation;
+        try {
+            creation = createOrder.get();
+        } catch (RuntimeException e) {
+            creation = CompletableFuture.failedFuture(e);
+        }
+        creation.whenComplete((response, error) -> {
+            // Release the key before waiters see the outcome, so their retries start afresh
+            if (error != null || !"CONFIRMED".equals(response.getStatus())) {
+                entries.remove(scopedKey, entry);
+            }
+            if (error != null) {
+                entry.response().completeExceptionally(error);
+            } else {
+                entry.response().complete(response);
+            }
+        });
+        return entry.response();
+    }
+
+    /**
+     * @return Number of idempotency keys currently remembered
+     */
+    public long size() {
+        return entries.size();
+    }
+
+    /**
+     * A claimed key: the request that claimed it and that request's outcome.
+     */
+    private record Entry(OrderRequest request, CompletableFuture<OrderResponse> response) {
+    }
+}
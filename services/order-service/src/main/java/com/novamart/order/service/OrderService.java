@@ -1,25 +1,47 @@
 package com.novamart.order.service;
 
+import com.novamart.order.id.OrderIdGenerator;
 import com.novamart.order.model.Order;
+import com.novamart.order.model.OrderPage;
 import com.novamart.order.model.OrderRequest;
 import com.novamart.order.model.OrderResponse;
+import com.novamart.order.resilience.DependencyUnavailableException;
+import com.novamart.order.store.OrderStore;
+import com.novamart.order.telemetry.OrderAttributes;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
  * Core business logic for order processing.
- * Uses in-memory storage (ConcurrentHashMap) for simplicity in the workshop.
+ * Confirmed orders are kept in an {@link OrderStore} (bounded in-memory by default)
+ * and indexed by customer in a {@link CustomerOrderIndex} for history listings.
+ *
+ * Orchestration (order.service.orchestration): "sequential" checks inventory and
+ * then takes payment; "parallel" checks inventory while placing a payment hold,
+ * captures the hold once both succeed and voids it otherwise, so the critical path
+ * is the slower of the two calls rather than their sum.
+ *
+ * A call the inventory or payment client refuses to make (open circuit breaker
+ * or full bulkhead) fails the order at once with "... service unavailable".
  * Workshop: From Commit to Culprit - Order Service
  */
 @Service
@@ -27,20 +49,44 @@ public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
 
-    // In-memory storage for orders (no database required for workshop)
-    private final ConcurrentHashMap<String, Order> orders = new ConcurrentHashMap<>();
+    // Storage for confirmed orders (no database required for workshop)
+    private final OrderStore orders;
+    private final CustomerOrderIndex customerIndex = new CustomerOrderIndex();
 
     private final InventoryClient inventoryClient;
     private final PaymentClient paymentClient;
     private final Tracer tracer;
+    private final OrderIdGenerator orderIdGenerator;
+    private final Executor downstreamExecutor;
+    private final OrderStageMetrics stageMetrics;
+    private final boolean parallelOrchestration;
 
     public OrderService(
             InventoryClient inventoryClient,
             PaymentClient paymentClient,
-            Tracer tracer) {
+            Tracer tracer,
+            OrderStore orders,
+            OrderIdGenerator orderIdGenerator,
+            @Qualifier("downstreamExecutor") Executor downstreamExecutor,
+            OrderStageMetrics stageMetrics,
+            @Value("${order.service.orchestration:sequential}") String orchestration) {
         this.inventoryClient = inventoryClient;
         this.paymentClient = paymentClient;
         this.tracer = tracer;
+        this.orders = orders;
+        this.orderIdGenerator = orderIdGenerator;
+        this.downstreamExecutor = downstreamExecutor;
+        this.stageMetrics = stageMetrics;
+        this.parallelOrchestration = switch (orchestration) {
+            case "sequential" -> false;
+            case "parallel" -> true;
+            default -> throw new IllegalArgumentException("Unknown order orchestration: " + orchestration);
+        };
+
+        // Register before rebuilding so orders evicted during the rebuild are dropped too
+        orders.onEviction(customerIndex::remove);
+        orders.forEach(customerIndex::add);
+        log.info("Indexed {} stored orders for {} customers", orders.size(), customerIndex.customerCount());
     }
 
     /**
@@ -50,78 +96,374 @@ public class OrderService {
      * @return The order response
      */
     public OrderResponse createOrder(OrderRequest request) {
+        return createOrder(request, new OrderStageTimings());
+    }
+
+    /**
+     * Creates a new order and records how long each stage took, in the
+     * timings and in the {@link OrderStageMetrics} latency histograms.
+     *
+     * @param request The order request
+     * @param timings Receives the per-stage durations
+     * @return The order response
+     */
+    public OrderResponse createOrder(OrderRequest request, OrderStageTimings timings) {
         Span span = tracer.spanBuilder("order.create")
-                .setAttribute("order.customer_id", request.getCustomerId())
-                .setAttribute("order.item_count", request.getItems().size())
+                .setAttribute(OrderAttributes.ORDER_CUSTOMER_ID, request.getCustomerId())
+                .setAttribute(OrderAttributes.ORDER_ITEM_COUNT, (long) request.getItems().size())
                 .startSpan();
 
+        String orderId = null;
+        double totalAmount = 0.0;
         try (Scope scope = span.makeCurrent()) {
-            String orderId = UUID.randomUUID().toString();
+            orderId = orderIdGenerator.nextId();
             log.info("Creating order {} for customer {}", orderId, request.getCustomerId());
 
             // Calculate total amount
-            double totalAmount = calculateTotal(request);
-            span.setAttribute("order.total_amount", totalAmount);
+            long stageStart = System.nanoTime();
+            totalAmount = calculateTotal(request);
+            timings.setCalculationNanos(System.nanoTime() - stageStart);
+            span.setAttribute(OrderAttributes.ORDER_TOTAL_AMOUNT, totalAmount);
 
             // Extract product IDs for inventory check
             List<String> productIds = request.getItems().stream()
                     .map(OrderRequest.OrderItem::getProductId)
                     .collect(Collectors.toList());
 
+            if (parallelOrchestration) {
+                String[] paymentId = new String[1];
+                OrderResponse failure = reserveInParallel(orderId, request, productIds, totalAmount, paymentId,
+                        span, timings);
+                return failure != null
+                        ? failure
+                        : confirmOrder(orderId, request, totalAmount, paymentId[0], span, timings);
+            }
+
             // Check inventory availability
+            stageStart = System.nanoTime();
             boolean inventoryAvailable = inventoryClient.checkAvailability(productIds);
+            timings.setInventoryNanos(System.nanoTime() - stageStart);
             if (!inventoryAvailable) {
                 log.warn("Order {} failed: inventory not available", orderId);
-                span.setAttribute("order.failure_reason", "inventory_unavailable");
+                span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "inventory_unavailable");
                 return buildFailureResponse(orderId, "Inventory not available", totalAmount);
             }
 
             // Process payment
+            stageStart = System.nanoTime();
             boolean paymentSuccess = paymentClient.processPayment(
                     orderId,
                     request.getCustomerId(),
                     totalAmount
             );
+            timings.setPaymentNanos(System.nanoTime() - stageStart);
 
             if (!paymentSuccess) {
                 log.warn("Order {} failed: payment declined", orderId);
-                span.setAttribute("order.failure_reason", "payment_declined");
+                span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "payment_declined");
                 return buildFailureResponse(orderId, "Payment declined", totalAmount);
             }
 
-            // Create and store the order
-            Order order = Order.builder()
-                    .orderId(orderId)
-                    .customerId(request.getCustomerId())
-                    .items(request.getItems())
-                    .totalAmount(totalAmount)
-                    .status("CONFIRMED")
-                    .createdAt(Instant.now())
-                    .updatedAt(Instant.now())
-                    .build();
-
-            orders.put(orderId, order);
-            span.setAttribute("order.status", "CONFIRMED");
-            log.info("Order {} confirmed successfully", orderId);
-
-            return OrderResponse.builder()
-                    .orderId(orderId)
-                    .status("CONFIRMED")
-                    .message("Order placed successfully")
-                    .totalAmount(totalAmount)
-                    .timestamp(Instant.now().toString())
-                    .build();
+            return confirmOrder(orderId, request, totalAmount, null, span, timings);
 
+        } catch (DependencyUnavailableException e) {
+            return buildUnavailableResponse(orderId, e, totalAmount, span);
         } catch (Exception e) {
             log.error("Failed to create order", e);
-            span.recordException(e);
-            span.setAttribute("error", true);
-            return buildFailureResponse(null, "Internal error", 0.0);
+            OrderAttributes.recordError(span, e);
+            return buildFailureResponse(orderId, "Internal error", totalAmount);
         } finally {
             span.end();
+            stageMetrics.record(timings);
         }
     }
 
+    /**
+     * Records the stage durations of one order in the latency histograms.
+     * Also used by {@link ReactiveOrderService}, so both pipelines report the same stages.
+     */
+    void recordStageTimings(OrderStageTimings timings) {
+        stageMetrics.record(timings);
+    }
+
+    /**
+     * Creates a batch of orders with one inventory check for the whole batch.
+     *
+     * Every distinct product in the batch is checked in a single inventory call.
+     * Orders whose products are all in stock are then paid for concurrently on
+     * the downstream executor, so the batch costs one inventory round trip plus
+     * roughly the slowest payment rather than two round trips per order.
+     *
+     * Each order settles on its own: an unexpected failure while paying for or
+     * storing one order fails only that order, keeping its order ID so the
+     * client can look it up or retry it.
+     *
+     * @param requests The order requests
+     * @return One response per request, in request order
+     */
+    public List<OrderResponse> createOrders(List<OrderRequest> requests) {
+        Span span = tracer.spanBuilder("order.create_batch")
+                .setAttribute(OrderAttributes.ORDER_BATCH_SIZE, (long) requests.size())
+                .startSpan();
+
+        String[] orderIds = new String[requests.size()];
+        double[] totalAmounts = new double[requests.size()];
+        List<CompletableFuture<Boolean>> payments = new ArrayList<>(requests.size());
+        List<OrderResponse> responses = new ArrayList<>(requests.size());
+        try (Scope scope = span.makeCurrent()) {
+            log.info("Creating batch of {} orders", requests.size());
+
+            Set<String> productIds = new LinkedHashSet<>();
+            for (int i = 0; i < requests.size(); i++) {
+                orderIds[i] = orderIdGenerator.nextId();
+                totalAmounts[i] = calculateTotal(requests.get(i));
+                requests.get(i).getItems().forEach(item -> productIds.add(item.getProductId()));
+            }
+
+            // One inventory check for every product in the batch
+            Map<String, Boolean> inStock;
+            try {
+                inStock = inventoryClient.checkAvailabilityByProduct(productIds);
+            } catch (DependencyUnavailableException e) {
+                for (int i = 0; i < requests.size(); i++) {
+                    responses.add(buildUnavailableResponse(orderIds[i], e, totalAmounts[i], span));
+                }
+                return responses;
+            }
+
+            // Pay for the orders that can be fulfilled, all at once
+            for (int i = 0; i < requests.size(); i++) {
+                OrderRequest request = requests.get(i);
+                boolean available = request.getItems().stream()
+                        .allMatch(item -> inStock.getOrDefault(item.getProductId(), false));
+                payments.add(available ? submitPayment(orderIds[i], request, totalAmounts[i]) : null);
+            }
+
+            int confirmed = 0;
+            for (int i = 0; i < requests.size(); i++) {
+                OrderResponse response = settleBatchOrder(orderIds[i], requests.get(i), totalAmounts[i],
+                        payments.get(i), span);
+                if ("CONFIRMED".equals(response.getStatus())) {
+                    confirmed++;
+                }
+                responses.add(response);
+            }
+            span.setAttribute(OrderAttributes.ORDER_CONFIRMED_COUNT, confirmed);
+            return responses;
+
+        } catch (Exception e) {
+            // Keep the responses already settled and still settle payments already started
+            log.error("Failed to create order batch", e);
+            OrderAttributes.recordError(span, e);
+            for (int i = responses.size(); i < requests.size(); i++) {
+                responses.add(i < payments.size() && payments.get(i) != null
+                        ? settleBatchOrder(orderIds[i], requests.get(i), totalAmounts[i], payments.get(i), span)
+                        : buildFailureResponse(orderIds[i], "Internal error", totalAmounts[i]));
+            }
+            return responses;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Starts one batch order's payment on the downstream executor. A payment the
+     * executor refuses to run is returned as a failed future, so it fails only
+     * that order.
+     */
+    private CompletableFuture<Boolean> submitPayment(String orderId, OrderRequest request, double totalAmount) {
+        try {
+            return CompletableFuture.supplyAsync(
+                    () -> paymentClient.processPayment(orderId, request.getCustomerId(), totalAmount),
+                    downstreamExecutor);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Waits for one batch order's payment and confirms the order if it went through.
+     *
+     * @param payment The payment in flight, or null if the order's products are out of stock
+     * @return The order's response; never throws
+     */
+    private OrderResponse settleBatchOrder(String orderId, OrderRequest request, double totalAmount,
+                                           CompletableFuture<Boolean> payment, Span span) {
+        if (payment == null) {
+            log.warn("Order {} failed: inventory not available", orderId);
+            return buildFailureResponse(orderId, "Inventory not available", totalAmount);
+        }
+        try {
+            boolean paid;
+            try {
+                paid = payment.join();
+            } catch (CompletionException e) {
+                throw DependencyUnavailableException.unwrap(e);
+            }
+            if (!paid) {
+                log.warn("Order {} failed: payment declined", orderId);
+                return buildFailureResponse(orderId, "Payment declined", totalAmount);
+            }
+            return confirmOrder(orderId, request, totalAmount, null, span, new OrderStageTimings());
+        } catch (DependencyUnavailableException e) {
+            return buildUnavailableResponse(orderId, e, totalAmount, span);
+        } catch (RuntimeException e) {
+            log.error("Failed to create order {} in batch", orderId, e);
+            OrderAttributes.recordError(span, e);
+            return buildFailureResponse(orderId, "Internal error", totalAmount);
+        }
+    }
+
+    /**
+     * Stores a paid order and builds the success response.
+     * Also used by {@link ReactiveOrderService}, so both pipelines share one store and index.
+     *
+     * The payment has already been taken at this point, and the payment service
+     * can neither void a captured payment nor refund one. If the store rejects the
+     * order (for example a failed write-ahead log sync), the payment is therefore
+     * logged for a manual refund and the order fails with its real ID and amount,
+     * so the client can reconcile the charge.
+     *
+     * @param paymentId The captured hold, or null if the order was paid in one step
+     */
+    OrderResponse confirmOrder(String orderId, OrderRequest request, double totalAmount, String paymentId,
+                               Span span, OrderStageTimings timings) {
+        // Create and store the order
+        Order order = Order.builder()
+                .orderId(orderId)
+                .customerId(request.getCustomerId())
+                .items(request.getItems())
+                .totalAmount(totalAmount)
+                .status("CONFIRMED")
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+
+        long stageStart = System.nanoTime();
+        try {
+            orders.put(order);
+        } catch (RuntimeException e) {
+            timings.setStoreNanos(System.nanoTime() - stageStart);
+            String payment = paymentId != null ? "payment " + paymentId : "its payment";
+            log.error("Order {} could not be stored after {} took {} from customer {}; it must be refunded manually",
+                    orderId, payment, totalAmount, request.getCustomerId(), e);
+            OrderAttributes.recordError(span, e);
+            span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "store_failed");
+            return buildFailureResponse(orderId, "Order could not be stored", totalAmount);
+        }
+        customerIndex.add(order);
+        timings.setStoreNanos(System.nanoTime() - stageStart);
+        span.setAttribute(OrderAttributes.ORDER_STATUS, "CONFIRMED");
+        log.info("Order {} confirmed successfully", orderId);
+
+        return OrderResponse.builder()
+                .orderId(orderId)
+                .status("CONFIRMED")
+                .message("Order placed successfully")
+                .totalAmount(totalAmount)
+                .timestamp(Instant.now().toString())
+                .build();
+    }
+
+    /**
+     * Checks inventory while placing a payment hold, then captures the hold if
+     * both succeeded and voids it otherwise.
+     *
+     * @param capturedPaymentId Receives the payment ID once the hold is captured
+     * @return A failure response, or null if the order is paid for
+     */
+    private OrderResponse reserveInParallel(String orderId, OrderRequest request, List<String> productIds,
+                                            double totalAmount, String[] capturedPaymentId, Span span,
+                                            OrderStageTimings timings) {
+        long[] inventoryNanos = new long[1];
+        long[] authorizeNanos = new long[1];
+        CompletableFuture<Boolean> inventory = CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return inventoryClient.checkAvailability(productIds);
+            } finally {
+                inventoryNanos[0] = System.nanoTime() - start;
+            }
+        }, downstreamExecutor);
+        CompletableFuture<Optional<String>> authorization = CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return paymentClient.authorizePayment(orderId, request.getCustomerId(), totalAmount);
+            } finally {
+                authorizeNanos[0] = System.nanoTime() - start;
+            }
+        }, downstreamExecutor);
+
+        // Wait for both, so a hold placed alongside a rejected inventory check is still released
+        boolean inventoryAvailable = false;
+        Optional<String> paymentId = Optional.empty();
+        RuntimeException failure = null;
+        try {
+            inventoryAvailable = inventory.join();
+        } catch (CompletionException e) {
+            failure = DependencyUnavailableException.unwrap(e);
+        }
+        try {
+            paymentId = authorization.join();
+        } catch (CompletionException e) {
+            failure = failure != null ? failure : DependencyUnavailableException.unwrap(e);
+        }
+        timings.setInventoryNanos(inventoryNanos[0]);
+        timings.setPaymentNanos(authorizeNanos[0]);
+        if (failure != null) {
+            paymentId.ifPresent(this::releaseHold);
+            throw failure;
+        }
+
+        if (!inventoryAvailable) {
+            log.warn("Order {} failed: inventory not available", orderId);
+            span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "inventory_unavailable");
+            paymentId.ifPresent(this::releaseHold);
+            return buildFailureResponse(orderId, "Inventory not available", totalAmount);
+        }
+        if (paymentId.isEmpty()) {
+            log.warn("Order {} failed: payment declined", orderId);
+            span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "payment_declined");
+            return buildFailureResponse(orderId, "Payment declined", totalAmount);
+        }
+
+        long stageStart = System.nanoTime();
+        boolean captured;
+        try {
+            captured = paymentClient.capturePayment(paymentId.get());
+        } catch (DependencyUnavailableException e) {
+            releaseHold(paymentId.get());
+            throw e;
+        }
+        timings.setPaymentNanos(authorizeNanos[0] + System.nanoTime() - stageStart);
+        if (!captured) {
+            log.warn("Order {} failed: payment capture failed", orderId);
+            span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "payment_capture_failed");
+            releaseHold(paymentId.get());
+            return buildFailureResponse(orderId, "Payment capture failed", totalAmount);
+        }
+        capturedPaymentId[0] = paymentId.get();
+        return null;
+    }
+
+    /**
+     * Voids a payment hold in the background; the order has already failed, so
+     * the caller does not wait for it.
+     */
+    private void releaseHold(String paymentId) {
+        CompletableFuture.runAsync(() -> {
+            boolean voided;
+            try {
+                voided = paymentClient.voidPayment(paymentId);
+            } catch (DependencyUnavailableException e) {
+                voided = false;
+            }
+            if (!voided) {
+                log.error("Payment hold {} could not be voided and must be released manually", paymentId);
+            }
+        }, downstreamExecutor);
+    }
+
     /**
      * Retrieves an order by ID.
      *
@@ -130,7 +472,45 @@ public class OrderService {
      */
     public Optional<Order> getOrder(String orderId) {
         log.debug("Retrieving order {}", orderId);
-        return Optional.ofNullable(orders.get(orderId));
+        return orders.get(orderId);
+    }
+
+    /**
+     * Lists a customer's orders, newest first, one page at a time.
+     *
+     * Only the orders on the requested page are read from the store, and they are
+     * peeked rather than fetched, so a listing neither counts as store hits nor
+     * keeps orders from being evicted. Index entries whose order is no longer
+     * stored are dropped as they are found.
+     *
+     * @param customerId The customer ID
+     * @param cursor     The previous page's next_cursor, or null for the first page
+     * @param limit      Maximum orders on the page
+     * @return The page of orders
+     * @throws IllegalArgumentException If the cursor is malformed
+     */
+    public OrderPage getCustomerOrders(String customerId, String cursor, int limit) {
+        CustomerOrderIndex.Entry after = cursor == null ? null : CustomerOrderIndex.decodeCursor(cursor);
+        Iterator<CustomerOrderIndex.Entry> entries = customerIndex.entriesAfter(customerId, after);
+
+        List<Order> page = new ArrayList<>(Math.min(limit, 64));
+        CustomerOrderIndex.Entry last = null;
+        while (page.size() < limit && entries.hasNext()) {
+            CustomerOrderIndex.Entry entry = entries.next();
+            Optional<Order> order = orders.peek(entry.orderId());
+            if (order.isPresent()) {
+                page.add(order.get());
+                last = entry;
+            } else {
+                customerIndex.remove(customerId, entry);
+            }
+        }
+
+        return OrderPage.builder()
+                .customerId(customerId)
+                .orders(page)
+                .nextCursor(last != null && entries.hasNext() ? CustomerOrderIndex.encodeCursor(last) : null)
+                .build();
     }
 
     /**
@@ -139,12 +519,25 @@ public class OrderService {
      * @param request The order request
      * @return The total amount
      */
-    private double calculateTotal(OrderRequest request) {
+    double calculateTotal(OrderRequest request) {
         return request.getItems().stream()
                 .mapToDouble(item -> item.getPrice() * item.getQuantity())
                 .sum();
     }
 
+    /**
+     * Builds the response for an order failed because a service was not called.
+     */
+    private OrderResponse buildUnavailableResponse(String orderId, DependencyUnavailableException e,
+                                                   double totalAmount, Span span) {
+        String dependency = e.getDependency();
+        log.warn("Order {} failed fast: {}", orderId, e.getMessage());
+        span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, dependency + "_unavailable");
+        return buildFailureResponse(orderId,
+                Character.toUpperCase(dependency.charAt(0)) + dependency.substring(1) + " service unavailable",
+                totalAmount);
+    }
+
     /**
      * Builds a failure response.
      *
@@ -153,7 +546,7 @@ public class OrderService {
      * @param totalAmount  The total amount
      * @return The order response
      */
-    private OrderResponse buildFailureResponse(String orderId, String message, double totalAmount) {
+    OrderResponse buildFailureResponse(String orderId, String message, double totalAmount) {
         return OrderResponse.builder()
                 .orderId(orderId)
                 .status("FAILED")
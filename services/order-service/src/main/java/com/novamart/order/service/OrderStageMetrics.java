@@ -0,0 +1,101 @@
+package com.novamart.order.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms for the stages of order creation: total calculation,
+ * inventory check, payment, store write and the detailed trace logging step.
+ *
+ * Each stage is a timer order.stage.duration tagged with the stage and the
+ * service version (order.service.version), so a regression between versions
+ * shows up in the stage that caused it without opening traces. Timers publish a
+ * percentile histogram (aggregated across instances with histogram_quantile on
+ * the Prometheus endpoint), p50/p95/p99 and SLO buckets sized for the stage.
+ * A stage a request never reached has no duration and is not recorded.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Component
+public class OrderStageMetrics {
+
+    static final String METRIC_NAME = "order.stage.duration";
+
+    private final Timer calculationTimer;
+    private final Timer inventoryTimer;
+    private final Timer paymentTimer;
+    private final Timer storeTimer;
+    private final Timer detailedTraceTimer;
+
+    /**
+     * @param version       Service version the timers are tagged with
+     * @param meterRegistry Registry for the stage timers
+     */
+    public OrderStageMetrics(
+            @Value("${order.service.version:v1.0}") String version,
+            MeterRegistry meterRegistry) {
+        this.calculationTimer = register("calculation", version, meterRegistry,
+                Duration.ofNanos(1_000), Duration.ofMillis(100),
+                Duration.ofNanos(10_000), Duration.ofNanos(100_000), Duration.ofMillis(1));
+        this.inventoryTimer = register("inventory", version, meterRegistry,
+                Duration.ofMillis(1), Duration.ofSeconds(10),
+                Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+                Duration.ofSeconds(1));
+        this.paymentTimer = register("payment", version, meterRegistry,
+                Duration.ofMillis(1), Duration.ofSeconds(10),
+                Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+                Duration.ofSeconds(1));
+        this.storeTimer = register("store", version, meterRegistry,
+                Duration.ofNanos(10_000), Duration.ofSeconds(1),
+                Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(50));
+        this.detailedTraceTimer = register("detailed_trace", version, meterRegistry,
+                Duration.ofNanos(10_000), Duration.ofSeconds(10),
+                Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofSeconds(1),
+                Duration.ofMillis(2500));
+    }
+
+    /**
+     * Records the stage durations of one order.
+     *
+     * @param timings Per-stage durations recorded by the service
+     */
+    public void record(OrderStageTimings timings) {
+        record(calculationTimer, timings.getCalculationNanos());
+        record(inventoryTimer, timings.getInventoryNanos());
+        record(paymentTimer, timings.getPaymentNanos());
+        record(storeTimer, timings.getStoreNanos());
+    }
+
+    /**
+     * Records the time one request spent on detailed trace logging.
+     *
+     * @param nanos Duration of the step
+     */
+    public void recordDetailedTrace(long nanos) {
+        record(detailedTraceTimer, nanos);
+    }
+
+    private static void record(Timer timer, long nanos) {
+        if (nanos > 0) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer register(String stage, String version, MeterRegistry meterRegistry,
+                                  Duration minimum, Duration maximum, Duration... serviceLevelObjectives) {
+        return Timer.builder(METRIC_NAME)
+                .description("Time spent in one stage of order creation")
+                .tag("stage", stage)
+                .tag("version", version)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(minimum)
+                .maximumExpectedValue(maximum)
+                .serviceLevelObjectives(serviceLevelObjectives)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,46 @@
+package com.novamart.order.service;
+
+/**
+ * Per-request stage durations recorded by {@link OrderService#createOrder}.
+ * One instance belongs to a single request, so fields are plain (not thread-safe).
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class OrderStageTimings {
+
+    private long calculationNanos;
+    private long inventoryNanos;
+    private long paymentNanos;
+    private long storeNanos;
+
+    public long getCalculationNanos() {
+        return calculationNanos;
+    }
+
+    public void setCalculationNanos(long calculationNanos) {
+        this.calculationNanos = calculationNanos;
+    }
+
+    public long getInventoryNanos() {
+        return inventoryNanos;
+    }
+
+    public void setInventoryNanos(long inventoryNanos) {
+        this.inventoryNanos = inventoryNanos;
+    }
+
+    public long getPaymentNanos() {
+        return paymentNanos;
+    }
+
+    public void setPaymentNanos(long paymentNanos) {
+        this.paymentNanos = paymentNanos;
+    }
+
+    public long getStoreNanos() {
+        return storeNanos;
+    }
+
+    public void setStoreNanos(long storeNanos) {
+        this.storeNanos = storeNanos;
+    }
+}
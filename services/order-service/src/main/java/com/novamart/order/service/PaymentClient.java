@@ -1,10 +1,15 @@
 package com.novamart.order.service;
 
+import com.novamart.order.resilience.DependencyGuard;
+import com.novamart.order.resilience.DependencyUnavailableException;
+import com.novamart.order.resilience.Retrier;
+import com.novamart.order.telemetry.OrderAttributes;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import io.opentelemetry.context.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -13,12 +18,19 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Optional;
 
 /**
  * Client for communicating with the Payment Service.
- * Processes payment authorization for orders.
+ * Processes payments for orders, either in one step or as an authorization
+ * hold that is later captured or voided.
+ *
+ * Calls go through the payment {@link DependencyGuard}; a call it rejects throws
+ * {@link DependencyUnavailableException} instead of reporting a declined payment.
+ * Calls that fail on the way (dropped connection, timeout, 5xx) are retried by
+ * the {@link Retrier}; payments and authorizations carry the order ID as
+ * idempotency key, so a retry returns the first attempt's payment rather than
+ * charging twice.
  * Workshop: From Commit to Culprit - Order Service
  */
 @Component
@@ -29,14 +41,20 @@ public class PaymentClient {
     private final RestTemplate restTemplate;
     private final Tracer tracer;
     private final String paymentServiceUrl;
+    private final DependencyGuard guard;
+    private final Retrier retrier;
 
     public PaymentClient(
             RestTemplate restTemplate,
             Tracer tracer,
-            @Value("${services.payment.url}") String paymentServiceUrl) {
+            @Value("${services.payment.url}") String paymentServiceUrl,
+            @Qualifier("paymentGuard") DependencyGuard guard,
+            @Qualifier("paymentRetrier") Retrier retrier) {
         this.restTemplate = restTemplate;
         this.tracer = tracer;
         this.paymentServiceUrl = paymentServiceUrl;
+        this.guard = guard;
+        this.retrier = retrier;
     }
 
     /**
@@ -46,41 +64,30 @@ public class PaymentClient {
      * @param customerId  The customer ID
      * @param amount      The payment amount
      * @return true if payment was successful, false otherwise
+     * @throws DependencyUnavailableException If the payment service is not being called
      */
     public boolean processPayment(String orderId, String customerId, double amount) {
         Span span = tracer.spanBuilder("payment.process")
-                .setAttribute("payment.order_id", orderId)
-                .setAttribute("payment.customer_id", customerId)
-                .setAttribute("payment.amount", amount)
+                .setAttribute(OrderAttributes.PAYMENT_ORDER_ID, orderId)
+                .setAttribute(OrderAttributes.PAYMENT_CUSTOMER_ID, customerId)
+                .setAttribute(OrderAttributes.PAYMENT_AMOUNT, amount)
                 .startSpan();
 
         try (Scope scope = span.makeCurrent()) {
             log.info("Processing payment for order {} with amount ${}", orderId, amount);
 
-            // Build request payload matching payment service's expected format
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("order_id", orderId);
-            requestBody.put("customer_id", customerId);
-            requestBody.put("amount", amount);
-            requestBody.put("currency", "USD");
-            requestBody.put("payment_method", "credit_card");
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
             // Call payment service - endpoint is /api/payments
             String url = paymentServiceUrl + "/api/payments";
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, request, Map.class);
+            PaymentResponse response = post(url, paymentRequest(orderId, customerId, amount));
 
             // Payment service returns status as "completed" for success
-            String status = (String) response.getBody().get("status");
+            String status = response.status();
             boolean success = "completed".equals(status);
-            span.setAttribute("payment.success", success);
+            span.setAttribute(OrderAttributes.PAYMENT_SUCCESS, success);
 
             if (success) {
-                String transactionId = (String) response.getBody().get("transaction_id");
-                span.setAttribute("payment.transaction_id", transactionId);
+                String transactionId = response.transactionId();
+                span.setAttribute(OrderAttributes.PAYMENT_TRANSACTION_ID, transactionId);
                 log.info("Payment processed successfully: transaction_id={}", transactionId);
             } else {
                 log.warn("Payment failed for order {}: status={}", orderId, status);
@@ -88,13 +95,138 @@ public class PaymentClient {
 
             return success;
 
+        } catch (DependencyUnavailableException e) {
+            log.warn("Payment for order {} not attempted: {}", orderId, e.getMessage());
+            OrderAttributes.markError(span);
+            throw e;
         } catch (Exception e) {
             log.error("Failed to process payment for order {}", orderId, e);
-            span.recordException(e);
-            span.setAttribute("error", true);
+            OrderAttributes.recordError(span, e);
             return false;
         } finally {
             span.end();
         }
     }
+
+    /**
+     * Places a hold for the order amount without capturing it.
+     *
+     * @param orderId     The order ID
+     * @param customerId  The customer ID
+     * @param amount      The amount to hold
+     * @return The payment ID of the hold, or empty if it was declined or failed
+     * @throws DependencyUnavailableException If the payment service is not being called
+     */
+    public Optional<String> authorizePayment(String orderId, String customerId, double amount) {
+        Span span = tracer.spanBuilder("payment.authorize")
+                .setAttribute(OrderAttributes.PAYMENT_ORDER_ID, orderId)
+                .setAttribute(OrderAttributes.PAYMENT_CUSTOMER_ID, customerId)
+                .setAttribute(OrderAttributes.PAYMENT_AMOUNT, amount)
+                .startSpan();
+
+        try (Scope scope = span.makeCurrent()) {
+            log.info("Authorizing payment for order {} with amount ${}", orderId, amount);
+
+            String url = paymentServiceUrl + "/api/payments/authorize";
+            PaymentResponse response = post(url, paymentRequest(orderId, customerId, amount));
+
+            String status = response.status();
+            boolean authorized = "authorized".equals(status);
+            span.setAttribute(OrderAttributes.PAYMENT_SUCCESS, authorized);
+            if (!authorized) {
+                log.warn("Payment authorization failed for order {}: status={}", orderId, status);
+                return Optional.empty();
+            }
+
+            String paymentId = response.paymentId();
+            span.setAttribute(OrderAttributes.PAYMENT_ID, paymentId);
+            log.info("Payment authorized for order {}: payment_id={}", orderId, paymentId);
+            return Optional.of(paymentId);
+
+        } catch (DependencyUnavailableException e) {
+            log.warn("Payment authorization for order {} not attempted: {}", orderId, e.getMessage());
+            OrderAttributes.markError(span);
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to authorize payment for order {}", orderId, e);
+            OrderAttributes.recordError(span, e);
+            return Optional.empty();
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Captures a payment previously authorized with {@link #authorizePayment}.
+     *
+     * @param paymentId The payment ID of the hold
+     * @return true if the payment was captured, false otherwise
+     * @throws DependencyUnavailableException If the payment service is not being called
+     */
+    public boolean capturePayment(String paymentId) {
+        return settle(paymentId, "capture", "completed");
+    }
+
+    /**
+     * Releases a hold placed with {@link #authorizePayment}.
+     *
+     * @param paymentId The payment ID of the hold
+     * @return true if the hold was released, false otherwise
+     * @throws DependencyUnavailableException If the payment service is not being called
+     */
+    public boolean voidPayment(String paymentId) {
+        return settle(paymentId, "void", "voided");
+    }
+
+    private boolean settle(String paymentId, String action, String expectedStatus) {
+        Span span = tracer.spanBuilder("payment." + action)
+                .setAttribute(OrderAttributes.PAYMENT_ID, paymentId)
+                .startSpan();
+
+        try (Scope scope = span.makeCurrent()) {
+            String url = paymentServiceUrl + "/api/payments/" + paymentId + "/" + action;
+            // Capturing or voiding a payment twice returns it as it is
+            PaymentResponse response = post(url, null);
+
+            String status = response.status();
+            boolean success = expectedStatus.equals(status);
+            span.setAttribute(OrderAttributes.PAYMENT_SUCCESS, success);
+            if (success) {
+                log.info("Payment {} {}: status={}", paymentId, action, status);
+            } else {
+                log.warn("Payment {} {} failed: status={}", paymentId, action, status);
+            }
+            return success;
+
+        } catch (DependencyUnavailableException e) {
+            log.warn("Payment {} {} not attempted: {}", paymentId, action, e.getMessage());
+            OrderAttributes.markError(span);
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to {} payment {}", action, paymentId, e);
+            OrderAttributes.recordError(span, e);
+            return false;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Posts to the payment service through the guard, retrying failed attempts.
+     * Only for requests the payment service handles idempotently.
+     */
+    private PaymentResponse post(String url, HttpEntity<?> request) {
+        ResponseEntity<PaymentResponse> response = retrier.call(
+                () -> guard.call(() -> restTemplate.postForEntity(url, request, PaymentResponse.class)));
+        return response.getBody();
+    }
+
+    /**
+     * Builds a request payload matching the payment service's expected format.
+     */
+    private HttpEntity<PaymentRequest> paymentRequest(String orderId, String customerId, double amount) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(PaymentRequest.forOrder(orderId, customerId, amount), headers);
+    }
 }
@@ -0,0 +1,31 @@
+package com.novamart.order.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of a payment-service payment or authorization request.
+ * Workshop: From Commit to Culprit - Order Service
+ *
+ * @param orderId        The order ID
+ * @param customerId     The customer ID
+ * @param amount         The amount to charge or hold
+ * @param currency       ISO currency code
+ * @param paymentMethod  Payment method
+ * @param idempotencyKey Key the payment service deduplicates on
+ */
+public record PaymentRequest(
+        @JsonProperty("order_id") String orderId,
+        @JsonProperty("customer_id") String customerId,
+        @JsonProperty("amount") double amount,
+        @JsonProperty("currency") String currency,
+        @JsonProperty("payment_method") String paymentMethod,
+        @JsonProperty("idempotency_key") String idempotencyKey) {
+
+    /**
+     * Builds the request for an order. The order ID is the idempotency key:
+     * one payment (or hold) per order.
+     */
+    public static PaymentRequest forOrder(String orderId, String customerId, double amount) {
+        return new PaymentRequest(orderId, customerId, amount, "USD", "credit_card", orderId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.novamart.order.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Reply from the payment service for a payment, authorization, capture or void.
+ * Only the fields the order service reads are bound.
+ * Workshop: From Commit to Culprit - Order Service
+ *
+ * @param paymentId     The payment ID
+ * @param status        Payment status (authorized, completed, failed, voided, ...)
+ * @param transactionId Gateway transaction ID, once the payment is completed
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record PaymentResponse(
+        @JsonProperty("payment_id") String paymentId,
+        @JsonProperty("status") String status,
+        @JsonProperty("transaction_id") String transactionId) {
+}
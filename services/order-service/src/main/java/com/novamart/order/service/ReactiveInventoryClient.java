@@ -0,0 +1,85 @@
+package com.novamart.order.service;
+
+import com.novamart.order.telemetry.OrderAttributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking client for the Inventory Service, used by the reactive pipeline.
+ * Same request and span as {@link InventoryClient}, on the shared {@link WebClient}.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Component
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "reactive")
+public class ReactiveInventoryClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveInventoryClient.class);
+
+    private final WebClient webClient;
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+    private final String inventoryServiceUrl;
+
+    public ReactiveInventoryClient(
+            WebClient webClient,
+            Tracer tracer,
+            TextMapPropagator propagator,
+            @Value("${services.inventory.url}") String inventoryServiceUrl) {
+        this.webClient = webClient;
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.inventoryServiceUrl = inventoryServiceUrl;
+    }
+
+    /**
+     * Checks inventory availability for the given product IDs.
+     *
+     * @param productIds List of product IDs to check
+     * @param parent     Trace context the call belongs to
+     * @return true if all products are available; false if not or if the call failed
+     */
+    public Mono<Boolean> checkAvailability(List<String> productIds, Context parent) {
+        return Mono.defer(() -> {
+            Span span = tracer.spanBuilder("inventory.check")
+                    .setParent(parent)
+                    .setAttribute(OrderAttributes.INVENTORY_PRODUCT_COUNT, (long) productIds.size())
+                    .startSpan();
+            Context context = parent.with(span);
+            log.info("Checking inventory availability for {} products", productIds.size());
+
+            return webClient.post()
+                    .uri(inventoryServiceUrl + "/api/inventory/check")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .headers(headers -> propagator.inject(context, headers, HttpHeaders::set))
+                    .bodyValue(new InventoryCheckRequest(productIds))
+                    .retrieve()
+                    .bodyToMono(InventoryCheckResponse.class)
+                    .map(body -> {
+                        boolean available = body.available();
+                        span.setAttribute(OrderAttributes.INVENTORY_AVAILABLE, available);
+                        log.info("Inventory check completed: available={}", available);
+                        return available;
+                    })
+                    .defaultIfEmpty(false)
+                    .onErrorResume(e -> {
+                        log.error("Failed to check inventory availability", e);
+                        OrderAttributes.recordError(span, e);
+                        return Mono.just(false);
+                    })
+                    .doFinally(signal -> span.end());
+        });
+    }
+}
@@ -0,0 +1,231 @@
+package com.novamart.order.service;
+
+import com.novamart.order.id.OrderIdGenerator;
+import com.novamart.order.model.OrderRequest;
+import com.novamart.order.model.OrderResponse;
+import com.novamart.order.store.OrderStore;
+import com.novamart.order.telemetry.OrderAttributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+/**
+ * Non-blocking variant of {@link OrderService#createOrder}, used when
+ * order.pipeline is "reactive".
+ *
+ * The inventory and payment calls are composed on the reactive clients, so no
+ * thread waits on them and thread count no longer grows with orders in flight.
+ * Orchestration (order.service.orchestration) works as in {@link OrderService}.
+ * Paid orders are stored through {@link OrderService}, so both pipelines share
+ * one store and customer index; a store whose puts block is written from the
+ * bounded elastic scheduler. Load beyond the downstream connection pool and its
+ * pending-acquire queue fails fast instead of queueing without bound.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Service
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "reactive")
+public class ReactiveOrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveOrderService.class);
+
+    private final ReactiveInventoryClient inventoryClient;
+    private final ReactivePaymentClient paymentClient;
+    private final Tracer tracer;
+    private final OrderService orderService;
+    private final OrderIdGenerator orderIdGenerator;
+    private final Scheduler storeScheduler;
+    private final boolean parallelOrchestration;
+
+    public ReactiveOrderService(
+            ReactiveInventoryClient inventoryClient,
+            ReactivePaymentClient paymentClient,
+            Tracer tracer,
+            OrderService orderService,
+            OrderStore orders,
+            OrderIdGenerator orderIdGenerator,
+            @Value("${order.service.orchestration:sequential}") String orchestration) {
+        this.inventoryClient = inventoryClient;
+        this.paymentClient = paymentClient;
+        this.tracer = tracer;
+        this.orderService = orderService;
+        this.orderIdGenerator = orderIdGenerator;
+        this.storeScheduler = orders.isPutBlocking() ? Schedulers.boundedElastic() : Schedulers.immediate();
+        this.parallelOrchestration = switch (orchestration) {
+            case "sequential" -> false;
+            case "parallel" -> true;
+            default -> throw new IllegalArgumentException("Unknown order orchestration: " + orchestration);
+        };
+    }
+
+    /**
+     * Creates a new order by orchestrating inventory and payment services.
+     *
+     * @param request The order request
+     * @return The order response
+     */
+    public Mono<OrderResponse> createOrder(OrderRequest request) {
+        return createOrder(request, new OrderStageTimings());
+    }
+
+    /**
+     * Creates a new order and records how long each stage took, in the timings
+     * and in the stage latency histograms. The order is traced as a child of the
+     * context current when this is called.
+     *
+     * @param request The order request
+     * @param timings Receives the per-stage durations
+     * @return The order response; never an error
+     */
+    public Mono<OrderResponse> createOrder(OrderRequest request, OrderStageTimings timings) {
+        Context parent = Context.current();
+        return Mono.defer(() -> {
+            Span span = tracer.spanBuilder("order.create")
+                    .setParent(parent)
+                    .setAttribute(OrderAttributes.ORDER_CUSTOMER_ID, request.getCustomerId())
+                    .setAttribute(OrderAttributes.ORDER_ITEM_COUNT, (long) request.getItems().size())
+                    .startSpan();
+            Context context = parent.with(span);
+            String orderId = orderIdGenerator.nextId();
+
+            return Mono.defer(() -> processOrder(orderId, request, timings, span, context))
+                    .onErrorResume(e -> Mono.just(internalError(orderId, 0.0, span, e)))
+                    .doFinally(signal -> {
+                        span.end();
+                        orderService.recordStageTimings(timings);
+                    });
+        });
+    }
+
+    private Mono<OrderResponse> processOrder(String orderId, OrderRequest request, OrderStageTimings timings,
+                                             Span span, Context context) {
+        log.info("Creating order {} for customer {}", orderId, request.getCustomerId());
+
+        // Calculate total amount
+        long stageStart = System.nanoTime();
+        double totalAmount = orderService.calculateTotal(request);
+        timings.setCalculationNanos(System.nanoTime() - stageStart);
+        span.setAttribute(OrderAttributes.ORDER_TOTAL_AMOUNT, totalAmount);
+
+        // Extract product IDs for inventory check
+        List<String> productIds = request.getItems().stream()
+                .map(OrderRequest.OrderItem::getProductId)
+                .toList();
+
+        if (parallelOrchestration) {
+            return reserveInParallel(orderId, request, productIds, totalAmount, span, context, timings)
+                    .onErrorResume(e -> Mono.just(internalError(orderId, totalAmount, span, e)));
+        }
+
+        return timed(inventoryClient.checkAvailability(productIds, context), timings::setInventoryNanos)
+                .flatMap(inventoryAvailable -> {
+                    if (!inventoryAvailable) {
+                        log.warn("Order {} failed: inventory not available", orderId);
+                        span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "inventory_unavailable");
+                        return Mono.just(orderService.buildFailureResponse(orderId, "Inventory not available", totalAmount));
+                    }
+                    return timed(paymentClient.processPayment(orderId, request.getCustomerId(), totalAmount, context),
+                            timings::setPaymentNanos)
+                            .flatMap(paymentSuccess -> {
+                                if (!paymentSuccess) {
+                                    log.warn("Order {} failed: payment declined", orderId);
+                                    span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "payment_declined");
+                                    return Mono.just(orderService.buildFailureResponse(orderId, "Payment declined", totalAmount));
+                                }
+                                return confirmOrder(orderId, request, totalAmount, null, span, timings);
+                            });
+                })
+                .onErrorResume(e -> Mono.just(internalError(orderId, totalAmount, span, e)));
+    }
+
+    /**
+     * Checks inventory while placing a payment hold, then captures the hold if
+     * both succeeded and voids it otherwise.
+     */
+    private Mono<OrderResponse> reserveInParallel(String orderId, OrderRequest request, List<String> productIds,
+                                                  double totalAmount, Span span, Context context,
+                                                  OrderStageTimings timings) {
+        return Mono.zip(
+                        timed(inventoryClient.checkAvailability(productIds, context), timings::setInventoryNanos),
+                        timed(paymentClient.authorizePayment(orderId, request.getCustomerId(), totalAmount, context),
+                                timings::setPaymentNanos))
+                .flatMap(results -> {
+                    boolean inventoryAvailable = results.getT1();
+                    Optional<String> paymentId = results.getT2();
+                    if (!inventoryAvailable) {
+                        log.warn("Order {} failed: inventory not available", orderId);
+                        span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "inventory_unavailable");
+                        paymentId.ifPresent(id -> releaseHold(id, context));
+                        return Mono.just(orderService.buildFailureResponse(orderId, "Inventory not available", totalAmount));
+                    }
+                    if (paymentId.isEmpty()) {
+                        log.warn("Order {} failed: payment declined", orderId);
+                        span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "payment_declined");
+                        return Mono.just(orderService.buildFailureResponse(orderId, "Payment declined", totalAmount));
+                    }
+
+                    long authorizeNanos = timings.getPaymentNanos();
+                    return timed(paymentClient.capturePayment(paymentId.get(), context),
+                            captureNanos -> timings.setPaymentNanos(authorizeNanos + captureNanos))
+                            .flatMap(captured -> {
+                                if (!captured) {
+                                    log.warn("Order {} failed: payment capture failed", orderId);
+                                    span.setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "payment_capture_failed");
+                                    releaseHold(paymentId.get(), context);
+                                    return Mono.just(orderService.buildFailureResponse(orderId, "Payment capture failed", totalAmount));
+                                }
+                                return confirmOrder(orderId, request, totalAmount, paymentId.get(), span, timings);
+                            });
+                });
+    }
+
+    private Mono<OrderResponse> confirmOrder(String orderId, OrderRequest request, double totalAmount,
+                                             String paymentId, Span span, OrderStageTimings timings) {
+        return Mono.fromCallable(() -> orderService.confirmOrder(orderId, request, totalAmount, paymentId,
+                        span, timings))
+                .subscribeOn(storeScheduler);
+    }
+
+    /**
+     * Fails an order on an unexpected error, keeping its ID and amount so the
+     * client can reconcile it.
+     */
+    private OrderResponse internalError(String orderId, double totalAmount, Span span, Throwable e) {
+        log.error("Failed to create order {}", orderId, e);
+        OrderAttributes.recordError(span, e);
+        return orderService.buildFailureResponse(orderId, "Internal error", totalAmount);
+    }
+
+    /**
+     * Voids a payment hold in the background; the order has already failed, so
+     * the caller does not wait for it.
+     */
+    private void releaseHold(String paymentId, Context context) {
+        paymentClient.voidPayment(paymentId, context).subscribe(voided -> {
+            if (!voided) {
+                log.error("Payment hold {} could not be voided and must be released manually", paymentId);
+            }
+        });
+    }
+
+    /**
+     * Reports how long a call took from subscription until it completed.
+     */
+    private static <T> Mono<T> timed(Mono<T> call, LongConsumer recorder) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnTerminate(() -> recorder.accept(System.nanoTime() - start));
+        });
+    }
+}
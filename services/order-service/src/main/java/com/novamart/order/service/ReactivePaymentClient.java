@@ -0,0 +1,201 @@
+package com.novamart.order.service;
+
+import com.novamart.order.telemetry.OrderAttributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Non-blocking client for the Payment Service, used by the reactive pipeline.
+ * Mirrors {@link PaymentClient}: one-step payments, or an authorization hold that
+ * is later captured or voided. Failed calls complete with a negative result
+ * rather than an error, as the blocking client returns false.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Component
+@ConditionalOnProperty(name = "order.pipeline", havingValue = "reactive")
+public class ReactivePaymentClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactivePaymentClient.class);
+
+    private final WebClient webClient;
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+    private final String paymentServiceUrl;
+
+    public ReactivePaymentClient(
+            WebClient webClient,
+            Tracer tracer,
+            TextMapPropagator propagator,
+            @Value("${services.payment.url}") String paymentServiceUrl) {
+        this.webClient = webClient;
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.paymentServiceUrl = paymentServiceUrl;
+    }
+
+    /**
+     * Processes payment for the given order.
+     *
+     * @param orderId     The order ID
+     * @param customerId  The customer ID
+     * @param amount      The payment amount
+     * @param parent      Trace context the call belongs to
+     * @return true if payment was successful, false otherwise
+     */
+    public Mono<Boolean> processPayment(String orderId, String customerId, double amount, Context parent) {
+        return Mono.defer(() -> {
+            Span span = paymentSpan("payment.process", orderId, customerId, amount, parent);
+            log.info("Processing payment for order {} with amount ${}", orderId, amount);
+
+            return post("/api/payments", PaymentRequest.forOrder(orderId, customerId, amount), parent.with(span))
+                    .map(body -> {
+                        // Payment service returns status as "completed" for success
+                        String status = body.status();
+                        boolean success = "completed".equals(status);
+                        span.setAttribute(OrderAttributes.PAYMENT_SUCCESS, success);
+                        if (success) {
+                            String transactionId = body.transactionId();
+                            span.setAttribute(OrderAttributes.PAYMENT_TRANSACTION_ID, transactionId);
+                            log.info("Payment processed successfully: transaction_id={}", transactionId);
+                        } else {
+                            log.warn("Payment failed for order {}: status={}", orderId, status);
+                        }
+                        return success;
+                    })
+                    .defaultIfEmpty(false)
+                    .onErrorResume(e -> {
+                        log.error("Failed to process payment for order {}", orderId, e);
+                        OrderAttributes.recordError(span, e);
+                        return Mono.just(false);
+                    })
+                    .doFinally(signal -> span.end());
+        });
+    }
+
+    /**
+     * Places a hold for the order amount without capturing it.
+     *
+     * @param orderId     The order ID
+     * @param customerId  The customer ID
+     * @param amount      The amount to hold
+     * @param parent      Trace context the call belongs to
+     * @return The payment ID of the hold, or empty if it was declined or failed
+     */
+    public Mono<Optional<String>> authorizePayment(String orderId, String customerId, double amount,
+                                                   Context parent) {
+        return Mono.defer(() -> {
+            Span span = paymentSpan("payment.authorize", orderId, customerId, amount, parent);
+            log.info("Authorizing payment for order {} with amount ${}", orderId, amount);
+
+            return post("/api/payments/authorize", PaymentRequest.forOrder(orderId, customerId, amount),
+                    parent.with(span))
+                    .map(body -> {
+                        String status = body.status();
+                        boolean authorized = "authorized".equals(status);
+                        span.setAttribute(OrderAttributes.PAYMENT_SUCCESS, authorized);
+                        if (!authorized) {
+                            log.warn("Payment authorization failed for order {}: status={}", orderId, status);
+                            return Optional.<String>empty();
+                        }
+                        String paymentId = body.paymentId();
+                        span.setAttribute(OrderAttributes.PAYMENT_ID, paymentId);
+                        log.info("Payment authorized for order {}: payment_id={}", orderId, paymentId);
+                        return Optional.of(paymentId);
+                    })
+                    .defaultIfEmpty(Optional.empty())
+                    .onErrorResume(e -> {
+                        log.error("Failed to authorize payment for order {}", orderId, e);
+                        OrderAttributes.recordError(span, e);
+                        return Mono.just(Optional.empty());
+                    })
+                    .doFinally(signal -> span.end());
+        });
+    }
+
+    /**
+     * Captures a payment previously authorized with {@link #authorizePayment}.
+     *
+     * @param paymentId The payment ID of the hold
+     * @param parent    Trace context the call belongs to
+     * @return true if the payment was captured, false otherwise
+     */
+    public Mono<Boolean> capturePayment(String paymentId, Context parent) {
+        return settle(paymentId, "capture", "completed", parent);
+    }
+
+    /**
+     * Releases a hold placed with {@link #authorizePayment}.
+     *
+     * @param paymentId The payment ID of the hold
+     * @param parent    Trace context the call belongs to
+     * @return true if the hold was released, false otherwise
+     */
+    public Mono<Boolean> voidPayment(String paymentId, Context parent) {
+        return settle(paymentId, "void", "voided", parent);
+    }
+
+    private Mono<Boolean> settle(String paymentId, String action, String expectedStatus, Context parent) {
+        return Mono.defer(() -> {
+            Span span = tracer.spanBuilder("payment." + action)
+                    .setParent(parent)
+                    .setAttribute(OrderAttributes.PAYMENT_ID, paymentId)
+                    .startSpan();
+
+            return post("/api/payments/" + paymentId + "/" + action, Map.of(), parent.with(span))
+                    .map(body -> {
+                        String status = body.status();
+                        boolean success = expectedStatus.equals(status);
+                        span.setAttribute(OrderAttributes.PAYMENT_SUCCESS, success);
+                        if (success) {
+                            log.info("Payment {} {}: status={}", paymentId, action, status);
+                        } else {
+                            log.warn("Payment {} {} failed: status={}", paymentId, action, status);
+                        }
+                        return success;
+                    })
+                    .defaultIfEmpty(false)
+                    .onErrorResume(e -> {
+                        log.error("Failed to {} payment {}", action, paymentId, e);
+                        OrderAttributes.recordError(span, e);
+                        return Mono.just(false);
+                    })
+                    .doFinally(signal -> span.end());
+        });
+    }
+
+    private Span paymentSpan(String name, String orderId, String customerId, double amount, Context parent) {
+        return tracer.spanBuilder(name)
+                .setParent(parent)
+                .setAttribute(OrderAttributes.PAYMENT_ORDER_ID, orderId)
+                .setAttribute(OrderAttributes.PAYMENT_CUSTOMER_ID, customerId)
+                .setAttribute(OrderAttributes.PAYMENT_AMOUNT, amount)
+                .startSpan();
+    }
+
+    /**
+     * Posts a JSON body, carrying the given trace context, and reads the JSON reply.
+     */
+    private Mono<PaymentResponse> post(String path, Object body, Context context) {
+        return webClient.post()
+                .uri(paymentServiceUrl + path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(headers -> propagator.inject(context, headers, HttpHeaders::set))
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(PaymentResponse.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.novamart.order.store;
+
+import com.novamart.order.cache.SegmentedLruCache;
+import com.novamart.order.cache.SegmentedLruCache.RemovalCause;
+import com.novamart.order.model.Order;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Bounded in-memory order store.
+ *
+ * Keeps at most {@code maxSize} orders and drops orders older than {@code ttl},
+ * using segmented-LRU eviction so that recently read orders survive a flood of
+ * new ones. Heap use stays flat under sustained load instead of growing until
+ * full GCs dominate.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class BoundedOrderStore implements OrderStore {
+
+    private final SegmentedLruCache<String, Order> cache;
+    private volatile Consumer<? super Order> evictionListener = order -> { };
+
+    public BoundedOrderStore(long maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.cache = new SegmentedLruCache<>(maxSize, ttl,
+                Runtime.getRuntime().availableProcessors() * 4,
+                (orderId, order, cause) -> evictionListener.accept(order));
+
+        Gauge.builder("order.store.size", cache, SegmentedLruCache::size)
+                .description("Orders currently held in the order store")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.store.requests", cache, SegmentedLruCache::hitCount)
+                .description("Order store lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.store.requests", cache, SegmentedLruCache::missCount)
+                .description("Order store lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.store.evictions", cache, c -> c.evictionCount(RemovalCause.SIZE))
+                .description("Orders evicted from the order store")
+                .tag("cause", "size")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.store.evictions", cache, c -> c.evictionCount(RemovalCause.EXPIRED))
+                .description("Orders evicted from the order store")
+                .tag("cause", "expired")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void put(Order order) {
+        cache.put(order.getOrderId(), order);
+    }
+
+    @Override
+    public Optional<Order> get(String orderId) {
+        return Optional.ofNullable(cache.get(orderId));
+    }
+
+    @Override
+    public Optional<Order> peek(String orderId) {
+        return Optional.ofNullable(cache.peek(orderId));
+    }
+
+    @Override
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Order> action) {
+        cache.forEach((orderId, order) -> action.accept(order));
+    }
+
+    @Override
+    public void onEviction(Consumer<? super Order> listener) {
+        this.evictionListener = listener;
+    }
+}
@@ -0,0 +1,312 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Order store that persists the orders of another store across restarts.
+ *
+ * The wrapped store keeps serving reads. A periodic {@link OrderSnapshot}
+ * (and one on shutdown) lets a restarted instance memory-map its last state back
+ * in quickly. With the write-ahead log enabled every order is also appended to
+ * an {@link OrderWriteAheadLog} (group commit, so concurrent puts share an
+ * fsync) before it is applied, making each confirmation durable; startup then
+ * replays the log segments written after the snapshot.
+ *
+ * Each snapshot with the log enabled cuts the log at a new segment, so it
+ * covers exactly the segments before it. Puts are only held back for the
+ * instant it takes to cut the log; the snapshot itself is streamed while writes
+ * continue.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class DurableOrderStore implements OrderStore, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DurableOrderStore.class);
+
+    private final OrderStore delegate;
+    private final Path directory;
+    private final OrderWriteAheadLog wal;
+    private final RestoreReport restoreReport;
+    private final Timer snapshotTimer;
+    private final ScheduledExecutorService snapshotExecutor;
+
+    // Puts hold the read lock across log append and apply, so cutting the log under
+    // the write lock guarantees every order in older segments is in the delegate
+    private final ReadWriteLock cutLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    // Guarded by this
+    private long nextSnapshotId;
+    private long previousSnapshotId;
+
+    private volatile long lastSnapshotBytes;
+
+    /**
+     * Restores the wrapped store from the data directory and, with the log enabled,
+     * opens a new log segment.
+     *
+     * @param delegate         Store that holds the orders in memory
+     * @param directory        Directory for snapshots and log segments
+     * @param walEnabled       Whether every put is logged and fsynced before it returns
+     * @param segmentBytes     Size after which the log rolls to a new segment
+     * @param maxBatch         Maximum orders made durable by one fsync
+     * @param snapshotInterval Time between snapshots
+     * @param meterRegistry    Registry for persistence metrics
+     * @throws UncheckedIOException If the directory cannot be read or the log cannot be opened
+     */
+    public DurableOrderStore(OrderStore delegate, Path directory, boolean walEnabled, long segmentBytes,
+                             int maxBatch, Duration snapshotInterval, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.directory = directory;
+        this.snapshotTimer = Timer.builder("order.store.snapshot.write")
+                .description("Time to write a snapshot of the order store")
+                .register(meterRegistry);
+        Gauge.builder("order.store.snapshot.size", this, store -> store.lastSnapshotBytes)
+                .description("Size of the latest order store snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        try {
+            Files.createDirectories(directory);
+            this.restoreReport = restore();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore orders from " + directory, e);
+        }
+        this.wal = walEnabled
+                ? new OrderWriteAheadLog(directory, nextSnapshotId, segmentBytes, maxBatch, meterRegistry)
+                : null;
+
+        this.snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshotExecutor.scheduleWithFixedDelay(this::snapshotQuietly,
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(Order order) {
+        if (wal == null) {
+            delegate.put(order);
+            return;
+        }
+        cutLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Order store is closed");
+            }
+            wal.append(order);
+            delegate.put(order);
+        } finally {
+            cutLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Order> get(String orderId) {
+        return delegate.get(orderId);
+    }
+
+    @Override
+    public Optional<Order> peek(String orderId) {
+        return delegate.peek(orderId);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Order> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public void onEviction(Consumer<? super Order> listener) {
+        delegate.onEviction(listener);
+    }
+
+    @Override
+    public boolean isPutBlocking() {
+        // Puts wait for the log's fsync
+        return wal != null;
+    }
+
+    /**
+     * @return What was restored at startup
+     */
+    public RestoreReport getRestoreReport() {
+        return restoreReport;
+    }
+
+    /**
+     * Loads the newest usable snapshot, falling back to the one before it if it
+     * fails validation, then replays every log segment from that snapshot onwards.
+     */
+    private RestoreReport restore() throws IOException {
+        deleteTemporaryFiles();
+        List<Long> snapshots = OrderLogFiles.snapshotIds(directory);
+        List<Long> segments = OrderLogFiles.segmentIds(directory);
+
+        OrderSnapshot.Info snapshot = null;
+        Path snapshotFile = null;
+        long restoreNanos = 0;
+        for (int i = snapshots.size() - 1; i >= 0 && snapshot == null; i--) {
+            Path file = OrderLogFiles.snapshotPath(directory, snapshots.get(i));
+            long start = System.nanoTime();
+            try {
+                snapshot = OrderSnapshot.load(file, delegate::put);
+                snapshotFile = file;
+                restoreNanos = System.nanoTime() - start;
+            } catch (IOException e) {
+                log.error("Snapshot {} is unusable; trying an older one", file, e);
+            }
+        }
+        long snapshotId = snapshot == null ? 0 : snapshot.id();
+
+        long replayStart = System.nanoTime();
+        long replayed = 0;
+        for (long segmentId : segments) {
+            if (segmentId >= snapshotId) {
+                replayed += OrderLogFiles.replay(OrderLogFiles.segmentPath(directory, segmentId), delegate::put);
+            }
+        }
+        long replayNanos = System.nanoTime() - replayStart;
+
+        long lastId = snapshotId;
+        for (long id : snapshots) {
+            lastId = Math.max(lastId, id);
+        }
+        for (long id : segments) {
+            lastId = Math.max(lastId, id);
+        }
+        synchronized (this) {
+            nextSnapshotId = lastId + 1;
+            previousSnapshotId = snapshotId;
+        }
+
+        RestoreReport report = new RestoreReport(
+                snapshotFile == null ? null : snapshotFile.getFileName().toString(),
+                snapshot == null ? 0 : snapshot.bytes(),
+                snapshot == null ? 0 : snapshot.orders(),
+                snapshot == null ? 0 : snapshot.writeMillis(),
+                TimeUnit.NANOSECONDS.toMillis(restoreNanos),
+                replayed,
+                TimeUnit.NANOSECONDS.toMillis(replayNanos));
+        log.info("Restored order store from {}: {} orders from snapshot in {} ms, {} from log in {} ms",
+                directory, report.snapshotOrders(), report.restoreMillis(), replayed, report.logReplayMillis());
+        return report;
+    }
+
+    /**
+     * Streams the wrapped store to a new snapshot. With the log enabled the log is
+     * cut first, so the snapshot covers every segment older than its id; segments
+     * and snapshots older than the previous snapshot are then deleted, keeping one
+     * fallback if the newest turns out to be unreadable.
+     */
+    public synchronized void snapshot() throws IOException {
+        long snapshotId;
+        if (wal == null) {
+            snapshotId = nextSnapshotId++;
+        } else {
+            cutLock.writeLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                snapshotId = wal.roll();
+            } finally {
+                cutLock.writeLock().unlock();
+            }
+        }
+
+        Path target = OrderLogFiles.snapshotPath(directory, snapshotId);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        OrderSnapshot.Info info = OrderSnapshot.write(temp, snapshotId, delegate);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        OrderLogFiles.syncDirectory(directory);
+
+        deleteBefore(previousSnapshotId);
+        previousSnapshotId = snapshotId;
+
+        lastSnapshotBytes = info.bytes();
+        snapshotTimer.record(info.writeMillis(), TimeUnit.MILLISECONDS);
+        log.info("Wrote snapshot {}: {} orders, {} bytes in {} ms",
+                target.getFileName(), info.orders(), info.bytes(), info.writeMillis());
+    }
+
+    private void deleteBefore(long snapshotId) throws IOException {
+        for (long id : OrderLogFiles.segmentIds(directory)) {
+            if (id < snapshotId) {
+                Files.deleteIfExists(OrderLogFiles.segmentPath(directory, id));
+            }
+        }
+        for (long id : OrderLogFiles.snapshotIds(directory)) {
+            if (id < snapshotId) {
+                Files.deleteIfExists(OrderLogFiles.snapshotPath(directory, id));
+            }
+        }
+    }
+
+    private void deleteTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Order store snapshot failed; restarts replay more of the log until one succeeds", e);
+        }
+    }
+
+    /**
+     * Writes a final snapshot so the next start only has to load it, then closes the log.
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        snapshotExecutor.shutdown();
+        snapshotExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        snapshotQuietly();
+
+        if (wal == null) {
+            return;
+        }
+        cutLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            cutLock.writeLock().unlock();
+        }
+        wal.close();
+    }
+}
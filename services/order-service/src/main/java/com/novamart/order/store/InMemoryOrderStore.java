@@ -0,0 +1,38 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Unbounded in-memory order store backed by a ConcurrentHashMap.
+ * Never evicts, so heap grows with every confirmed order; useful for tests
+ * and short workshop runs.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class InMemoryOrderStore implements OrderStore {
+
+    private final ConcurrentHashMap<String, Order> orders = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(Order order) {
+        orders.put(order.getOrderId(), order);
+    }
+
+    @Override
+    public Optional<Order> get(String orderId) {
+        return Optional.ofNullable(orders.get(orderId));
+    }
+
+    @Override
+    public long size() {
+        return orders.size();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Order> action) {
+        orders.values().forEach(action);
+    }
+}
@@ -0,0 +1,167 @@
+package com.novamart.order.store;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Lock-striped open-addressing hash table from a 128-bit key to a non-zero long.
+ *
+ * Entries live in flat {@code long[]} tables (key high, key low, value), so the
+ * index holds no per-entry objects for the GC to trace. Lookups use optimistic
+ * reads and only fall back to the stripe's read lock when they race a writer.
+ * Entries whose value is no longer live (per the supplied predicate) are dropped
+ * when a stripe is rehashed.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+final class OffHeapIndex {
+
+    private static final int SLOT_WIDTH = 3;
+    private static final double MAX_LOAD = 0.7;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final int minCapacity;
+    private final LongPredicate isLive;
+
+    /**
+     * @param stripeCount     Number of independently locked stripes (rounded up to a power of two)
+     * @param initialCapacity Initial slots per stripe (rounded up to a power of two)
+     * @param isLive          Whether a stored value is still live; dead entries are purged on rehash
+     */
+    OffHeapIndex(int stripeCount, int initialCapacity, LongPredicate isLive) {
+        int stripes = powerOfTwoAtLeast(Math.max(1, stripeCount));
+        this.stripes = new Stripe[stripes];
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripes);
+        this.minCapacity = powerOfTwoAtLeast(Math.max(4, initialCapacity));
+        this.isLive = isLive;
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(minCapacity);
+        }
+    }
+
+    /**
+     * @return The value stored for the key, or 0 if absent
+     */
+    long get(long keyHigh, long keyLow) {
+        Stripe stripe = stripeFor(keyHigh);
+        StampedLock lock = stripe.lock;
+        long stamp = lock.tryOptimisticRead();
+        long value = find(stripe.table, keyHigh, keyLow);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(stripe.table, keyHigh, keyLow);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Stores a value for the key, replacing any existing one.
+     *
+     * @param value Non-zero value
+     */
+    void put(long keyHigh, long keyLow, long value) {
+        if (value == 0) {
+            throw new IllegalArgumentException("Index values must be non-zero");
+        }
+        Stripe stripe = stripeFor(keyHigh);
+        long stamp = stripe.lock.writeLock();
+        try {
+            if (stripe.used + 1 > stripe.capacity() * MAX_LOAD) {
+                rehash(stripe);
+            }
+            if (insert(stripe.table, keyHigh, keyLow, value)) {
+                stripe.used++;
+            }
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    private Stripe stripeFor(long keyHigh) {
+        return stripes.length == 1 ? stripes[0] : stripes[(int) (keyHigh >>> stripeShift)];
+    }
+
+    private static long find(long[] table, long keyHigh, long keyLow) {
+        int capacity = table.length / SLOT_WIDTH;
+        int mask = capacity - 1;
+        int slot = (int) keyLow & mask;
+        for (int probes = 0; probes < capacity; probes++) {
+            int i = slot * SLOT_WIDTH;
+            long value = table[i + 2];
+            if (value == 0) {
+                return 0;
+            }
+            if (table[i] == keyHigh && table[i + 1] == keyLow) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * @return true if a new slot was occupied, false if an existing key was updated
+     */
+    private static boolean insert(long[] table, long keyHigh, long keyLow, long value) {
+        int mask = table.length / SLOT_WIDTH - 1;
+        int slot = (int) keyLow & mask;
+        while (true) {
+            int i = slot * SLOT_WIDTH;
+            if (table[i + 2] == 0) {
+                table[i] = keyHigh;
+                table[i + 1] = keyLow;
+                table[i + 2] = value;
+                return true;
+            }
+            if (table[i] == keyHigh && table[i + 1] == keyLow) {
+                table[i + 2] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(Stripe stripe) {
+        long[] old = stripe.table;
+        int live = 0;
+        for (int i = 0; i < old.length; i += SLOT_WIDTH) {
+            if (old[i + 2] != 0 && isLive.test(old[i + 2])) {
+                live++;
+            }
+        }
+
+        // Size for twice the live entries so a stripe full of dead entries shrinks back
+        int capacity = Math.max(minCapacity, powerOfTwoAtLeast((live + 1) * 2));
+        long[] table = new long[capacity * SLOT_WIDTH];
+        for (int i = 0; i < old.length; i += SLOT_WIDTH) {
+            long value = old[i + 2];
+            if (value != 0 && isLive.test(value)) {
+                insert(table, old[i], old[i + 1], value);
+            }
+        }
+        stripe.table = table;
+        stripe.used = live;
+    }
+
+    private static int powerOfTwoAtLeast(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private static final class Stripe {
+        final StampedLock lock = new StampedLock();
+        long[] table;
+        int used;
+
+        Stripe(int capacity) {
+            this.table = new long[capacity * SLOT_WIDTH];
+        }
+
+        int capacity() {
+            return table.length / SLOT_WIDTH;
+        }
+    }
+}
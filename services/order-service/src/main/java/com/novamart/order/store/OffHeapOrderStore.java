@@ -0,0 +1,380 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Off-heap order store.
+ *
+ * Orders are encoded with {@link OrderCodec} and appended to a ring of direct
+ * ByteBuffer slabs, so stored orders cost no heap objects at all; an Order is
+ * only materialized when it is read back. When every slab is full the oldest
+ * slab is recycled and its orders are evicted together, which keeps off-heap
+ * use fixed at {@code slabBytes * maxSlabs} (plus one spare slab while an
+ * eviction listener is registered).
+ *
+ * The id index is an {@link OffHeapIndex} keyed by a 128-bit hash of the order
+ * id; the decoded id is compared on every hit, so a hash collision reads as a
+ * miss rather than the wrong order.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class OffHeapOrderStore implements OrderStore {
+
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int INDEX_STRIPES = 64;
+    private static final int INDEX_INITIAL_CAPACITY = 1024;
+
+    private final int slabBytes;
+    private final int maxSlabs;
+    private final ByteBuffer[] slabs;
+    private final StampedLock[] slabLocks;
+    private final long[] slabGenerations;
+    private final int[] slabOrders;
+    private final int[] slabLimits;
+    private final OffHeapIndex index;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private ByteBuffer scratch = ByteBuffer.allocate(512);
+    private ByteBuffer spareSlab;
+    private long generation;
+    private int writeOffset;
+
+    private volatile Consumer<? super Order> evictionListener;
+    private volatile long size;
+    private volatile long evictions;
+    private volatile long allocatedBytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param slabBytes     Size of each direct buffer slab
+     * @param maxSlabs      Number of slabs before the oldest is recycled
+     * @param meterRegistry Registry for store metrics
+     */
+    public OffHeapOrderStore(int slabBytes, int maxSlabs, MeterRegistry meterRegistry) {
+        if (slabBytes <= HEADER_BYTES || maxSlabs < 2) {
+            throw new IllegalArgumentException(
+                    "Off-heap store needs at least two slabs of usable size: slabBytes=" + slabBytes
+                            + ", maxSlabs=" + maxSlabs);
+        }
+        this.slabBytes = slabBytes;
+        this.maxSlabs = maxSlabs;
+        this.slabs = new ByteBuffer[maxSlabs];
+        this.slabLocks = new StampedLock[maxSlabs];
+        this.slabGenerations = new long[maxSlabs];
+        this.slabOrders = new int[maxSlabs];
+        this.slabLimits = new int[maxSlabs];
+        for (int i = 0; i < maxSlabs; i++) {
+            slabLocks[i] = new StampedLock();
+        }
+        this.index = new OffHeapIndex(INDEX_STRIPES, INDEX_INITIAL_CAPACITY, this::isLive);
+
+        Gauge.builder("order.store.size", this, OffHeapOrderStore::size)
+                .description("Orders currently held in the order store")
+                .register(meterRegistry);
+        Gauge.builder("order.store.offheap.bytes", this, store -> store.allocatedBytes)
+                .description("Direct memory allocated for order store slabs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.store.requests", hits, LongAdder::sum)
+                .description("Order store lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.store.requests", misses, LongAdder::sum)
+                .description("Order store lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.store.evictions", this, store -> store.evictions)
+                .description("Orders evicted from the order store")
+                .tag("cause", "size")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void put(Order order) {
+        String orderId = order.getOrderId();
+        RetiredSlab retired = null;
+        appendLock.lock();
+        try {
+            ByteBuffer encoded = encode(order);
+            int length = encoded.remaining();
+            int recordBytes = HEADER_BYTES + length;
+            if (recordBytes > slabBytes) {
+                throw new IllegalArgumentException(
+                        "Order " + orderId + " encodes to " + length + " bytes, larger than a slab");
+            }
+            if (generation == 0 || writeOffset + recordBytes > slabBytes) {
+                retired = advanceSlab();
+            }
+
+            int slot = slotOf(generation);
+            ByteBuffer slab = slabs[slot];
+            slab.putInt(writeOffset, length);
+            slab.put(writeOffset + HEADER_BYTES, encoded, 0, length);
+            index.put(hashHigh(orderId), hashLow(orderId), location(generation, writeOffset));
+
+            writeOffset += recordBytes;
+            slabLimits[slot] = writeOffset;
+            slabOrders[slot]++;
+            size++;
+        } finally {
+            appendLock.unlock();
+        }
+        if (retired != null) {
+            notifyEvicted(retired);
+        }
+    }
+
+    @Override
+    public Optional<Order> get(String orderId) {
+        Optional<Order> order = peek(orderId);
+        (order.isPresent() ? hits : misses).increment();
+        return order;
+    }
+
+    @Override
+    public Optional<Order> peek(String orderId) {
+        long location = index.get(hashHigh(orderId), hashLow(orderId));
+        Order order = location == 0 ? null : read(location);
+        if (order == null || !orderId.equals(order.getOrderId())) {
+            return Optional.empty();
+        }
+        return Optional.of(order);
+    }
+
+    /**
+     * Counts stored records, so an order stored twice counts twice until its
+     * older record's slab is recycled.
+     */
+    @Override
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Walks the slabs from oldest to newest without holding the append lock. Only
+     * the latest record for each order id is visited; a slab recycled mid-walk is
+     * skipped, since its orders have just been evicted.
+     */
+    @Override
+    public void forEach(Consumer<? super Order> action) {
+        long lastGeneration;
+        int[] limits;
+        appendLock.lock();
+        try {
+            lastGeneration = generation;
+            limits = slabLimits.clone();
+        } finally {
+            appendLock.unlock();
+        }
+
+        for (long slabGeneration = Math.max(1, lastGeneration - maxSlabs + 1);
+                slabGeneration <= lastGeneration; slabGeneration++) {
+            walkSlab(slabGeneration, limits[slotOf(slabGeneration)], action);
+        }
+    }
+
+    /**
+     * Evicted orders are reported by walking the recycled slab, which decodes each
+     * of its orders once; without a listener recycling costs nothing. The walk runs
+     * on the thread whose put recycled the slab, after it has released the append
+     * lock, so other writers do not wait for it.
+     */
+    @Override
+    public void onEviction(Consumer<? super Order> listener) {
+        this.evictionListener = listener;
+    }
+
+    /**
+     * Visits the orders in one slab whose latest record lives there, up to the
+     * given limit. Stops early if the slab is recycled during the walk.
+     */
+    private void walkSlab(long slabGeneration, int limit, Consumer<? super Order> action) {
+        int offset = 0;
+        while (offset < limit) {
+            long location = location(slabGeneration, offset);
+            Order order = read(location);
+            if (order == null) {
+                return;
+            }
+            String orderId = order.getOrderId();
+            if (index.get(hashHigh(orderId), hashLow(orderId)) == location) {
+                action.accept(order);
+            }
+            // If the slab is recycled after the read this may be garbage, but the
+            // next read then sees the new generation and ends the walk
+            offset += HEADER_BYTES + slabs[slotOf(slabGeneration)].getInt(offset);
+        }
+    }
+
+    /**
+     * Decodes the record at a location, or returns null if its slab has been
+     * recycled. Reads are optimistic: a recycle that races the decode is detected
+     * by the slab's stamp and the half-read record is discarded.
+     */
+    private Order read(long location) {
+        long recordGeneration = location >>> 32;
+        int offset = (int) location;
+        int slot = slotOf(recordGeneration);
+        StampedLock lock = slabLocks[slot];
+
+        long stamp = lock.tryOptimisticRead();
+        if (slabGenerations[slot] != recordGeneration) {
+            return null;
+        }
+        try {
+            ByteBuffer slab = slabs[slot];
+            int length = slab.getInt(offset);
+            Order order = OrderCodec.decode(slab.slice(offset + HEADER_BYTES, length));
+            return lock.validate(stamp) ? order : null;
+        } catch (RuntimeException e) {
+            if (lock.validate(stamp)) {
+                throw e;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Moves writes to the next slab, allocating it on first use or recycling the
+     * oldest slab (and evicting its orders) once the ring is full.
+     *
+     * With an eviction listener the recycled slab is swapped for the spare rather
+     * than overwritten, so its orders can be reported once the append lock is released.
+     *
+     * @return The slab whose orders must still be reported, or null
+     */
+    private RetiredSlab advanceSlab() {
+        long next = generation + 1;
+        int slot = slotOf(next);
+        Consumer<? super Order> listener = evictionListener;
+        RetiredSlab retired = null;
+        StampedLock lock = slabLocks[slot];
+        long stamp = lock.writeLock();
+        try {
+            if (slabs[slot] == null) {
+                slabs[slot] = ByteBuffer.allocateDirect(slabBytes);
+                allocatedBytes += slabBytes;
+            } else {
+                evictions += slabOrders[slot];
+                size -= slabOrders[slot];
+                if (listener != null) {
+                    retired = new RetiredSlab(slabs[slot], slabGenerations[slot], slabLimits[slot], listener);
+                    if (spareSlab == null) {
+                        spareSlab = ByteBuffer.allocateDirect(slabBytes);
+                        allocatedBytes += slabBytes;
+                    }
+                    slabs[slot] = spareSlab;
+                    spareSlab = null;
+                }
+            }
+            slabGenerations[slot] = next;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        slabOrders[slot] = 0;
+        slabLimits[slot] = 0;
+        generation = next;
+        writeOffset = 0;
+        return retired;
+    }
+
+    /**
+     * Reports the orders in a recycled slab whose latest record lived there, then
+     * keeps the slab as the spare for the next recycle. Nothing else can see the
+     * slab by now, so it is read without any lock.
+     */
+    private void notifyEvicted(RetiredSlab retired) {
+        ByteBuffer slab = retired.slab();
+        try {
+            int offset = 0;
+            while (offset < retired.limit()) {
+                int length = slab.getInt(offset);
+                Order order = OrderCodec.decode(slab.slice(offset + HEADER_BYTES, length));
+                String orderId = order.getOrderId();
+                long latest = index.get(hashHigh(orderId), hashLow(orderId));
+                // 0 means a rehash has already purged the now-dead entry
+                if (latest == location(retired.generation(), offset) || latest == 0) {
+                    retired.listener().accept(order);
+                }
+                offset += HEADER_BYTES + length;
+            }
+        } finally {
+            appendLock.lock();
+            try {
+                if (spareSlab == null) {
+                    spareSlab = slab;
+                } else {
+                    // Another recycle needed a spare before this walk finished
+                    allocatedBytes -= slabBytes;
+                }
+            } finally {
+                appendLock.unlock();
+            }
+        }
+    }
+
+    private ByteBuffer encode(Order order) {
+        while (true) {
+            scratch.clear();
+            try {
+                OrderCodec.encode(order, scratch);
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                if (scratch.capacity() >= slabBytes) {
+                    throw new IllegalArgumentException(
+                            "Order " + order.getOrderId() + " is larger than a slab", e);
+                }
+                scratch = ByteBuffer.allocate(Math.min(scratch.capacity() * 2, slabBytes));
+            }
+        }
+    }
+
+    private boolean isLive(long location) {
+        long recordGeneration = location >>> 32;
+        return slabGenerations[slotOf(recordGeneration)] == recordGeneration;
+    }
+
+    private int slotOf(long slabGeneration) {
+        return (int) ((slabGeneration - 1) % maxSlabs);
+    }
+
+    private record RetiredSlab(ByteBuffer slab, long generation, int limit, Consumer<? super Order> listener) {
+    }
+
+    private static long location(long slabGeneration, int offset) {
+        return (slabGeneration << 32) | offset;
+    }
+
+    private static long hashHigh(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h ^ key.length());
+    }
+
+    private static long hashLow(String key) {
+        long h = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < key.length(); i++) {
+            h = h * 0xc2b2ae3d27d4eb4fL + key.charAt(i);
+        }
+        return mix(h + key.length());
+    }
+
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,185 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+import com.novamart.order.model.OrderRequest;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of {@link Order}, shared by the off-heap store and the
+ * on-disk order log formats.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * u8   format version
+ * str  order id
+ * str  customer id
+ * f64  total amount
+ * u8   status code (0 = other, followed by str)
+ * time created at
+ * time updated at
+ * u16  item count (0xFFFF = null list)
+ *      per item: str product id, i32 quantity, f64 price
+ *
+ * str  = u16 byte length (0xFFFF = null) + UTF-8 bytes
+ * time = i64 epoch seconds (Long.MIN_VALUE = null) + i32 nanos
+ * </pre>
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public final class OrderCodec {
+
+    private static final byte VERSION = 1;
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int MAX_LENGTH = 0xFFFE;
+    private static final long NULL_SECONDS = Long.MIN_VALUE;
+
+    private static final String[] STATUSES = {null, "PENDING", "CONFIRMED", "FAILED"};
+
+    private OrderCodec() {
+    }
+
+    /**
+     * Encodes an order at the buffer's position.
+     *
+     * @param order  The order to encode
+     * @param buffer Destination buffer
+     * @throws BufferOverflowException If the buffer is too small; the caller may grow it and retry
+     * @throws IllegalArgumentException If a string or the item list is too long to encode
+     */
+    public static void encode(Order order, ByteBuffer buffer) {
+        buffer.put(VERSION);
+        putString(buffer, order.getOrderId());
+        putString(buffer, order.getCustomerId());
+        buffer.putDouble(order.getTotalAmount());
+
+        int statusCode = statusCode(order.getStatus());
+        buffer.put((byte) statusCode);
+        if (statusCode == 0) {
+            putString(buffer, order.getStatus());
+        }
+
+        putInstant(buffer, order.getCreatedAt());
+        putInstant(buffer, order.getUpdatedAt());
+
+        List<OrderRequest.OrderItem> items = order.getItems();
+        if (items == null) {
+            buffer.putShort((short) NULL_LENGTH);
+        } else {
+            if (items.size() > MAX_LENGTH) {
+                throw new IllegalArgumentException("Too many items to encode: " + items.size());
+            }
+            buffer.putShort((short) items.size());
+            for (OrderRequest.OrderItem item : items) {
+                putString(buffer, item.getProductId());
+                buffer.putInt(item.getQuantity());
+                buffer.putDouble(item.getPrice());
+            }
+        }
+    }
+
+    /**
+     * Decodes an order starting at the buffer's position.
+     *
+     * @param buffer Source buffer
+     * @return The decoded order
+     * @throws IllegalStateException If the data is not a supported encoding
+     */
+    public static Order decode(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported order encoding version: " + version);
+        }
+        String orderId = getString(buffer);
+        String customerId = getString(buffer);
+        double totalAmount = buffer.getDouble();
+
+        int statusCode = Byte.toUnsignedInt(buffer.get());
+        String status;
+        if (statusCode == 0) {
+            status = getString(buffer);
+        } else if (statusCode < STATUSES.length) {
+            status = STATUSES[statusCode];
+        } else {
+            throw new IllegalStateException("Unknown order status code: " + statusCode);
+        }
+
+        Instant createdAt = getInstant(buffer);
+        Instant updatedAt = getInstant(buffer);
+
+        List<OrderRequest.OrderItem> items = null;
+        int itemCount = Short.toUnsignedInt(buffer.getShort());
+        if (itemCount != NULL_LENGTH) {
+            items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                items.add(OrderRequest.OrderItem.builder()
+                        .productId(getString(buffer))
+                        .quantity(buffer.getInt())
+                        .price(buffer.getDouble())
+                        .build());
+            }
+        }
+
+        return Order.builder()
+                .orderId(orderId)
+                .customerId(customerId)
+                .items(items)
+                .totalAmount(totalAmount)
+                .status(status)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private static int statusCode(String status) {
+        for (int i = 1; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_LENGTH) {
+            throw new IllegalArgumentException("String too long to encode: " + bytes.length + " bytes");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putInstant(ByteBuffer buffer, Instant instant) {
+        if (instant == null) {
+            buffer.putLong(NULL_SECONDS);
+            buffer.putInt(0);
+        } else {
+            buffer.putLong(instant.getEpochSecond());
+            buffer.putInt(instant.getNano());
+        }
+    }
+
+    private static Instant getInstant(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == NULL_SECONDS ? null : Instant.ofEpochSecond(seconds, nanos);
+    }
+}
@@ -0,0 +1,167 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Files in an order store's data directory.
+ *
+ * Write-ahead log segments are named {@code wal-<id>.log} and hold framed
+ * records: an i32 payload length, an i32 CRC32C of the payload, then the
+ * {@link OrderCodec} payload. A snapshot named {@code snapshot-<id>.snap}
+ * ({@link OrderSnapshot}) holds every order logged in segments older than
+ * {@code <id>}.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+final class OrderLogFiles {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderLogFiles.class);
+
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("wal-(\\d{20})\\.log");
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d{20})\\.snap");
+
+    private OrderLogFiles() {
+    }
+
+    static Path segmentPath(Path directory, long id) {
+        return directory.resolve(String.format("wal-%020d.log", id));
+    }
+
+    static Path snapshotPath(Path directory, long id) {
+        return directory.resolve(String.format("snapshot-%020d.snap", id));
+    }
+
+    /**
+     * @return Ids of the segments in the directory, oldest first
+     */
+    static List<Long> segmentIds(Path directory) throws IOException {
+        return ids(directory, SEGMENT_NAME);
+    }
+
+    /**
+     * @return Ids of the snapshots in the directory, oldest first
+     */
+    static List<Long> snapshotIds(Path directory) throws IOException {
+        return ids(directory, SNAPSHOT_NAME);
+    }
+
+    private static List<Long> ids(Path directory, Pattern pattern) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> pattern.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Encodes an order as a framed record.
+     *
+     * @param buffer Heap buffer to encode into; replaced by a larger one if the order does not fit
+     * @return The buffer holding the frame, positioned at 0 and limited to its end
+     */
+    static ByteBuffer frame(Order order, ByteBuffer buffer) {
+        while (true) {
+            try {
+                buffer.clear();
+                buffer.position(HEADER_BYTES);
+                OrderCodec.encode(order, buffer);
+                buffer.flip();
+                writeHeader(buffer);
+                return buffer;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    private static void writeHeader(ByteBuffer frame) {
+        int payloadLength = frame.limit() - HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(frame.slice(HEADER_BYTES, payloadLength));
+        frame.putInt(0, payloadLength);
+        frame.putInt(Integer.BYTES, (int) crc.getValue());
+    }
+
+    /**
+     * Reads framed orders until the end of the file. A truncated or corrupt record
+     * (the tail of a write interrupted by a crash) ends the replay of this file.
+     *
+     * @return Number of orders replayed
+     */
+    static long replay(Path file, Consumer<Order> action) throws IOException {
+        long count = 0;
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024))) {
+            CRC32C crc = new CRC32C();
+            byte[] payload = new byte[1024];
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return count;
+                }
+                try {
+                    int checksum = in.readInt();
+                    if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                        log.warn("Invalid record length {} in {} after {} orders; ignoring the rest of the file",
+                                length, file, count);
+                        return count;
+                    }
+                    if (payload.length < length) {
+                        payload = new byte[Math.max(length, payload.length * 2)];
+                    }
+                    in.readFully(payload, 0, length);
+                    crc.reset();
+                    crc.update(payload, 0, length);
+                    if ((int) crc.getValue() != checksum) {
+                        log.warn("Checksum mismatch in {} after {} orders; ignoring the rest of the file",
+                                file, count);
+                        return count;
+                    }
+                } catch (EOFException e) {
+                    log.warn("Torn record at the end of {} after {} orders", file, count);
+                    return count;
+                }
+                action.accept(OrderCodec.decode(ByteBuffer.wrap(payload, 0, length)));
+                count++;
+            }
+        }
+    }
+
+    /**
+     * Makes file creations and renames in the directory durable. Not every
+     * platform can open a directory for sync; failures there are ignored.
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Directory sync not supported for {}", directory, e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Point-in-time snapshot of an order store.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * header  i32 magic, i32 version, i64 snapshot id, i64 created epoch millis, i64 reserved
+ * body    per order: i32 payload length, {@link OrderCodec} payload
+ * footer  i64 order count, i64 write duration millis, i32 reserved,
+ *         i32 CRC32C of header and body, i64 footer magic
+ * </pre>
+ * Snapshots are streamed from {@link OrderStore#forEach} without blocking writers,
+ * and loaded through memory-mapped windows: the checksum is verified over the
+ * mapping before anything is decoded, so a damaged file is rejected without
+ * touching the store.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+final class OrderSnapshot {
+
+    private static final int MAGIC = 0x4E4D4F53;            // "NMOS"
+    private static final long FOOTER_MAGIC = 0x4E4D4F532D454E44L; // "NMOS-END"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int FOOTER_BYTES = 32;
+    private static final long MAP_WINDOW_BYTES = 256L * 1024 * 1024;
+
+    /**
+     * Summary of a written or loaded snapshot.
+     *
+     * @param id          Snapshot id
+     * @param orders      Orders in the snapshot
+     * @param bytes       File size
+     * @param writeMillis Time it took to write the snapshot
+     */
+    record Info(long id, long orders, long bytes, long writeMillis) {
+    }
+
+    private OrderSnapshot() {
+    }
+
+    /**
+     * Streams every order in the store to a new snapshot file and syncs it.
+     */
+    static Info write(Path file, long id, OrderStore store) throws IOException {
+        long start = System.nanoTime();
+        long[] count = {0};
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CheckedOutputStream checked = new CheckedOutputStream(Channels.newOutputStream(channel), new CRC32C());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 256 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(id);
+            out.writeLong(System.currentTimeMillis());
+            out.writeLong(0);
+
+            ByteBuffer[] scratch = {ByteBuffer.allocate(512)};
+            try {
+                store.forEach(order -> {
+                    scratch[0] = encode(order, scratch[0]);
+                    try {
+                        out.writeInt(scratch[0].limit());
+                        out.write(scratch[0].array(), 0, scratch[0].limit());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+
+            long writeMillis = (System.nanoTime() - start) / 1_000_000;
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES)
+                    .putLong(count[0])
+                    .putLong(writeMillis)
+                    .putInt(0)
+                    .putInt((int) checked.getChecksum().getValue())
+                    .putLong(FOOTER_MAGIC)
+                    .flip();
+            while (footer.hasRemaining()) {
+                channel.write(footer);
+            }
+            channel.force(true);
+            return new Info(id, count[0], channel.size(), writeMillis);
+        }
+    }
+
+    /**
+     * Verifies a snapshot and feeds every order in it to the action.
+     *
+     * @throws IOException If the file cannot be read or fails validation
+     */
+    static Info load(Path file, Consumer<Order> action) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + FOOTER_BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            long bodyEnd = size - FOOTER_BYTES;
+
+            MappedByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, bodyEnd, FOOTER_BYTES);
+            long count = footer.getLong(0);
+            long writeMillis = footer.getLong(8);
+            int expectedCrc = footer.getInt(20);
+            if (footer.getLong(24) != FOOTER_MAGIC) {
+                throw new IOException("Snapshot " + file + " has no footer; it was not completely written");
+            }
+
+            CRC32C crc = new CRC32C();
+            for (long position = 0; position < bodyEnd; position += MAP_WINDOW_BYTES) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW_BYTES, bodyEnd - position)));
+            }
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Snapshot " + file + " failed its checksum");
+            }
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Snapshot " + file + " has an unsupported header");
+            }
+            long id = header.getLong(8);
+
+            Window window = new Window(channel, bodyEnd);
+            long position = HEADER_BYTES;
+            for (long i = 0; i < count; i++) {
+                int length = window.map(position, Integer.BYTES).getInt(window.offset(position));
+                position += Integer.BYTES;
+                ByteBuffer mapped = window.map(position, length);
+                action.accept(OrderCodec.decode(mapped.slice(window.offset(position), length)));
+                position += length;
+            }
+            if (position != bodyEnd) {
+                throw new IOException("Snapshot " + file + " has trailing data after " + count + " orders");
+            }
+            return new Info(id, count, size, writeMillis);
+        }
+    }
+
+    private static ByteBuffer encode(Order order, ByteBuffer buffer) {
+        while (true) {
+            try {
+                buffer.clear();
+                OrderCodec.encode(order, buffer);
+                return buffer.flip();
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Sliding read-only mapping over the snapshot body, remapped whenever a record
+     * would cross the end of the current window. Keeps each mapping within the 2 GB
+     * limit of a single MappedByteBuffer.
+     */
+    private static final class Window {
+        private final FileChannel channel;
+        private final long end;
+        private MappedByteBuffer buffer;
+        private long start;
+
+        Window(FileChannel channel, long end) {
+            this.channel = channel;
+            this.end = end;
+        }
+
+        MappedByteBuffer map(long position, int length) throws IOException {
+            if (length < 0 || position + length > end) {
+                throw new IOException("Snapshot record at " + position + " runs past the end of the body");
+            }
+            if (buffer == null || position < start || position + length > start + buffer.capacity()) {
+                start = position;
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_BYTES, end - position));
+            }
+            return buffer;
+        }
+
+        int offset(long position) {
+            return (int) (position - start);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Storage for confirmed orders.
+ * Implementations must be safe for concurrent use from request threads.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public interface OrderStore {
+
+    /**
+     * Stores an order, replacing any existing order with the same ID.
+     *
+     * @param order The order to store
+     */
+    void put(Order order);
+
+    /**
+     * Looks up an order by ID.
+     *
+     * @param orderId The order ID
+     * @return The order if present
+     */
+    Optional<Order> get(String orderId);
+
+    /**
+     * Looks up an order without the side effects of {@link #get}: the lookup is
+     * not counted in the store's hit and miss metrics and does not change which
+     * orders the store keeps when it has to evict. For reads made on behalf of
+     * something other than demand for the order, such as listing a customer's
+     * history. Stores whose reads have no such effects need not override it.
+     *
+     * @param orderId The order ID
+     * @return The order if present
+     */
+    default Optional<Order> peek(String orderId) {
+        return get(orderId);
+    }
+
+    /**
+     * @return Number of orders currently held
+     */
+    long size();
+
+    /**
+     * Visits every order currently held. Writers are not blocked while this runs,
+     * so orders stored concurrently may or may not be visited.
+     *
+     * @param action Receives each order
+     */
+    void forEach(Consumer<? super Order> action);
+
+    /**
+     * Registers a listener told about every order the store drops to stay within
+     * its bounds, so that structures derived from the store can follow it. It is
+     * called on the evicting thread, possibly under the store's locks, and must be
+     * quick. Stores that never evict ignore it.
+     *
+     * @param listener Receives each evicted order
+     */
+    default void onEviction(Consumer<? super Order> listener) {
+    }
+
+    /**
+     * @return Whether {@link #put} can wait on I/O, so that non-blocking callers
+     *         must hand it to a thread that may block
+     */
+    default boolean isPutBlocking() {
+        return false;
+    }
+}
@@ -0,0 +1,292 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-ahead log for confirmed orders with group commit.
+ *
+ * Callers of {@link #append} encode and frame their order on their own thread,
+ * queue it, and wait. A single writer thread drains everything queued, writes
+ * the batch with one gathering write and makes it durable with one
+ * {@code fsync}, then releases all the waiting callers together. Under load the
+ * batch naturally grows while the previous fsync is in flight, so the cost of an
+ * fsync is shared across concurrent orders instead of paid by each one.
+ *
+ * The log is a series of segment files ({@link OrderLogFiles}); the writer
+ * moves to a new segment once the current one passes {@code segmentBytes}, and
+ * {@link #roll} lets checkpoints cut the log at a known point.
+ *
+ * A failed commit is cut back off the segment before the writer moves on, so
+ * replay never brings back orders whose callers were told they failed. If that
+ * cleanup fails too, the log stops: later appends are rejected rather than
+ * written behind a record that replay cannot get past.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public class OrderWriteAheadLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderWriteAheadLog.class);
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxBatch;
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock channelLock = new ReentrantLock();
+    // Appenders enqueue under the read lock; close() stops the log under the write lock,
+    // so nothing can be queued after the writer has taken its final look at the queue
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private final DistributionSummary batchSizeSummary;
+    private final Timer syncTimer;
+    private final Thread writerThread;
+
+    // Guarded by channelLock
+    private FileChannel channel;
+    private long segmentId;
+    private long segmentPosition;
+
+    private final SegmentOpener segmentOpener;
+
+    private volatile boolean running = true;
+    private volatile boolean failed;
+
+    /**
+     * Opens a new segment and starts the writer thread.
+     *
+     * @param directory      Directory holding the log segments
+     * @param firstSegmentId Id of the segment to create; must be newer than any existing segment
+     * @param segmentBytes   Size after which the writer rolls to a new segment
+     * @param maxBatch       Maximum orders made durable by one fsync
+     * @param meterRegistry  Registry for log metrics
+     * @throws UncheckedIOException If the segment cannot be created
+     */
+    public OrderWriteAheadLog(Path directory, long firstSegmentId, long segmentBytes, int maxBatch,
+                              MeterRegistry meterRegistry) {
+        this(directory, firstSegmentId, segmentBytes, maxBatch, meterRegistry,
+                path -> FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * @param segmentOpener Creates the channel for a new segment file
+     */
+    OrderWriteAheadLog(Path directory, long firstSegmentId, long segmentBytes, int maxBatch,
+                       MeterRegistry meterRegistry, SegmentOpener segmentOpener) {
+        this.directory = directory;
+        this.segmentOpener = segmentOpener;
+        this.segmentBytes = segmentBytes;
+        this.maxBatch = maxBatch;
+        this.batchSizeSummary = DistributionSummary.builder("order.store.wal.batch.size")
+                .description("Orders made durable by a single fsync")
+                .register(meterRegistry);
+        this.syncTimer = Timer.builder("order.store.wal.sync")
+                .description("Time to write and fsync one batch of orders")
+                .register(meterRegistry);
+
+        try {
+            openSegment(firstSegmentId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open write-ahead log in " + directory, e);
+        }
+
+        this.writerThread = new Thread(this::runWriter, "order-wal-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Appends an order and waits until it is durable.
+     *
+     * @param order The order to log
+     * @throws UncheckedIOException If the batch containing the order could not be written or synced
+     */
+    public void append(Order order) {
+        PendingAppend pending = new PendingAppend(OrderLogFiles.frame(order, ByteBuffer.allocate(256)));
+        stateLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            queue.add(pending);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        try {
+            pending.done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one. Every order appended before
+     * this call is in a segment older than the returned id.
+     *
+     * @return Id of the new segment
+     */
+    public long roll() throws IOException {
+        channelLock.lock();
+        try {
+            openSegment(segmentId + 1);
+            return segmentId;
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    /**
+     * Writer loop: waits for the first queued append, takes whatever else has queued
+     * up behind it, and commits the lot with a single fsync.
+     */
+    private void runWriter() {
+        List<PendingAppend> batch = new ArrayList<>(maxBatch);
+        while (!failed && (running || !queue.isEmpty())) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            commit(batch);
+            batch.clear();
+        }
+
+        IllegalStateException closed = new IllegalStateException("Write-ahead log is closed");
+        queue.drainTo(batch);
+        batch.forEach(pending -> pending.done.completeExceptionally(closed));
+    }
+
+    private void commit(List<PendingAppend> batch) {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long total = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = batch.get(i).frame;
+            total += buffers[i].remaining();
+        }
+
+        long start = System.nanoTime();
+        channelLock.lock();
+        try {
+            if (segmentPosition > 0 && segmentPosition + total > segmentBytes) {
+                openSegment(segmentId + 1);
+            }
+            long written = 0;
+            while (written < total) {
+                written += channel.write(buffers);
+            }
+            channel.force(false);
+            segmentPosition += total;
+        } catch (IOException e) {
+            UncheckedIOException failure = new UncheckedIOException("Failed to sync write-ahead log", e);
+            batch.forEach(pending -> pending.done.completeExceptionally(failure));
+            log.error("Write-ahead log commit of {} orders failed", batch.size(), e);
+            // Cut off whatever of the batch reached the file (intact frames would be
+            // replayed as confirmed orders, a torn one hides everything after it),
+            // then move later batches to a fresh segment
+            try {
+                channel.truncate(segmentPosition);
+                channel.force(false);
+                openSegment(segmentId + 1);
+            } catch (IOException recoveryFailure) {
+                log.error("Failed to discard a failed commit; stopping the write-ahead log", recoveryFailure);
+                stop();
+            }
+            return;
+        } finally {
+            channelLock.unlock();
+            syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        batchSizeSummary.record(batch.size());
+        batch.forEach(pending -> pending.done.complete(null));
+    }
+
+    /**
+     * Rejects all further appends after a commit could not be cleaned up.
+     */
+    private void stop() {
+        stateLock.writeLock().lock();
+        try {
+            failed = true;
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    private void openSegment(long id) throws IOException {
+        FileChannel next = segmentOpener.open(OrderLogFiles.segmentPath(directory, id));
+        OrderLogFiles.syncDirectory(directory);
+        FileChannel previous = channel;
+        channel = next;
+        segmentId = id;
+        segmentPosition = 0;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Stops the writer after it has committed everything already queued.
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        channelLock.lock();
+        try {
+            channel.close();
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
+    /**
+     * Creates the channel for a new segment file.
+     */
+    @FunctionalInterface
+    interface SegmentOpener {
+        FileChannel open(Path path) throws IOException;
+    }
+
+    private static final class PendingAppend {
+        final ByteBuffer frame;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingAppend(ByteBuffer frame) {
+            this.frame = frame;
+        }
+    }
+}
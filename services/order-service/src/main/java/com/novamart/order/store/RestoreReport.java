@@ -0,0 +1,23 @@
+package com.novamart.order.store;
+
+/**
+ * What a persistent order store restored at startup.
+ *
+ * @param snapshotFile        Snapshot that was loaded, or null if none was
+ * @param snapshotBytes       Size of the snapshot file
+ * @param snapshotOrders      Orders loaded from the snapshot
+ * @param snapshotWriteMillis How long the snapshot took to write when it was taken
+ * @param restoreMillis       Time to verify and load the snapshot
+ * @param logOrders           Orders replayed from the write-ahead log after the snapshot
+ * @param logReplayMillis     Time to replay the write-ahead log
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public record RestoreReport(
+        String snapshotFile,
+        long snapshotBytes,
+        long snapshotOrders,
+        long snapshotWriteMillis,
+        long restoreMillis,
+        long logOrders,
+        long logReplayMillis) {
+}
@@ -0,0 +1,62 @@
+package com.novamart.order.telemetry;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+
+/**
+ * Span attribute keys used on the order path, created once.
+ *
+ * Setting an attribute by string name creates a new {@link AttributeKey} on every
+ * call; these shared keys avoid that. Counts and flags are passed as long and
+ * boolean values, which box to cached instances for the small values seen here.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public final class OrderAttributes {
+
+    public static final AttributeKey<Boolean> ERROR = AttributeKey.booleanKey("error");
+
+    public static final AttributeKey<String> ORDER_CUSTOMER_ID = AttributeKey.stringKey("order.customer_id");
+    public static final AttributeKey<Long> ORDER_ITEM_COUNT = AttributeKey.longKey("order.item_count");
+    public static final AttributeKey<Double> ORDER_TOTAL_AMOUNT = AttributeKey.doubleKey("order.total_amount");
+    public static final AttributeKey<String> ORDER_STATUS = AttributeKey.stringKey("order.status");
+    public static final AttributeKey<String> ORDER_FAILURE_REASON = AttributeKey.stringKey("order.failure_reason");
+    public static final AttributeKey<Long> ORDER_BATCH_SIZE = AttributeKey.longKey("order.batch_size");
+    public static final AttributeKey<Long> ORDER_CONFIRMED_COUNT = AttributeKey.longKey("order.confirmed_count");
+
+    public static final AttributeKey<Long> INVENTORY_PRODUCT_COUNT = AttributeKey.longKey("inventory.product_count");
+    public static final AttributeKey<Boolean> INVENTORY_AVAILABLE = AttributeKey.booleanKey("inventory.available");
+    public static final AttributeKey<Long> INVENTORY_AVAILABLE_COUNT =
+            AttributeKey.longKey("inventory.available_count");
+
+    public static final AttributeKey<String> PAYMENT_ORDER_ID = AttributeKey.stringKey("payment.order_id");
+    public static final AttributeKey<String> PAYMENT_CUSTOMER_ID = AttributeKey.stringKey("payment.customer_id");
+    public static final AttributeKey<Double> PAYMENT_AMOUNT = AttributeKey.doubleKey("payment.amount");
+    public static final AttributeKey<Boolean> PAYMENT_SUCCESS = AttributeKey.booleanKey("payment.success");
+    public static final AttributeKey<String> PAYMENT_ID = AttributeKey.stringKey("payment.id");
+    public static final AttributeKey<String> PAYMENT_TRANSACTION_ID = AttributeKey.stringKey("payment.transaction_id");
+
+    public static final AttributeKey<String> RESILIENCE_CIRCUIT_STATE =
+            AttributeKey.stringKey("resilience.circuit.state");
+    public static final AttributeKey<String> RESILIENCE_REJECTED = AttributeKey.stringKey("resilience.rejected");
+    public static final AttributeKey<Boolean> RESILIENCE_HEDGED = AttributeKey.booleanKey("resilience.hedged");
+    public static final AttributeKey<Boolean> RESILIENCE_HEDGE_WON = AttributeKey.booleanKey("resilience.hedge_won");
+    public static final AttributeKey<Long> RESILIENCE_RETRIES = AttributeKey.longKey("resilience.retries");
+
+    private OrderAttributes() {
+    }
+
+    /**
+     * Marks a span as failed.
+     */
+    public static void markError(Span span) {
+        span.setAttribute(ERROR, true);
+    }
+
+    /**
+     * Records the exception on a span and marks it as failed.
+     */
+    public static void recordError(Span span, Throwable e) {
+        span.recordException(e);
+        span.setAttribute(ERROR, true);
+    }
+}
@@ -0,0 +1,182 @@
+package com.novamart.order.tracelog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Background writer for detailed order trace data.
+ *
+ * Request threads hand a {@link TraceRecord} to {@link #offer}, which only enqueues it
+ * into a bounded lock-free ring buffer. A single writer thread drains the buffer in
+ * batches and appends each batch to the trace log in one go (group commit), so
+ * the request path never waits on disk I/O. When the buffer is full the record is
+ * dropped and counted rather than blocking the caller.
+ *
+ * The format setting picks the sink: "text" appends key=value lines to a single
+ * file, "binary" appends fixed-size records to a memory-mapped segmented log
+ * ({@link MappedTraceLog}).
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Component
+public class AsyncTraceLogWriter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncTraceLogWriter.class);
+
+    private final MpscRingBuffer<TraceRecord> buffer;
+    private final TraceLogSink sink;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Timer flushTimer;
+    private final Thread writerThread;
+
+    private boolean writeFailureLogged;
+    private volatile boolean running;
+
+    @Autowired
+    public AsyncTraceLogWriter(
+            MeterRegistry meterRegistry,
+            @Value("${order.service.trace-log.mode:blocking}") String mode,
+            @Value("${order.service.trace-log.format:text}") String format,
+            @Value("${order.service.trace-log.path:/var/log/orders/trace.log}") String path,
+            @Value("${order.service.trace-log.segment-dir:/var/log/orders/trace}") String segmentDir,
+            @Value("${order.service.trace-log.segment-size-mb:64}") long segmentSizeMb,
+            @Value("${order.service.trace-log.max-segments:8}") int maxSegments,
+            @Value("${order.service.trace-log.queue-capacity:65536}") int queueCapacity,
+            @Value("${order.service.trace-log.batch-size:512}") int batchSize,
+            @Value("${order.service.trace-log.flush-interval-ms:10}") long flushIntervalMs) {
+        this(meterRegistry, TraceLogMode.from(mode), createSink(format, path, segmentDir, segmentSizeMb, maxSegments),
+                queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    /**
+     * @param sink Destination for drained batches
+     */
+    AsyncTraceLogWriter(MeterRegistry meterRegistry, TraceLogMode mode, TraceLogSink sink,
+                        int queueCapacity, int batchSize, long flushIntervalMs) {
+        this.buffer = new MpscRingBuffer<>(queueCapacity);
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+
+        Gauge.builder("order.trace_log.queue.depth", buffer, MpscRingBuffer::size)
+                .description("Trace records waiting for the background writer")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("order.trace_log.dropped")
+                .description("Trace records dropped because the queue was full or the write failed")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("order.trace_log.written")
+                .description("Trace records appended to the trace log")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("order.trace_log.flush")
+                .description("Time to append one batch of trace records to the trace log")
+                .register(meterRegistry);
+
+        if (mode == TraceLogMode.ASYNC) {
+            this.running = true;
+            this.writerThread = new Thread(this::runWriter, "trace-log-writer");
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+            log.info("Async trace log writer started: sink={}, queueCapacity={}, batchSize={}",
+                    sink.getClass().getSimpleName(), buffer.capacity(), batchSize);
+        } else {
+            this.writerThread = null;
+        }
+    }
+
+    private static TraceLogSink createSink(String format, String path, String segmentDir,
+                                           long segmentSizeMb, int maxSegments) {
+        return switch (format.trim().toLowerCase(Locale.ROOT)) {
+            case "text" -> new TextTraceLogSink(Paths.get(path));
+            case "binary" -> new MappedTraceLog(Paths.get(segmentDir), segmentSizeMb * 1024 * 1024, maxSegments);
+            default -> throw new IllegalArgumentException("Unknown trace log format: " + format);
+        };
+    }
+
+    /**
+     * Enqueues a trace record without blocking.
+     *
+     * @param record        The record to write
+     * @param deadlineNanos {@link System#nanoTime()} after which the enqueue gives up
+     * @return true if queued, false if it was dropped
+     */
+    public boolean offer(TraceRecord record, long deadlineNanos) {
+        if (running && buffer.offer(record, deadlineNanos)) {
+            return true;
+        }
+        droppedCounter.increment();
+        return false;
+    }
+
+    /**
+     * Writer loop: drains up to one batch at a time and parks for the flush interval
+     * whenever the buffer runs dry. Keeps draining after shutdown is requested until
+     * the buffer is empty.
+     */
+    private void runWriter() {
+        List<TraceRecord> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            buffer.drain(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            writeBatch(batch);
+            int written = batch.size();
+            batch.clear();
+            if (written < batchSize && running) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+        sink.close();
+    }
+
+    private void writeBatch(List<TraceRecord> batch) {
+        long start = System.nanoTime();
+        try {
+            sink.append(batch);
+            writtenCounter.increment(batch.size());
+            writeFailureLogged = false;
+        } catch (IOException e) {
+            if (!writeFailureLogged) {
+                log.warn("Failed to write detailed trace data; dropping records until it recovers", e);
+                writeFailureLogged = true;
+            }
+            droppedCounter.increment(batch.size());
+            sink.close();
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stops accepting records and waits briefly for the writer to flush what is queued.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        log.info("Async trace log writer stopped");
+    }
+}
@@ -0,0 +1,117 @@
+package com.novamart.order.tracelog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.SpanContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which orders get detailed trace logging and how much time it may add.
+ *
+ * With the "trace-id" strategy the decision is keyed on the random low 64 bits of the
+ * W3C trace ID (the same rule as OpenTelemetry's TraceIdRatioBased sampler), so every
+ * service sampling on the trace ID keeps the same requests. Requests without a valid
+ * trace context, or the "random" strategy, fall back to a per-request coin flip.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+@Component
+public class DetailedTraceSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(DetailedTraceSampler.class);
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long traceIdUpperBound;
+    private final boolean keyOnTraceId;
+    private final long budgetNanos;
+    private final Counter sampledCounter;
+    private final Counter budgetExceededCounter;
+
+    public DetailedTraceSampler(
+            @Value("${order.service.trace-log.enabled:${order.service.bug.enabled:false}}") boolean enabled,
+            @Value("${order.service.trace-log.sample-rate:1.0}") double sampleRate,
+            @Value("${order.service.trace-log.sample-strategy:trace-id}") String sampleStrategy,
+            @Value("${order.service.trace-log.budget-us:200}") long budgetMicros,
+            MeterRegistry meterRegistry) {
+        if (sampleRate < 0.0 || sampleRate > 1.0) {
+            throw new IllegalArgumentException("Trace log sample rate must be between 0.0 and 1.0");
+        }
+        this.enabled = enabled && sampleRate > 0.0;
+        this.sampleRate = sampleRate;
+        this.traceIdUpperBound = (long) (sampleRate * Long.MAX_VALUE);
+        this.keyOnTraceId = switch (sampleStrategy.trim().toLowerCase(Locale.ROOT)) {
+            case "trace-id" -> true;
+            case "random" -> false;
+            default -> throw new IllegalArgumentException("Unknown trace log sample strategy: " + sampleStrategy);
+        };
+        this.budgetNanos = TimeUnit.MICROSECONDS.toNanos(budgetMicros);
+
+        this.sampledCounter = Counter.builder("order.trace_log.sampled")
+                .description("Orders selected for detailed trace logging")
+                .register(meterRegistry);
+        this.budgetExceededCounter = Counter.builder("order.trace_log.budget_exceeded")
+                .description("Sampled orders whose trace capture ran over the latency budget and was dropped")
+                .register(meterRegistry);
+
+        if (this.enabled) {
+            log.info("Detailed trace logging enabled: sampleRate={}, strategy={}, budget={}us",
+                    sampleRate, sampleStrategy, budgetMicros);
+        }
+    }
+
+    /**
+     * Decides whether the current request gets detailed trace logging.
+     *
+     * @param spanContext The request's span context (may be invalid)
+     * @return true if the request is sampled
+     */
+    public boolean shouldSample(SpanContext spanContext) {
+        if (!enabled) {
+            return false;
+        }
+        boolean sampled;
+        if (sampleRate >= 1.0) {
+            sampled = true;
+        } else if (keyOnTraceId && spanContext.isValid()) {
+            sampled = Math.abs(traceIdRandomPart(spanContext.getTraceId())) < traceIdUpperBound;
+        } else {
+            sampled = ThreadLocalRandom.current().nextDouble() < sampleRate;
+        }
+        if (sampled) {
+            sampledCounter.increment();
+        }
+        return sampled;
+    }
+
+    /**
+     * @return The most time trace capture may add to one request, in nanoseconds
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Records a sampled request whose capture was abandoned for exceeding the budget.
+     */
+    public void recordBudgetExceeded() {
+        budgetExceededCounter.increment();
+    }
+
+    /**
+     * Parses the last 16 hex characters (low 64 bits) of a trace ID without allocating.
+     */
+    private static long traceIdRandomPart(String traceId) {
+        long result = 0L;
+        for (int i = traceId.length() - 16; i < traceId.length(); i++) {
+            result = (result << 4) | Character.digit(traceId.charAt(i), 16);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,302 @@
+package com.novamart.order.tracelog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Segmented, memory-mapped, append-only trace log with fixed-size binary records.
+ *
+ * Records are copied straight into mapped pages, so appending costs no system call;
+ * the kernel writes dirty pages back in the background. Each segment is a
+ * preallocated file named {@code trace-<index>.bin}. When it fills up the log rolls
+ * to the next index and deletes the oldest segments beyond {@code maxSegments}.
+ *
+ * Record layout (96 bytes, big-endian):
+ * <pre>
+ *  0  short  magic ('TR'), written last so partially written slots read as empty
+ *  2  byte   format version
+ *  3  byte   status (1 = CONFIRMED, 2 = FAILED, 0 = unknown)
+ *  4  int    item count
+ *  8  long   timestamp (epoch millis)
+ * 16  long   trace id, high / low 64 bits
+ * 32  long   span id
+ * 40  long   order id (UUID), most / least significant bits
+ * 56  long   createOrder duration (nanos)
+ * 64  long   total calculation (nanos)
+ * 72  long   inventory check (nanos)
+ * 80  long   payment (nanos)
+ * 88  long   store write (nanos)
+ * </pre>
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public final class MappedTraceLog implements TraceLogSink {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedTraceLog.class);
+
+    static final int RECORD_SIZE = 96;
+
+    private static final short MAGIC = 0x5452;
+    private static final byte VERSION = 1;
+    private static final byte STATUS_UNKNOWN = 0;
+    private static final byte STATUS_CONFIRMED = 1;
+    private static final byte STATUS_FAILED = 2;
+    private static final String SEGMENT_PREFIX = "trace-";
+    private static final String SEGMENT_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+
+    private MappedByteBuffer segment;
+    private long segmentIndex = -1;
+
+    /**
+     * @param directory    Directory holding the segment files
+     * @param segmentBytes Target size of each segment (rounded down to whole records)
+     * @param maxSegments  Number of segments to retain
+     */
+    public MappedTraceLog(Path directory, long segmentBytes, int maxSegments) {
+        if (segmentBytes < RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must hold at least one record");
+        }
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("At least one segment must be retained");
+        }
+        long records = Math.min(segmentBytes, Integer.MAX_VALUE) / RECORD_SIZE;
+        this.directory = directory;
+        this.segmentBytes = (int) (records * RECORD_SIZE);
+        this.maxSegments = maxSegments;
+    }
+
+    @Override
+    public void append(List<TraceRecord> batch) throws IOException {
+        for (TraceRecord record : batch) {
+            if (segment == null || segment.remaining() < RECORD_SIZE) {
+                roll();
+            }
+            write(segment, record);
+        }
+    }
+
+    /**
+     * Reads every record currently in the log, oldest segment first.
+     * Intended for diagnostics tooling; customer IDs are not stored and read back as null.
+     *
+     * @param consumer Receives each decoded record
+     * @throws IOException If a segment cannot be read
+     */
+    public void scan(Consumer<TraceRecord> consumer) throws IOException {
+        for (Path file : segmentFiles()) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                for (int offset = 0; offset + RECORD_SIZE <= buffer.limit(); offset += RECORD_SIZE) {
+                    if (buffer.getShort(offset) != MAGIC) {
+                        break;
+                    }
+                    consumer.accept(read(buffer, offset));
+                }
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        Files.createDirectories(directory);
+        if (segment == null) {
+            List<Path> existing = segmentFiles();
+            if (!existing.isEmpty()) {
+                Path latest = existing.get(existing.size() - 1);
+                segmentIndex = indexOf(latest);
+                segment = map(latest);
+                segment.position(firstFreeSlot(segment));
+                if (segment.remaining() >= RECORD_SIZE) {
+                    log.info("Resuming trace log segment {} at record {}",
+                            latest, segment.position() / RECORD_SIZE);
+                    return;
+                }
+            }
+        }
+
+        if (segment != null) {
+            segment.force();
+        }
+        segmentIndex++;
+        Path next = directory.resolve(segmentName(segmentIndex));
+        segment = map(next);
+        log.debug("Rolled trace log to segment {}", next);
+        enforceRetention();
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    /**
+     * Records are appended contiguously, so the first empty slot can be found by binary search.
+     */
+    private static int firstFreeSlot(ByteBuffer buffer) {
+        int low = 0;
+        int high = buffer.limit() / RECORD_SIZE;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getShort(mid * RECORD_SIZE) == MAGIC) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low * RECORD_SIZE;
+    }
+
+    private void enforceRetention() throws IOException {
+        List<Path> segments = segmentFiles();
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+            log.debug("Deleted trace log segment {} (retention {})", segments.get(i), maxSegments);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .toList());
+            // Zero-padded names sort in index order
+            segments.sort(null);
+            return segments;
+        }
+    }
+
+    private static String segmentName(long index) {
+        return SEGMENT_PREFIX + String.format("%020d", index) + SEGMENT_SUFFIX;
+    }
+
+    private static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void write(MappedByteBuffer buffer, TraceRecord record) {
+        int offset = buffer.position();
+        buffer.put(offset + 2, VERSION);
+        buffer.put(offset + 3, encodeStatus(record.status()));
+        buffer.putInt(offset + 4, record.itemCount());
+        buffer.putLong(offset + 8, record.timestampMillis());
+        buffer.putLong(offset + 16, parseHex(record.traceId(), 0));
+        buffer.putLong(offset + 24, parseHex(record.traceId(), 16));
+        buffer.putLong(offset + 32, parseHex(record.spanId(), 0));
+
+        UUID orderId = parseUuid(record.orderId());
+        buffer.putLong(offset + 40, orderId == null ? 0L : orderId.getMostSignificantBits());
+        buffer.putLong(offset + 48, orderId == null ? 0L : orderId.getLeastSignificantBits());
+
+        buffer.putLong(offset + 56, record.durationNanos());
+        buffer.putLong(offset + 64, record.calculationNanos());
+        buffer.putLong(offset + 72, record.inventoryNanos());
+        buffer.putLong(offset + 80, record.paymentNanos());
+        buffer.putLong(offset + 88, record.storeNanos());
+        buffer.putShort(offset, MAGIC);
+        buffer.position(offset + RECORD_SIZE);
+    }
+
+    private static TraceRecord read(ByteBuffer buffer, int offset) {
+        long orderHigh = buffer.getLong(offset + 40);
+        long orderLow = buffer.getLong(offset + 48);
+        return new TraceRecord(
+                buffer.getLong(offset + 8),
+                hex(buffer.getLong(offset + 16)) + hex(buffer.getLong(offset + 24)),
+                hex(buffer.getLong(offset + 32)),
+                orderHigh == 0 && orderLow == 0 ? null : new UUID(orderHigh, orderLow).toString(),
+                null,
+                buffer.getInt(offset + 4),
+                decodeStatus(buffer.get(offset + 3)),
+                buffer.getLong(offset + 56),
+                buffer.getLong(offset + 64),
+                buffer.getLong(offset + 72),
+                buffer.getLong(offset + 80),
+                buffer.getLong(offset + 88));
+    }
+
+    private static byte encodeStatus(String status) {
+        if ("CONFIRMED".equals(status)) {
+            return STATUS_CONFIRMED;
+        }
+        if ("FAILED".equals(status)) {
+            return STATUS_FAILED;
+        }
+        return STATUS_UNKNOWN;
+    }
+
+    private static String decodeStatus(byte status) {
+        return switch (status) {
+            case STATUS_CONFIRMED -> "CONFIRMED";
+            case STATUS_FAILED -> "FAILED";
+            default -> null;
+        };
+    }
+
+    /**
+     * Parses 16 hex characters starting at {@code from} without allocating.
+     * Returns 0 for missing or malformed input.
+     */
+    private static long parseHex(String value, int from) {
+        if (value == null || value.length() < from + 16) {
+            return 0L;
+        }
+        long result = 0L;
+        for (int i = from; i < from + 16; i++) {
+            int digit = Character.digit(value.charAt(i), 16);
+            if (digit < 0) {
+                return 0L;
+            }
+            result = (result << 4) | digit;
+        }
+        return result;
+    }
+
+    private static UUID parseUuid(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String hex(long value) {
+        String digits = Long.toHexString(value);
+        return "0".repeat(16 - digits.length()) + digits;
+    }
+
+    @Override
+    public void close() {
+        if (segment != null) {
+            segment.force();
+            // Mapped pages are released when the buffer is garbage collected
+            segment = null;
+        }
+    }
+}
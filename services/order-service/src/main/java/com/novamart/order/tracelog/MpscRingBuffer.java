@@ -0,0 +1,117 @@
+package com.novamart.order.tracelog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free multi-producer / single-consumer ring buffer.
+ *
+ * Each slot carries a sequence number (Vyukov's bounded queue): producers claim a
+ * slot with a single CAS on the tail and publish it by advancing the slot sequence,
+ * so offer() never blocks and simply fails when the buffer is full.
+ * Only one thread may call {@link #drain}.
+ * Workshop: From Commit to Culprit - Order Service
+ *
+ * @param <E> Element type
+ */
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    MpscRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Ring buffer capacity must be at least 2");
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Attempts to enqueue an element without blocking.
+     *
+     * @param element The element to enqueue
+     * @return true if enqueued, false if the buffer is full
+     */
+    boolean offer(E element) {
+        return offer(element, Long.MAX_VALUE);
+    }
+
+    /**
+     * Attempts to enqueue an element, giving up if contention on the tail keeps the
+     * caller retrying past {@code deadlineNanos} ({@link System#nanoTime()} based).
+     *
+     * @param element       The element to enqueue
+     * @param deadlineNanos Time after which a lost CAS is not retried
+     * @return true if enqueued, false if the buffer is full or the deadline passed
+     */
+    boolean offer(E element, long deadlineNanos) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0) {
+                return false;
+            }
+            position = tail.get();
+        }
+    }
+
+    /**
+     * Removes up to {@code limit} published elements, handing each to {@code sink}.
+     * Must only be called from the single consumer thread.
+     *
+     * @param sink  Receiver for drained elements
+     * @param limit Maximum number of elements to drain
+     * @return The number of elements drained
+     */
+    int drain(Consumer<? super E> sink, int limit) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            E element = slots.get(index);
+            slots.lazySet(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            head.lazySet(position);
+            drained++;
+            sink.accept(element);
+        }
+        return drained;
+    }
+
+    /**
+     * @return Approximate number of queued elements
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,91 @@
+package com.novamart.order.tracelog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes trace records as one key=value line each, appending a whole batch
+ * with a single write (group commit).
+ * Workshop: From Commit to Culprit - Order Service
+ */
+final class TextTraceLogSink implements TraceLogSink {
+
+    private static final Logger log = LoggerFactory.getLogger(TextTraceLogSink.class);
+
+    private final Path path;
+    private final StringBuilder lineBuffer = new StringBuilder(4096);
+    private FileChannel channel;
+
+    TextTraceLogSink(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void append(List<TraceRecord> batch) throws IOException {
+        lineBuffer.setLength(0);
+        for (TraceRecord record : batch) {
+            appendLine(record);
+        }
+
+        FileChannel out = channel();
+        ByteBuffer bytes = ByteBuffer.wrap(lineBuffer.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+    }
+
+    private void appendLine(TraceRecord record) {
+        lineBuffer.append(Instant.ofEpochMilli(record.timestampMillis()))
+                .append(" trace_id=").append(record.traceId())
+                .append(" span_id=").append(record.spanId())
+                .append(" order_id=").append(record.orderId())
+                .append(" customer_id=").append(record.customerId())
+                .append(" items=").append(record.itemCount())
+                .append(" status=").append(record.status())
+                .append(" duration_us=").append(micros(record.durationNanos()))
+                .append(" calculation_us=").append(micros(record.calculationNanos()))
+                .append(" inventory_us=").append(micros(record.inventoryNanos()))
+                .append(" payment_us=").append(micros(record.paymentNanos()))
+                .append(" store_us=").append(micros(record.storeNanos()))
+                .append('\n');
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Path parent = path.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close trace log {}", path, e);
+            }
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.novamart.order.tracelog;
+
+import java.util.Locale;
+
+/**
+ * How detailed trace logging is written when it is turned on.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+public enum TraceLogMode {
+
+    /**
+     * Jordan Rivera's original PR-1247 behaviour: the request thread writes the
+     * trace data itself and blocks for 2 seconds. This is the workshop culprit.
+     */
+    BLOCKING,
+
+    /**
+     * The request thread only enqueues a record; a background writer appends
+     * batches to the trace log.
+     */
+    ASYNC;
+
+    /**
+     * Parses a configuration value such as "blocking" or "async".
+     *
+     * @param value The configured mode
+     * @return The matching mode
+     */
+    public static TraceLogMode from(String value) {
+        return TraceLogMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,25 @@
+package com.novamart.order.tracelog;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination for batches of trace records drained by {@link AsyncTraceLogWriter}.
+ * Only ever called from the single writer thread.
+ * Workshop: From Commit to Culprit - Order Service
+ */
+interface TraceLogSink {
+
+    /**
+     * Appends a batch of records.
+     *
+     * @param batch Records in arrival order
+     * @throws IOException If the batch could not be written
+     */
+    void append(List<TraceRecord> batch) throws IOException;
+
+    /**
+     * Releases any open files. The sink may be reused after closing; it reopens lazily.
+     */
+    void close();
+}
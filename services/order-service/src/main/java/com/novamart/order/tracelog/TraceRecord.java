@@ -0,0 +1,34 @@
+package com.novamart.order.tracelog;
+
+/**
+ * One detailed trace entry for an order creation request.
+ * Captured on the request thread and written to the trace log by the background writer.
+ * Workshop: From Commit to Culprit - Order Service
+ *
+ * @param timestampMillis  Wall-clock time the order was handled (epoch millis)
+ * @param traceId          W3C trace ID of the request (empty if not traced)
+ * @param spanId           Span ID active in the controller (empty if not traced)
+ * @param orderId          The order ID returned by the service (may be null on internal errors)
+ * @param customerId       The customer ID from the request (not kept by the binary format)
+ * @param itemCount        Number of line items in the request
+ * @param status           Resulting order status (CONFIRMED / FAILED)
+ * @param durationNanos    Time spent in OrderService.createOrder
+ * @param calculationNanos Time spent calculating the order total
+ * @param inventoryNanos   Time spent checking inventory
+ * @param paymentNanos     Time spent processing payment
+ * @param storeNanos       Time spent storing the confirmed order
+ */
+public record TraceRecord(
+        long timestampMillis,
+        String traceId,
+        String spanId,
+        String orderId,
+        String customerId,
+        int itemCount,
+        String status,
+        long durationNanos,
+        long calculationNanos,
+        long inventoryNanos,
+        long paymentNanos,
+        long storeNanos) {
+}
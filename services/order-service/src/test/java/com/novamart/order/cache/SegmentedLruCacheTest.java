@@ -0,0 +1,214 @@
+package com.novamart.order.cache;
+
+import com.novamart.order.cache.SegmentedLruCache.RemovalCause;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the segmented-LRU cache backing the bounded stores.
+ *
+ * Tests:
+ * - Size bound and eviction counting
+ * - Scan resistance (entries that were read survive a flood of new keys)
+ * - Expire-after-write
+ * - Hit/miss statistics and eviction notifications
+ * - Atomic insert-if-absent and conditional removal
+ * - Peeking neither promotes, counts nor evicts
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class SegmentedLruCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testPut_EvictsBeyondMaximumSize() {
+        // Arrange
+        SegmentedLruCache<String, Integer> cache = createCache(10, Duration.ofMinutes(1), null);
+
+        // Act
+        for (int i = 0; i < 25; i++) {
+            cache.put("key-" + i, i);
+        }
+
+        // Assert
+        assertEquals(10, cache.size());
+        assertEquals(15, cache.evictionCount(RemovalCause.SIZE));
+        assertNull(cache.get("key-0"));
+        assertEquals(24, cache.get("key-24"));
+    }
+
+    @Test
+    void testGet_ReadEntriesSurviveScan() {
+        // Arrange
+        SegmentedLruCache<String, Integer> cache = createCache(10, Duration.ofMinutes(1), null);
+        cache.put("hot", 1);
+        cache.get("hot");
+
+        // Act - A burst of one-off keys only churns the probation segment
+        for (int i = 0; i < 100; i++) {
+            cache.put("scan-" + i, i);
+        }
+
+        // Assert
+        assertEquals(1, cache.get("hot"));
+    }
+
+    @Test
+    void testGet_ExpiresAfterWrite() {
+        // Arrange
+        List<RemovalCause> causes = new ArrayList<>();
+        SegmentedLruCache<String, Integer> cache = createCache(10, Duration.ofSeconds(30),
+                (key, value, cause) -> causes.add(cause));
+        cache.put("order", 1);
+
+        // Act
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        // Assert
+        assertNull(cache.get("order"));
+        assertEquals(1, cache.evictionCount(RemovalCause.EXPIRED));
+        assertEquals(List.of(RemovalCause.EXPIRED), causes);
+    }
+
+    @Test
+    void testGet_CountsHitsAndMisses() {
+        // Arrange
+        SegmentedLruCache<String, Integer> cache = createCache(10, Duration.ofMinutes(1), null);
+        cache.put("present", 1);
+
+        // Act
+        cache.get("present");
+        cache.get("present");
+        cache.get("absent");
+
+        // Assert
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void testGet_RereadProtectedEntryOutlastsOlderOnes() {
+        // Arrange - Fill the protected segment (8 of 10), then read key-0 again
+        SegmentedLruCache<String, Integer> cache = createCache(10, Duration.ofMinutes(1), null);
+        for (int i = 0; i < 8; i++) {
+            cache.put("key-" + i, i);
+            cache.get("key-" + i);
+        }
+        cache.get("key-0");
+
+        // Act - Promoting one more demotes the least recently read, then a scan flushes probation
+        cache.put("key-8", 8);
+        cache.get("key-8");
+        for (int i = 0; i < 100; i++) {
+            cache.put("scan-" + i, i);
+        }
+
+        // Assert
+        assertEquals(0, cache.peek("key-0"));
+        assertNull(cache.peek("key-1"));
+    }
+
+    @Test
+    void testPeek_DoesNotPromoteOrCount() {
+        // Arrange
+        SegmentedLruCache<String, Integer> cache = createCache(10, Duration.ofSeconds(30), null);
+        cache.put("listed", 1);
+
+        // Act
+        Integer peeked = cache.peek("listed");
+        Integer absent = cache.peek("absent");
+        for (int i = 0; i < 100; i++) {
+            cache.put("scan-" + i, i);
+        }
+
+        // Assert - Still in probation, so the scan evicted it
+        assertEquals(1, peeked);
+        assertNull(absent);
+        assertNull(cache.peek("listed"));
+        assertEquals(0, cache.hitCount());
+        assertEquals(0, cache.missCount());
+    }
+
+    @Test
+    void testPeek_ReportsExpiredEntryAbsentWithoutEvicting() {
+        // Arrange
+        SegmentedLruCache<String, Integer> cache = createCache(10, Duration.ofSeconds(30), null);
+        cache.put("order", 1);
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        // Act
+        Integer peeked = cache.peek("order");
+
+        // Assert
+        assertNull(peeked);
+        assertEquals(0, cache.evictionCount(RemovalCause.EXPIRED));
+    }
+
+    @Test
+    void testForEach_VisitsLiveEntries() {
+        // Arrange
+        SegmentedLruCache<String, Integer> cache = createCache(10, Duration.ofSeconds(30), null);
+        cache.put("old", 1);
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+        cache.put("new", 2);
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+
+        // Act
+        List<String> keys = new ArrayList<>();
+        cache.forEach((key, value) -> keys.add(key));
+
+        // Assert
+        assertEquals(List.of("new"), keys);
+    }
+
+    @Test
+    void testPutIfAbsent_KeepsLiveValueAndReplacesExpiredOne() {
+        // Arrange
+        SegmentedLruCache<String, Integer> cache = createCache(10, Duration.ofSeconds(30), null);
+
+        // Act
+        Integer first = cache.putIfAbsent("key", 1);
+        Integer second = cache.putIfAbsent("key", 2);
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        Integer afterExpiry = cache.putIfAbsent("key", 3);
+
+        // Assert
+        assertNull(first);
+        assertEquals(1, second);
+        assertNull(afterExpiry);
+        assertEquals(3, cache.get("key"));
+        assertEquals(1, cache.evictionCount(RemovalCause.EXPIRED));
+    }
+
+    @Test
+    void testRemove_OnlyRemovesExpectedValue() {
+        // Arrange
+        SegmentedLruCache<String, Object> cache = new SegmentedLruCache<>(10, Duration.ofMinutes(1), 1, null, clock::get);
+        Object original = new Object();
+        Object replacement = new Object();
+        cache.put("key", replacement);
+
+        // Act
+        boolean removedOriginal = cache.remove("key", original);
+        boolean removedReplacement = cache.remove("key", replacement);
+
+        // Assert
+        assertFalse(removedOriginal);
+        assertTrue(removedReplacement);
+        assertNull(cache.get("key"));
+    }
+
+    private SegmentedLruCache<String, Integer> createCache(
+            long maximumSize,
+            Duration ttl,
+            SegmentedLruCache.EvictionListener<String, Integer> listener) {
+        return new SegmentedLruCache<>(maximumSize, ttl, 1, listener, clock::get);
+    }
+}
@@ -0,0 +1,95 @@
+package com.novamart.order.config;
+
+import com.novamart.order.resilience.RequestHedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the downstream fan-out executor.
+ *
+ * Tests:
+ * - Platform mode runs calls on the named pool threads
+ * - Virtual mode runs each call on its own virtual thread
+ * - Hedged calls made from a busy downstream pool still complete
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class DownstreamExecutorConfigTest {
+
+    private final DownstreamExecutorConfig config = new DownstreamExecutorConfig();
+
+    @Test
+    void testDownstreamExecutor_PlatformThreads() throws Exception {
+        // Arrange
+        ExecutorService executor = config.downstreamExecutor(false, 2, 4);
+
+        // Act
+        Thread thread = executor.submit(Thread::currentThread).get();
+        executor.shutdown();
+
+        // Assert
+        assertFalse(thread.isVirtual());
+        assertTrue(thread.getName().startsWith("order-downstream-"));
+    }
+
+    @Test
+    void testDownstreamExecutor_VirtualThreads() throws Exception {
+        // Arrange
+        ExecutorService executor = config.downstreamExecutor(true, 2, 4);
+
+        // Act
+        Thread first = executor.submit(Thread::currentThread).get();
+        Thread second = executor.submit(Thread::currentThread).get();
+        executor.shutdown();
+
+        // Assert
+        assertTrue(first.isVirtual());
+        assertTrue(first.getName().startsWith("order-downstream-"));
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void testHedgingExecutor_HedgedCallsFromBusyDownstreamPoolComplete() throws Exception {
+        // Arrange - More downstream tasks than pool threads, each making a slow hedged call
+        ExecutorService downstream = config.downstreamExecutor(false, 2, 16);
+        ExecutorService hedging = config.hedgingExecutor(false, 4, 16);
+        RequestHedger hedger = new RequestHedger("inventory", hedging, 95, Duration.ofMillis(5),
+                Duration.ofMillis(1), 1.0, new SimpleMeterRegistry());
+
+        try {
+            // Act
+            List<Future<String>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(downstream.submit(() -> hedger.call(() -> {
+                    sleep(20);
+                    return Thread.currentThread().getName();
+                })));
+            }
+
+            // Assert - Copies run on the hedging pool, so no downstream thread waits on its own pool
+            for (Future<String> call : calls) {
+                assertTrue(call.get(10, TimeUnit.SECONDS).startsWith("order-hedging-"));
+            }
+        } finally {
+            downstream.shutdownNow();
+            hedging.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.novamart.order.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Scope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the downstream HTTP transports.
+ *
+ * Tests:
+ * - http1: sequential calls reuse one pooled connection
+ * - http1: a response slower than the total timeout is cancelled
+ * - http2: calls succeed (HTTP/1.1 fallback) and carry the W3C trace context
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class DownstreamHttpConfigTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String SPAN_ID = "00f067aa0ba902b7";
+
+    private final DownstreamHttpConfig config = new DownstreamHttpConfig();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<String> lastTraceparent = new AtomicReference<>();
+
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/fast", exchange -> {
+            lastTraceparent.set(exchange.getRequestHeaders().getFirst("traceparent"));
+            byte[] body = "{\"available\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testHttp1_ReusesPooledConnection() {
+        // Arrange
+        RestTemplate restTemplate = config.restTemplate(requestFactory("http1"));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            restTemplate.postForEntity(url("/fast"), null, String.class);
+        }
+
+        // Assert - One kept-alive connection, back in the pool
+        assertEquals(0.0, poolConnections("leased"));
+        assertEquals(1.0, poolConnections("available"));
+    }
+
+    @Test
+    void testHttp1_CancelsCallsPastTotalTimeout() {
+        // Arrange
+        RestTemplate restTemplate = config.restTemplate(requestFactory("http1"));
+
+        // Act
+        long start = System.nanoTime();
+        assertThrows(ResourceAccessException.class,
+                () -> restTemplate.postForEntity(url("/slow"), null, String.class));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertTrue(elapsedMillis < 2000, "call took " + elapsedMillis + "ms");
+        assertEquals(1.0, meterRegistry.get("order.http.deadline.exceeded").counter().count());
+    }
+
+    @Test
+    void testHttp2_PropagatesTraceContext() {
+        // Arrange
+        RestTemplate restTemplate = new RestTemplate(requestFactory("http2"));
+        restTemplate.getInterceptors().add(new TracePropagationInterceptor(W3CTraceContextPropagator.getInstance()));
+        Span parent = Span.wrap(SpanContext.create(TRACE_ID, SPAN_ID, TraceFlags.getSampled(), TraceState.getDefault()));
+
+        // Act
+        try (Scope scope = parent.makeCurrent()) {
+            restTemplate.postForEntity(url("/fast"), null, String.class);
+        }
+
+        // Assert
+        assertEquals("00-" + TRACE_ID + "-" + SPAN_ID + "-01", lastTraceparent.get());
+    }
+
+    private ClientHttpRequestFactory requestFactory(String transport) {
+        return config.downstreamRequestFactory(transport, 10, 10, Duration.ofSeconds(1), Duration.ofSeconds(5),
+                Duration.ofMillis(500), Duration.ofMillis(300), Duration.ofSeconds(30), Duration.ofSeconds(30),
+                Duration.ofMinutes(5), meterRegistry);
+    }
+
+    private double poolConnections(String state) {
+        return meterRegistry.get("order.http.pool.connections").tag("state", state).gauge().value();
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+}
@@ -1,9 +1,17 @@
 package com.novamart.order.controller;
 
 import com.novamart.order.model.Order;
+import com.novamart.order.model.OrderPage;
 import com.novamart.order.model.OrderRequest;
 import com.novamart.order.model.OrderResponse;
+import com.novamart.order.service.OrderIdempotencyStore;
 import com.novamart.order.service.OrderService;
+import com.novamart.order.service.OrderStageMetrics;
+import com.novamart.order.service.OrderStageTimings;
+import com.novamart.order.tracelog.AsyncTraceLogWriter;
+import com.novamart.order.tracelog.DetailedTraceSampler;
+import com.novamart.order.tracelog.TraceRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.opentelemetry.api.trace.Tracer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,14 +21,18 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,9 +40,12 @@ import static org.mockito.Mockito.*;
  *
  * Tests REST endpoints for order operations including:
  * - Creating orders (success and failure cases)
+ * - Idempotency-Key replays, invalid keys and key reuse
+ * - Creating a batch of orders (batch size limits)
  * - Retrieving orders by ID
+ * - Listing a customer's orders (page size limits, invalid cursors)
  * - Health and readiness checks
- * - Bug-enabled mode behavior
+ * - Bug-enabled mode behavior (blocking and async trace logging)
  *
  * Workshop: From Commit to Culprit - Order Service Tests
  */
@@ -43,16 +58,39 @@ class OrderControllerTest {
     @Mock
     private Tracer tracer;
 
+    @Mock
+    private AsyncTraceLogWriter traceLogWriter;
+
+    private OrderIdempotencyStore idempotencyStore;
     private OrderController orderController;
     private OrderController orderControllerWithBug;
+    private OrderController orderControllerWithAsyncTraceLog;
+    private OrderController orderControllerWithUnsampledTraceLog;
 
     @BeforeEach
     void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DetailedTraceSampler tracingOff = new DetailedTraceSampler(false, 1.0, "trace-id", 200, meterRegistry);
+        DetailedTraceSampler tracingAll = new DetailedTraceSampler(true, 1.0, "trace-id", 200, meterRegistry);
+        DetailedTraceSampler tracingNone = new DetailedTraceSampler(true, 0.0, "trace-id", 200, meterRegistry);
+        idempotencyStore = new OrderIdempotencyStore(1000, Duration.ofHours(1), meterRegistry);
+        OrderStageMetrics stageMetrics = new OrderStageMetrics("test", meterRegistry);
+
         // Create controller without bug
-        orderController = new OrderController(orderService, tracer, false);
+        orderController = new OrderController(
+                orderService, idempotencyStore, stageMetrics, tracer, traceLogWriter, tracingOff, false, "blocking");
 
         // Create controller with bug enabled (for v1.1-bad testing)
-        orderControllerWithBug = new OrderController(orderService, tracer, true);
+        orderControllerWithBug = new OrderController(
+                orderService, idempotencyStore, stageMetrics, tracer, traceLogWriter, tracingAll, true, "blocking");
+
+        // Create controller with detailed trace logging handed to the background writer
+        orderControllerWithAsyncTraceLog = new OrderController(
+                orderService, idempotencyStore, stageMetrics, tracer, traceLogWriter, tracingAll, true, "async");
+
+        // Create controller whose sampler never picks a request
+        orderControllerWithUnsampledTraceLog = new OrderController(
+                orderService, idempotencyStore, stageMetrics, tracer, traceLogWriter, tracingNone, true, "async");
     }
 
     @Test
@@ -65,7 +103,7 @@ class OrderControllerTest {
                 .thenReturn(expectedResponse);
 
         // Act
-        ResponseEntity<OrderResponse> response = orderController.createOrder(request);
+        ResponseEntity<OrderResponse> response = orderController.createOrder(request, null);
 
         // Assert
         assertNotNull(response);
@@ -79,6 +117,45 @@ class OrderControllerTest {
         verify(orderService, times(1)).createOrder(request);
     }
 
+    @Test
+    void testCreateOrder_IdempotencyKeyReplaysConfirmedOrder() {
+        // Arrange
+        OrderRequest request = createSampleOrderRequest();
+        when(orderService.createOrder(any(OrderRequest.class)))
+                .thenReturn(createSuccessOrderResponse());
+
+        // Act
+        ResponseEntity<OrderResponse> first = orderController.createOrder(request, "retry-key-1");
+        ResponseEntity<OrderResponse> retry = orderController.createOrder(createSampleOrderRequest(), "retry-key-1");
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertSame(first.getBody(), retry.getBody());
+        verify(orderService, times(1)).createOrder(any(OrderRequest.class));
+    }
+
+    @Test
+    void testCreateOrder_IdempotencyKeyValidation() {
+        // Arrange
+        OrderRequest request = createSampleOrderRequest();
+        when(orderService.createOrder(any(OrderRequest.class)))
+                .thenReturn(createSuccessOrderResponse());
+        orderController.createOrder(request, "reused-key");
+        OrderRequest differentRequest = createSampleOrderRequest();
+        differentRequest.getItems().get(0).setQuantity(5);
+
+        // Act
+        ResponseEntity<OrderResponse> blank = orderController.createOrder(request, " ");
+        ResponseEntity<OrderResponse> tooLong = orderController.createOrder(request, "k".repeat(256));
+        ResponseEntity<OrderResponse> reused = orderController.createOrder(differentRequest, "reused-key");
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, blank.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, tooLong.getStatusCode());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        verify(orderService, times(1)).createOrder(any(OrderRequest.class));
+    }
+
     @Test
     void testCreateOrder_Failure() {
         // Arrange
@@ -89,7 +166,7 @@ class OrderControllerTest {
                 .thenReturn(failedResponse);
 
         // Act
-        ResponseEntity<OrderResponse> response = orderController.createOrder(request);
+        ResponseEntity<OrderResponse> response = orderController.createOrder(request, null);
 
         // Assert
         assertNotNull(response);
@@ -112,7 +189,7 @@ class OrderControllerTest {
 
         // Act - This should introduce a delay when bug is enabled
         long startTime = System.currentTimeMillis();
-        ResponseEntity<OrderResponse> response = orderControllerWithBug.createOrder(request);
+        ResponseEntity<OrderResponse> response = orderControllerWithBug.createOrder(request, null);
         long duration = System.currentTimeMillis() - startTime;
 
         // Assert
@@ -127,6 +204,75 @@ class OrderControllerTest {
         verify(orderService, times(1)).createOrder(request);
     }
 
+    @Test
+    void testCreateOrder_WithAsyncTraceLog() {
+        // Arrange
+        OrderRequest request = createSampleOrderRequest();
+        OrderResponse expectedResponse = createSuccessOrderResponse();
+
+        when(orderService.createOrder(any(OrderRequest.class), any(OrderStageTimings.class)))
+                .thenReturn(expectedResponse);
+
+        // Act - Trace data is only enqueued, so there is no 2-second delay
+        long startTime = System.currentTimeMillis();
+        ResponseEntity<OrderResponse> response = orderControllerWithAsyncTraceLog.createOrder(request, null);
+        long duration = System.currentTimeMillis() - startTime;
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertTrue(duration < 2000, "Async trace logging must not block the request");
+
+        // Verify the trace record carries the order outcome
+        verify(traceLogWriter, times(1)).offer(argThat((TraceRecord record) ->
+                "order-12345".equals(record.orderId())
+                        && "customer-123".equals(record.customerId())
+                        && record.itemCount() == 2
+                        && "CONFIRMED".equals(record.status())), anyLong());
+    }
+
+    @Test
+    void testCreateOrder_NotSampled_SkipsTraceLog() {
+        // Arrange
+        OrderRequest request = createSampleOrderRequest();
+
+        when(orderService.createOrder(any(OrderRequest.class)))
+                .thenReturn(createSuccessOrderResponse());
+
+        // Act
+        ResponseEntity<OrderResponse> response = orderControllerWithUnsampledTraceLog.createOrder(request, null);
+
+        // Assert - Unsampled orders take the plain path and write nothing
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(orderService, times(1)).createOrder(request);
+        verifyNoInteractions(traceLogWriter);
+    }
+
+    @Test
+    void testCreateOrders_Batch() {
+        // Arrange
+        List<OrderRequest> requests = List.of(createSampleOrderRequest(), createSampleOrderRequest());
+        List<OrderResponse> expected = List.of(createSuccessOrderResponse(), createFailedOrderResponse());
+        when(orderService.createOrders(requests)).thenReturn(expected);
+
+        // Act
+        ResponseEntity<List<OrderResponse>> response = orderController.createOrders(requests);
+
+        // Assert - Mixed outcomes are reported per order
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(expected, response.getBody());
+    }
+
+    @Test
+    void testCreateOrders_RejectsEmptyAndOversizedBatches() {
+        // Arrange
+        List<OrderRequest> oversized = Collections.nCopies(101, createSampleOrderRequest());
+
+        // Act & Assert
+        assertEquals(HttpStatus.BAD_REQUEST, orderController.createOrders(List.of()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, orderController.createOrders(oversized).getStatusCode());
+        verifyNoInteractions(orderService);
+    }
+
     @Test
     void testGetOrder_Found() {
         // Arrange
@@ -167,6 +313,39 @@ class OrderControllerTest {
         verify(orderService, times(1)).getOrder(orderId);
     }
 
+    @Test
+    void testListCustomerOrders_ClampsPageSize() {
+        // Arrange
+        OrderPage page = OrderPage.builder()
+                .customerId("customer-123")
+                .orders(List.of(createSampleOrder("test-order-123")))
+                .build();
+        when(orderService.getCustomerOrders("customer-123", null, 100)).thenReturn(page);
+
+        // Act
+        ResponseEntity<OrderPage> response = orderController.listCustomerOrders("customer-123", 500, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
+        verify(orderService).getCustomerOrders("customer-123", null, 100);
+    }
+
+    @Test
+    void testListCustomerOrders_RejectsBadLimitAndCursor() {
+        // Arrange
+        when(orderService.getCustomerOrders("customer-123", "garbage", 20))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        // Act
+        ResponseEntity<OrderPage> badLimit = orderController.listCustomerOrders("customer-123", 0, null);
+        ResponseEntity<OrderPage> badCursor = orderController.listCustomerOrders("customer-123", 20, "garbage");
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, badLimit.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, badCursor.getStatusCode());
+    }
+
     @Test
     void testHealthCheck() {
         // Act
@@ -0,0 +1,134 @@
+package com.novamart.order.controller;
+
+import com.novamart.order.model.OrderRequest;
+import com.novamart.order.model.OrderResponse;
+import com.novamart.order.service.OrderIdempotencyStore;
+import com.novamart.order.service.OrderService;
+import com.novamart.order.service.OrderStageMetrics;
+import com.novamart.order.service.OrderStageTimings;
+import com.novamart.order.service.ReactiveOrderService;
+import com.novamart.order.tracelog.AsyncTraceLogWriter;
+import com.novamart.order.tracelog.DetailedTraceSampler;
+import com.novamart.order.tracelog.TraceRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReactiveOrderController.
+ *
+ * Tests:
+ * - Confirmed orders map to 201 and failed orders to 400
+ * - Async trace logging enqueues a record once the order completes
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveOrderControllerTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private ReactiveOrderService reactiveOrderService;
+
+    @Mock
+    private Tracer tracer;
+
+    @Mock
+    private AsyncTraceLogWriter traceLogWriter;
+
+    @Test
+    void testCreateOrder_Success() {
+        // Arrange
+        ReactiveOrderController controller = createController(false, "blocking");
+        when(reactiveOrderService.createOrder(any(OrderRequest.class)))
+                .thenReturn(Mono.just(createOrderResponse("CONFIRMED")));
+
+        // Act
+        ResponseEntity<OrderResponse> response = controller.createOrder(createSampleOrderRequest(), null).block();
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("CONFIRMED", response.getBody().getStatus());
+    }
+
+    @Test
+    void testCreateOrder_Failure() {
+        // Arrange
+        ReactiveOrderController controller = createController(false, "blocking");
+        when(reactiveOrderService.createOrder(any(OrderRequest.class)))
+                .thenReturn(Mono.just(createOrderResponse("FAILED")));
+
+        // Act
+        ResponseEntity<OrderResponse> response = controller.createOrder(createSampleOrderRequest(), null).block();
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testCreateOrder_WithAsyncTraceLog() {
+        // Arrange
+        ReactiveOrderController controller = createController(true, "async");
+        when(reactiveOrderService.createOrder(any(OrderRequest.class), any(OrderStageTimings.class)))
+                .thenReturn(Mono.just(createOrderResponse("CONFIRMED")));
+
+        // Act
+        ResponseEntity<OrderResponse> response = controller.createOrder(createSampleOrderRequest(), null).block();
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(traceLogWriter, times(1)).offer(argThat((TraceRecord record) ->
+                "order-12345".equals(record.orderId())
+                        && "customer-123".equals(record.customerId())
+                        && "CONFIRMED".equals(record.status())), anyLong());
+    }
+
+    private ReactiveOrderController createController(boolean traceLogEnabled, String traceLogMode) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DetailedTraceSampler sampler = new DetailedTraceSampler(traceLogEnabled, 1.0, "trace-id", 200, meterRegistry);
+        OrderIdempotencyStore idempotencyStore = new OrderIdempotencyStore(1000, Duration.ofHours(1), meterRegistry);
+        return new ReactiveOrderController(orderService, reactiveOrderService, idempotencyStore,
+                new OrderStageMetrics("test", meterRegistry), tracer, traceLogWriter, sampler, traceLogEnabled,
+                traceLogMode);
+    }
+
+    private OrderRequest createSampleOrderRequest() {
+        return OrderRequest.builder()
+                .customerId("customer-123")
+                .items(List.of(OrderRequest.OrderItem.builder()
+                        .productId("WIDGET-001")
+                        .quantity(2)
+                        .price(29.99)
+                        .build()))
+                .build();
+    }
+
+    private OrderResponse createOrderResponse(String status) {
+        return OrderResponse.builder()
+                .orderId("order-12345")
+                .status(status)
+                .message("CONFIRMED".equals(status) ? "Order placed successfully" : "Payment declined")
+                .totalAmount(59.98)
+                .timestamp(Instant.now().toString())
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.novamart.order.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for time-ordered (UUIDv7) order IDs.
+ *
+ * Tests:
+ * - Version, variant and embedded timestamp
+ * - IDs from later milliseconds sort after earlier ones
+ * - Uniqueness across concurrent threads
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class TimeOrderedOrderIdGeneratorTest {
+
+    @Test
+    void testNextId_IsVersion7WithTimestamp() {
+        // Arrange
+        long now = 1_700_000_000_123L;
+        TimeOrderedOrderIdGenerator generator = new TimeOrderedOrderIdGenerator(() -> now);
+
+        // Act
+        UUID id = UUID.fromString(generator.nextId());
+
+        // Assert
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(now, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void testNextId_SortsByCreationTime() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        TimeOrderedOrderIdGenerator generator = new TimeOrderedOrderIdGenerator(clock::get);
+        List<String> ids = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            ids.add(generator.nextId());
+            clock.incrementAndGet();
+        }
+
+        // Assert - Text form sorts the same way as creation order
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        assertEquals(ids, sorted);
+    }
+
+    @Test
+    void testNextId_UniqueAcrossThreads() throws Exception {
+        // Arrange
+        TimeOrderedOrderIdGenerator generator = new TimeOrderedOrderIdGenerator();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(80_000, ids.size());
+    }
+}
@@ -0,0 +1,130 @@
+package com.novamart.order.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the adaptive concurrency limiter.
+ *
+ * Tests:
+ * - Calls over the limit are rejected until a slot is given back
+ * - Slow calls cut the limit, once per round trip
+ * - Failed calls cut the limit, never below min-limit
+ * - Fast calls raise the limit while it is in use, up to max-limit
+ * - The limit does not grow while most of it is unused
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+
+    @Test
+    void testTryAcquire_RejectsOverLimit() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10);
+
+        // Act
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+        boolean overLimit = limiter.tryAcquire();
+        limiter.release();
+        boolean afterRelease = limiter.tryAcquire();
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(overLimit);
+        assertTrue(afterRelease);
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void testOnSample_SlowCallsCutLimitOncePerRoundTrip() {
+        // Arrange - Unloaded latency of 10ms
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 1, 50);
+        sample(limiter, FAST, false);
+
+        // Act
+        sample(limiter, SLOW, false);
+        int afterFirstCut = limiter.getLimit();
+        sample(limiter, SLOW, false);
+        int sameRoundTrip = limiter.getLimit();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        sample(limiter, SLOW, false);
+
+        // Assert - 20 x 0.9 = 18, then 18 x 0.9 = 16.2
+        assertEquals(18, afterFirstCut);
+        assertEquals(18, sameRoundTrip);
+        assertEquals(16, limiter.getLimit());
+    }
+
+    @Test
+    void testOnSample_FailuresCutLimitToMinimum() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(5, 3, 50);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            sample(limiter, FAST, true);
+        }
+
+        // Assert
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void testOnSample_FastCallsRaiseLimitUpToMax() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 8);
+
+        // Act - Keep the limit fully used with fast calls
+        for (int round = 0; round < 50; round++) {
+            int slots = 0;
+            while (limiter.tryAcquire()) {
+                slots++;
+            }
+            for (int i = 0; i < slots; i++) {
+                limiter.onSample(FAST, false);
+            }
+        }
+
+        // Assert
+        assertEquals(8, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testOnSample_UnusedLimitDoesNotGrow() {
+        // Arrange
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 50);
+
+        // Act - One call at a time
+        for (int i = 0; i < 100; i++) {
+            sample(limiter, FAST, false);
+        }
+
+        // Assert
+        assertEquals(10, limiter.getLimit());
+    }
+
+    private void sample(AdaptiveConcurrencyLimiter limiter, long durationNanos, boolean failed) {
+        assertTrue(limiter.tryAcquire());
+        limiter.onSample(durationNanos, failed);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter("inventory", initialLimit, minLimit, maxLimit, 2.0, 0.9, 100,
+                meterRegistry, now::get);
+    }
+}
@@ -0,0 +1,137 @@
+package com.novamart.order.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the circuit breaker.
+ *
+ * Tests:
+ * - Opens once the failure rate reaches the threshold, not before minimum-calls
+ * - Opens once the slow-call rate reaches the threshold
+ * - Only the most recent window-size calls count
+ * - Half-open probes close the breaker when they succeed
+ * - A failed half-open probe opens it again
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testOnResult_OpensAtFailureRate() {
+        // Arrange
+        CircuitBreaker breaker = breaker(10, 50, 100);
+
+        // Act - 2 of 3 failed, but fewer than minimum-calls recorded
+        breaker.onResult(FAST, false);
+        breaker.onResult(FAST, true);
+        breaker.onResult(FAST, true);
+        CircuitBreaker.State beforeMinimum = breaker.getState();
+        breaker.onResult(FAST, false);
+
+        // Assert - 2 of 4 is 50%
+        assertEquals(CircuitBreaker.State.CLOSED, beforeMinimum);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1.0, meterRegistry.get("order.resilience.circuit.transitions")
+                .tag("state", "open").counter().count());
+    }
+
+    @Test
+    void testOnResult_OpensAtSlowCallRate() {
+        // Arrange
+        CircuitBreaker breaker = breaker(10, 100, 50);
+
+        // Act - Successful but slow
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(SLOW, false);
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testOnResult_OnlyRecentCallsCount() {
+        // Arrange
+        CircuitBreaker breaker = breaker(4, 50, 100);
+
+        // Act - The failures are pushed out of the window before the rate can reach 50%
+        breaker.onResult(FAST, true);
+        for (int i = 0; i < 3; i++) {
+            breaker.onResult(FAST, false);
+        }
+        breaker.onResult(FAST, true);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testTryAcquirePermission_HalfOpenProbesClose() {
+        // Arrange
+        CircuitBreaker breaker = openBreaker();
+
+        // Act
+        boolean beforeWait = breaker.tryAcquirePermission();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        boolean firstProbe = breaker.tryAcquirePermission();
+        boolean secondProbe = breaker.tryAcquirePermission();
+        boolean thirdProbe = breaker.tryAcquirePermission();
+        breaker.onResult(FAST, false);
+        CircuitBreaker.State afterOneProbe = breaker.getState();
+        breaker.onResult(FAST, false);
+
+        // Assert
+        assertFalse(beforeWait);
+        assertTrue(firstProbe);
+        assertTrue(secondProbe);
+        assertFalse(thirdProbe);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, afterOneProbe);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testTryAcquirePermission_FailedProbeReopens() {
+        // Arrange
+        CircuitBreaker breaker = openBreaker();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // Act
+        breaker.tryAcquirePermission();
+        breaker.tryAcquirePermission();
+        breaker.onResult(FAST, true);
+        breaker.onResult(FAST, false);
+
+        // Assert - Waits out wait-in-open again before the next probe
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    private CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = breaker(10, 50, 100);
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(FAST, true);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+
+    private CircuitBreaker breaker(int windowSize, double failureRateThreshold, double slowCallRateThreshold) {
+        return new CircuitBreaker("payment", windowSize, 4, failureRateThreshold, Duration.ofMillis(100),
+                slowCallRateThreshold, Duration.ofSeconds(1), 2, meterRegistry, now::get);
+    }
+}
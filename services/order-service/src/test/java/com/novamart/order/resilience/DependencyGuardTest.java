@@ -0,0 +1,122 @@
+package com.novamart.order.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for guarding downstream calls.
+ *
+ * Tests:
+ * - A call beyond the bulkhead's limit is rejected
+ * - A call beyond the adaptive limit is rejected
+ * - Failures open the breaker, after which calls are rejected without being made
+ * - Exceptions that are not failures of the service do not open the breaker
+ * - A pass-through guard makes every call
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class DependencyGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void testCall_RejectsBeyondBulkheadLimit() {
+        // Arrange - One call in flight allowed
+        DependencyGuard guard = guard(1);
+
+        // Act - A second call while the first is still running
+        DependencyUnavailableException rejected = assertThrows(DependencyUnavailableException.class,
+                () -> guard.call(() -> guard.call(calls::incrementAndGet)));
+
+        // Assert
+        assertEquals("payment", rejected.getDependency());
+        assertEquals("bulkhead_full", rejected.getReason());
+        assertEquals(0, calls.get());
+        assertEquals("ok", guard.call(() -> "ok"));
+    }
+
+    @Test
+    void testCall_RejectsBeyondAdaptiveLimit() {
+        // Arrange - Room in the bulkhead, but an adaptive limit of one
+        CircuitBreaker breaker = new CircuitBreaker("payment", 10, 2, 50, Duration.ofSeconds(1), 100,
+                Duration.ofSeconds(30), 1, meterRegistry);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("payment", 1, 1, 10, 2.0, 0.9, 100,
+                meterRegistry);
+        DependencyGuard guard = new DependencyGuard("payment",
+                new Bulkhead("payment", 10, Duration.ZERO, meterRegistry), limiter, breaker,
+                e -> true, meterRegistry);
+
+        // Act
+        DependencyUnavailableException rejected = assertThrows(DependencyUnavailableException.class,
+                () -> guard.call(() -> guard.call(calls::incrementAndGet)));
+
+        // Assert - The slot is given back after the outer call
+        assertEquals("limit_exceeded", rejected.getReason());
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testCall_OpenBreakerRejectsWithoutCalling() {
+        // Arrange
+        DependencyGuard guard = guard(10);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalStateException.class, () -> guard.call(() -> {
+                throw new IllegalStateException("connection refused");
+            }));
+        }
+
+        // Act
+        DependencyUnavailableException rejected = assertThrows(DependencyUnavailableException.class,
+                () -> guard.call(calls::incrementAndGet));
+
+        // Assert
+        assertEquals("circuit_open", rejected.getReason());
+        assertEquals(0, calls.get());
+        assertEquals(1.0, meterRegistry.get("order.resilience.rejections")
+                .tag("reason", "circuit_open").counter().count());
+    }
+
+    @Test
+    void testCall_IgnoredExceptionsDoNotOpenBreaker() {
+        // Arrange
+        DependencyGuard guard = guard(10);
+
+        // Act - Declined requests, not failures of the service
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalArgumentException.class, () -> guard.call(() -> {
+                throw new IllegalArgumentException("payment declined");
+            }));
+        }
+
+        // Assert
+        assertEquals(1, guard.call(calls::incrementAndGet));
+    }
+
+    @Test
+    void testPassThrough_MakesEveryCall() {
+        // Arrange
+        DependencyGuard guard = DependencyGuard.passThrough("payment");
+
+        // Act
+        int result = guard.call(() -> guard.call(calls::incrementAndGet));
+
+        // Assert
+        assertEquals(1, result);
+        assertEquals("payment", guard.getDependency());
+    }
+
+    private DependencyGuard guard(int maxConcurrent) {
+        CircuitBreaker breaker = new CircuitBreaker("payment", 10, 2, 50, Duration.ofSeconds(1), 100,
+                Duration.ofSeconds(30), 1, meterRegistry);
+        Bulkhead bulkhead = new Bulkhead("payment", maxConcurrent, Duration.ZERO, meterRegistry);
+        return new DependencyGuard("payment", bulkhead, null, breaker,
+                e -> !(e instanceof IllegalArgumentException), meterRegistry);
+    }
+}
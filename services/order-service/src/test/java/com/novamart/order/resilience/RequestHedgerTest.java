@@ -0,0 +1,146 @@
+package com.novamart.order.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for hedging slow calls.
+ *
+ * Tests:
+ * - A call that answers within the delay is made once
+ * - A slow call is hedged and the faster copy's answer is used
+ * - Hedges stop once the budget is spent
+ * - A failure is rethrown once both copies have failed
+ * - The delay follows the recent latency percentile, not below the minimum
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class RequestHedgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testCall_FastCallIsNotHedged() {
+        // Arrange
+        RequestHedger hedger = hedger(Duration.ofSeconds(1), 0.1);
+
+        // Act
+        String result = hedger.call(() -> "attempt-" + attempts.incrementAndGet());
+
+        // Assert
+        assertEquals("attempt-1", result);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testCall_SlowCallIsHedged() {
+        // Arrange - The first copy hangs until the test ends
+        CountDownLatch release = new CountDownLatch(1);
+        RequestHedger hedger = hedger(Duration.ofMillis(20), 0.1);
+
+        // Act
+        long start = System.nanoTime();
+        String result = hedger.call(() -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                await(release);
+            }
+            return "attempt-" + attempt;
+        });
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        // Assert
+        assertEquals("attempt-2", result);
+        assertTrue(elapsedMillis < 5_000, "waited for the slow copy: " + elapsedMillis + "ms");
+        assertEquals(1.0, meterRegistry.get("order.resilience.hedges").tag("result", "won").counter().count());
+    }
+
+    @Test
+    void testCall_StopsHedgingWhenBudgetIsSpent() {
+        // Arrange - No budget earned, so only the initial burst of ten hedges
+        RequestHedger hedger = hedger(Duration.ofMillis(5), 0.0);
+
+        // Act - Every call is slower than the delay
+        for (int i = 0; i < 12; i++) {
+            hedger.call(() -> {
+                attempts.incrementAndGet();
+                sleep(50);
+                return true;
+            });
+        }
+
+        // Assert
+        assertEquals(12 + 10, attempts.get());
+    }
+
+    @Test
+    void testCall_RethrowsWhenBothCopiesFail() {
+        // Arrange
+        RequestHedger hedger = hedger(Duration.ofMillis(5), 0.1);
+
+        // Act
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> hedger.call(() -> {
+            attempts.incrementAndGet();
+            sleep(50);
+            throw new IllegalStateException("inventory down");
+        }));
+
+        // Assert
+        assertEquals("inventory down", thrown.getMessage());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testCall_DelayFollowsRecentLatencies() {
+        // Arrange
+        RequestHedger hedger = hedger(Duration.ofSeconds(1), 0.1);
+
+        // Act - Instant calls, far under the 5ms minimum
+        for (int i = 0; i < 256; i++) {
+            hedger.call(attempts::incrementAndGet);
+        }
+
+        // Assert
+        assertEquals(Duration.ofMillis(5), hedger.getDelay());
+        assertEquals(256, attempts.get());
+    }
+
+    private RequestHedger hedger(Duration initialDelay, double budget) {
+        return new RequestHedger("inventory", executor, 95, initialDelay, Duration.ofMillis(5), budget,
+                meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
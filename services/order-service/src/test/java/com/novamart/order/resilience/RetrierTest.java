@@ -0,0 +1,122 @@
+package com.novamart.order.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for retrying downstream calls.
+ *
+ * Tests:
+ * - A retryable failure is retried until an attempt succeeds
+ * - Other failures are returned at once
+ * - Attempts stop at max-attempts
+ * - Retries stop when the shared budget is spent
+ * - Backoff is jittered within its exponential, capped bound
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class RetrierTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    void testCall_RetriesUntilSuccess() {
+        // Arrange
+        Retrier retrier = retrier(3, new RequestBudget(0.1, 10));
+
+        // Act - The first attempt's connection drops
+        String result = retrier.call(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("connection reset");
+            }
+            return "ok";
+        });
+
+        // Assert
+        assertEquals("ok", result);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testCall_DoesNotRetryOtherFailures() {
+        // Arrange
+        Retrier retrier = retrier(3, new RequestBudget(0.1, 10));
+
+        // Act
+        assertThrows(DependencyUnavailableException.class, () -> retrier.call(() -> {
+            attempts.incrementAndGet();
+            throw new DependencyUnavailableException("payment", "circuit_open");
+        }));
+
+        // Assert
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testCall_StopsAtMaxAttempts() {
+        // Arrange
+        Retrier retrier = retrier(3, new RequestBudget(0.1, 10));
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> retrier.call(this::failingAttempt));
+
+        // Assert
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testCall_StopsWhenBudgetIsSpent() {
+        // Arrange - Budget for one retry, earning nothing
+        RequestBudget budget = new RequestBudget(0.0, 1);
+        Retrier payment = retrier(3, budget);
+        Retrier inventory = new Retrier("inventory", 3, Duration.ofMillis(1), Duration.ofMillis(1), budget,
+                e -> e instanceof IllegalStateException, meterRegistry);
+
+        // Act - The budget is shared, so the second service gets no retry either
+        assertThrows(IllegalStateException.class, () -> payment.call(this::failingAttempt));
+        int paymentAttempts = attempts.getAndSet(0);
+        assertThrows(IllegalStateException.class, () -> inventory.call(this::failingAttempt));
+
+        // Assert
+        assertEquals(2, paymentAttempts);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testBackoffNanos_JitteredWithinCappedBound() {
+        // Arrange
+        Retrier retrier = new Retrier("payment", 5, Duration.ofMillis(50), Duration.ofMillis(120),
+                new RequestBudget(0.1, 10), e -> true, meterRegistry);
+
+        // Act
+        long maxFirst = 0;
+        long maxThird = 0;
+        for (int i = 0; i < 1000; i++) {
+            maxFirst = Math.max(maxFirst, retrier.backoffNanos(1));
+            maxThird = Math.max(maxThird, retrier.backoffNanos(3));
+        }
+
+        // Assert - 50ms for the first retry; 200ms capped at 120ms for the third
+        assertTrue(maxFirst <= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(maxFirst > TimeUnit.MILLISECONDS.toNanos(25));
+        assertTrue(maxThird <= TimeUnit.MILLISECONDS.toNanos(120));
+        assertTrue(maxThird > TimeUnit.MILLISECONDS.toNanos(60));
+    }
+
+    private String failingAttempt() {
+        attempts.incrementAndGet();
+        throw new IllegalStateException("connection reset");
+    }
+
+    private Retrier retrier(int maxAttempts, RequestBudget budget) {
+        return new Retrier("payment", maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5), budget,
+                e -> e instanceof IllegalStateException, meterRegistry);
+    }
+}
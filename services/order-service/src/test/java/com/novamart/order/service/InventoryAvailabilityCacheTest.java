@@ -0,0 +1,159 @@
+package com.novamart.order.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the inventory availability cache.
+ *
+ * Tests:
+ * - A second check is answered from the cache
+ * - Out-of-stock answers are cached and answer the whole check
+ * - Entries are loaded again once their TTL has passed
+ * - Concurrent misses on one product share one load
+ * - A failed load is not cached
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class InventoryAvailabilityCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Collection<String>> calls = new CopyOnWriteArrayList<>();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testCheckAvailability_SecondCheckIsACacheHit() {
+        // Arrange
+        InventoryAvailabilityCache cache = cache(inStock(Map.of("WIDGET-001", true, "GADGET-042", true)));
+
+        // Act
+        boolean first = cache.checkAvailability(List.of("WIDGET-001", "GADGET-042"));
+        boolean second = cache.checkAvailability(List.of("GADGET-042", "WIDGET-001"));
+
+        // Assert
+        assertTrue(first);
+        assertTrue(second);
+        assertEquals(1, calls.size());
+        assertEquals(2.0, requests("hit"));
+        assertEquals(2.0, requests("miss"));
+    }
+
+    @Test
+    void testCheckAvailability_CachesOutOfStock() {
+        // Arrange
+        InventoryAvailabilityCache cache = cache(inStock(Map.of("WIDGET-001", true, "GIZMO-007", false)));
+        cache.checkAvailability(List.of("GIZMO-007"));
+
+        // Act - The cached out-of-stock product decides before WIDGET-001 is looked up
+        boolean available = cache.checkAvailability(List.of("GIZMO-007", "WIDGET-001"));
+
+        // Assert
+        assertFalse(available);
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    void testCheckAvailability_ReloadsAfterTtl() {
+        // Arrange
+        InventoryAvailabilityCache cache = cache(inStock(Map.of("WIDGET-001", true)));
+        cache.checkAvailability(List.of("WIDGET-001"));
+
+        // Act
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(499));
+        cache.checkAvailability(List.of("WIDGET-001"));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        cache.checkAvailability(List.of("WIDGET-001"));
+
+        // Assert
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    void testCheckAvailability_ConcurrentMissesShareOneLoad() throws Exception {
+        // Arrange - The load blocks until every caller has missed
+        int callers = 8;
+        CountDownLatch allMissed = new CountDownLatch(1);
+        Function<Collection<String>, Map<String, Boolean>> load = inStock(Map.of("WIDGET-001", true));
+        InventoryAvailabilityCache cache = cache(productIds -> {
+            try {
+                allMissed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load.apply(productIds);
+        });
+
+        // Act
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> cache.checkAvailability(List.of("WIDGET-001"))));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (requests("miss") < callers && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            allMissed.countDown();
+
+            // Assert
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.size());
+        assertEquals(callers - 1.0, meterRegistry.get("order.inventory.cache.coalesced").functionCounter().count());
+    }
+
+    @Test
+    void testCheckAvailability_FailedLoadIsNotCached() {
+        // Arrange - The first load fails, the second succeeds
+        InventoryAvailabilityCache cache = cache(productIds -> {
+            calls.add(productIds);
+            return calls.size() == 1 ? Map.of() : Map.of("WIDGET-001", true);
+        });
+
+        // Act
+        boolean first = cache.checkAvailability(List.of("WIDGET-001"));
+        boolean second = cache.checkAvailability(List.of("WIDGET-001"));
+
+        // Assert
+        assertFalse(first);
+        assertTrue(second);
+        assertEquals(2, calls.size());
+    }
+
+    private InventoryAvailabilityCache cache(Function<Collection<String>, Map<String, Boolean>> checkProducts) {
+        return new InventoryAvailabilityCache(checkProducts, Duration.ofMillis(500), Duration.ofMillis(500),
+                100, meterRegistry, now::get);
+    }
+
+    private Function<Collection<String>, Map<String, Boolean>> inStock(Map<String, Boolean> stock) {
+        return productIds -> {
+            calls.add(List.copyOf(productIds));
+            return stock;
+        };
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("order.inventory.cache.requests").tag("result", result).functionCounter().count();
+    }
+}
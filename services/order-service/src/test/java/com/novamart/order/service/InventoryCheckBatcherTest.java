@@ -0,0 +1,117 @@
+package com.novamart.order.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for coalescing concurrent inventory checks.
+ *
+ * Tests:
+ * - Concurrent checks share one call and each gets its own answer
+ * - A batch that reaches max-items is sent without waiting out the window
+ * - A failed batch call reports every product as unavailable
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class InventoryCheckBatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Collection<String>> calls = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testCheckAvailability_CoalescesConcurrentChecks() throws Exception {
+        // Arrange - Window long enough for every check to join the first batch
+        InventoryCheckBatcher batcher = new InventoryCheckBatcher(
+                inStock(Map.of("WIDGET-001", true, "GADGET-042", true, "GIZMO-007", false)),
+                Duration.ofMillis(500), 64, meterRegistry);
+        List<List<String>> checks = List.of(
+                List.of("WIDGET-001"),
+                List.of("WIDGET-001", "GADGET-042"),
+                List.of("GIZMO-007"),
+                List.of("GADGET-042", "GIZMO-007"));
+
+        // Act
+        List<Boolean> results = checkConcurrently(batcher, checks);
+
+        // Assert
+        assertEquals(List.of(true, true, false, false), results);
+        assertEquals(1, calls.size());
+        assertEquals(3, calls.get(0).size());
+        DistributionSummary batchSize = meterRegistry.get("order.inventory.batch.size").summary();
+        assertEquals(1, batchSize.count());
+        assertEquals(4.0, batchSize.totalAmount());
+    }
+
+    @Test
+    void testCheckAvailability_FullBatchIsSentBeforeTheWindowEnds() throws Exception {
+        // Arrange - A window far longer than the test may take
+        InventoryCheckBatcher batcher = new InventoryCheckBatcher(
+                inStock(Map.of("WIDGET-001", true, "GADGET-042", true)),
+                Duration.ofSeconds(30), 2, meterRegistry);
+
+        // Act
+        long start = System.nanoTime();
+        List<Boolean> results = checkConcurrently(batcher, List.of(List.of("WIDGET-001"), List.of("GADGET-042")));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertEquals(List.of(true, true), results);
+        assertEquals(1, calls.size());
+        assertTrue(elapsedMillis < 10_000, "Full batch waited for the window: " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void testCheckAvailability_FailedCallIsUnavailable() {
+        // Arrange
+        InventoryCheckBatcher batcher = new InventoryCheckBatcher(productIds -> {
+            throw new IllegalStateException("inventory service unreachable");
+        }, Duration.ofMillis(1), 64, meterRegistry);
+
+        // Act & Assert
+        assertFalse(batcher.checkAvailability(List.of("WIDGET-001")));
+    }
+
+    private java.util.function.Function<Collection<String>, Map<String, Boolean>> inStock(
+            Map<String, Boolean> stock) {
+        return productIds -> {
+            calls.add(List.copyOf(productIds));
+            return stock;
+        };
+    }
+
+    private List<Boolean> checkConcurrently(InventoryCheckBatcher batcher, List<List<String>> checks)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(checks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (List<String> productIds : checks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return batcher.checkAvailability(productIds);
+            }));
+        }
+        start.countDown();
+
+        List<Boolean> results = new ArrayList<>();
+        for (Future<Boolean> future : futures) {
+            results.add(future.get(20, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return results;
+    }
+}
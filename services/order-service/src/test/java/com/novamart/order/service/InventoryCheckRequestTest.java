@@ -0,0 +1,61 @@
+package com.novamart.order.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the typed inventory-service request and reply bodies.
+ *
+ * Tests:
+ * - The streamed request matches the inventory service's items format
+ * - Replies bind the fields the client reads and skip the rest
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class InventoryCheckRequestTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testSerialize_WritesItemsArray() throws Exception {
+        // Arrange
+        InventoryCheckRequest request = new InventoryCheckRequest(List.of("WIDGET-001", "GADGET-042"));
+
+        // Act
+        String json = objectMapper.writeValueAsString(request);
+
+        // Assert
+        assertEquals("{\"items\":[{\"item_id\":\"WIDGET-001\",\"quantity\":1},"
+                + "{\"item_id\":\"GADGET-042\",\"quantity\":1}]}", json);
+    }
+
+    @Test
+    void testDeserialize_IgnoresFieldsNotRead() throws Exception {
+        // Arrange
+        String json = "{\"available\":false,\"message\":\"Some items unavailable\",\"items\":["
+                + "{\"item_id\":\"WIDGET-001\",\"requested\":1,\"available\":1000,\"in_stock\":true},"
+                + "{\"item_id\":\"GADGET-042\",\"requested\":1,\"available\":0,\"in_stock\":false}]}";
+
+        // Act
+        InventoryCheckResponse response = objectMapper.readValue(json, InventoryCheckResponse.class);
+
+        // Assert
+        assertFalse(response.available());
+        assertEquals(List.of(new InventoryCheckResponse.Item("WIDGET-001", true),
+                new InventoryCheckResponse.Item("GADGET-042", false)), response.items());
+    }
+
+    @Test
+    void testDeserialize_MissingItemsIsEmpty() throws Exception {
+        // Act
+        InventoryCheckResponse response = objectMapper.readValue("{\"available\":true}", InventoryCheckResponse.class);
+
+        // Assert
+        assertTrue(response.available());
+        assertTrue(response.items().isEmpty());
+    }
+}
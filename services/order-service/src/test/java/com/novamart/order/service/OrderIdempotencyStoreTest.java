@@ -0,0 +1,183 @@
+package com.novamart.order.service;
+
+import com.novamart.order.model.OrderRequest;
+import com.novamart.order.model.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the idempotency-key store used by order creation.
+ *
+ * Tests:
+ * - A retry with the same key gets the original response without a second order
+ * - Concurrent duplicates wait for the first execution instead of running again
+ * - Failed and thrown executions release the key
+ * - Reusing a key for a different request (even one with the same hash code), or per customer scoping
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class OrderIdempotencyStoreTest {
+
+    private final OrderIdempotencyStore store =
+            new OrderIdempotencyStore(1000, Duration.ofHours(1), new SimpleMeterRegistry());
+
+    @Test
+    void testExecute_ReplaysConfirmedOrder() {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act
+        OrderResponse first = store.execute("key-1", createRequest("customer-1", 2),
+                () -> createResponse("order-" + executions.incrementAndGet(), "CONFIRMED"));
+        OrderResponse retry = store.execute("key-1", createRequest("customer-1", 2),
+                () -> createResponse("order-" + executions.incrementAndGet(), "CONFIRMED"));
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertSame(first, retry);
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testExecute_ConcurrentDuplicatesWaitForFirstExecution() throws Exception {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<OrderResponse>> responses = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> store.execute("key-1", createRequest("customer-1", 2), () -> {
+                    executions.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return createResponse("order-1", "CONFIRMED");
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            OrderResponse first = responses.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<OrderResponse> response : responses) {
+                assertSame(first, response.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_FailedOrderReleasesKey() {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+        store.execute("key-1", createRequest("customer-1", 2), () -> {
+            executions.incrementAndGet();
+            return createResponse("order-1", "FAILED");
+        });
+        assertThrows(IllegalStateException.class, () -> store.execute("key-2", createRequest("customer-1", 2), () -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+
+        // Act
+        OrderResponse retriedFailure = store.execute("key-1", createRequest("customer-1", 2), () -> {
+            executions.incrementAndGet();
+            return createResponse("order-2", "CONFIRMED");
+        });
+        OrderResponse retriedError = store.execute("key-2", createRequest("customer-1", 2), () -> {
+            executions.incrementAndGet();
+            return createResponse("order-3", "CONFIRMED");
+        });
+
+        // Assert
+        assertEquals(4, executions.get());
+        assertEquals("order-2", retriedFailure.getOrderId());
+        assertEquals("order-3", retriedError.getOrderId());
+    }
+
+    @Test
+    void testExecute_KeyReusedForDifferentRequestIsRejected() {
+        // Arrange
+        store.execute("key-1", createRequest("customer-1", 2), () -> createResponse("order-1", "CONFIRMED"));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyConflictException.class, () -> store.execute("key-1",
+                createRequest("customer-1", 3), () -> createResponse("order-2", "CONFIRMED")));
+    }
+
+    @Test
+    void testExecute_KeyReusedForRequestWithSameHashCodeIsRejected() {
+        // Arrange - "Aa" and "BB" share a String hash code, so the two bodies hash alike
+        OrderRequest original = createRequest("customer-1", "Aa");
+        OrderRequest different = createRequest("customer-1", "BB");
+        assertEquals(original.hashCode(), different.hashCode());
+        store.execute("key-1", original, () -> createResponse("order-1", "CONFIRMED"));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyConflictException.class, () -> store.execute("key-1",
+                different, () -> createResponse("order-2", "CONFIRMED")));
+    }
+
+    @Test
+    void testExecute_KeysAreScopedToCustomer() {
+        // Arrange
+        store.execute("key-1", createRequest("customer-1", 2), () -> createResponse("order-1", "CONFIRMED"));
+
+        // Act
+        OrderResponse otherCustomer = store.execute("key-1", createRequest("customer-2", 2),
+                () -> createResponse("order-2", "CONFIRMED"));
+
+        // Assert
+        assertEquals("order-2", otherCustomer.getOrderId());
+        assertEquals(2, store.size());
+    }
+
+    private OrderRequest createRequest(String customerId, int quantity) {
+        return OrderRequest.builder()
+                .customerId(customerId)
+                .items(List.of(OrderRequest.OrderItem.builder()
+                        .productId("WIDGET-001")
+                        .quantity(quantity)
+                        .price(29.99)
+                        .build()))
+                .build();
+    }
+
+    private OrderRequest createRequest(String customerId, String productId) {
+        return OrderRequest.builder()
+                .customerId(customerId)
+                .items(List.of(OrderRequest.OrderItem.builder()
+                        .productId(productId)
+                        .quantity(1)
+                        .price(29.99)
+                        .build()))
+                .build();
+    }
+
+    private OrderResponse createResponse(String orderId, String status) {
+        return OrderResponse.builder()
+                .orderId(orderId)
+                .status(status)
+                .totalAmount(59.98)
+                .build();
+    }
+}
@@ -1,8 +1,16 @@
 package com.novamart.order.service;
 
+import com.novamart.order.id.TimeOrderedOrderIdGenerator;
 import com.novamart.order.model.Order;
+import com.novamart.order.model.OrderPage;
 import com.novamart.order.model.OrderRequest;
 import com.novamart.order.model.OrderResponse;
+import com.novamart.order.resilience.DependencyUnavailableException;
+import com.novamart.order.store.BoundedOrderStore;
+import com.novamart.order.store.InMemoryOrderStore;
+import com.novamart.order.telemetry.OrderAttributes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanBuilder;
 import io.opentelemetry.api.trace.Tracer;
@@ -13,8 +21,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +42,12 @@ import static org.mockito.Mockito.*;
  * - Order retrieval
  * - Failure scenarios (inventory unavailable, payment declined)
  * - Total calculation
+ * - Customer order listing (index rebuild, cursor paging, eviction, not counted as store lookups)
+ * - Parallel orchestration (authorize alongside inventory, then capture or void)
+ * - Batch creation (one inventory check per batch, per-order outcomes, per-order failures)
+ * - Fast failure when a downstream call is rejected (open circuit, full bulkhead)
+ * - A paid order the store rejects fails with its order ID and amount
+ * - Stage latency histograms (only stages the order reached)
  *
  * Workshop: From Commit to Culprit - Order Service Tests
  */
@@ -53,21 +72,22 @@ class OrderServiceTest {
     @Mock
     private Scope scope;
 
+    private SimpleMeterRegistry meterRegistry;
     private OrderService orderService;
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
         // Setup tracer mocks
         when(tracer.spanBuilder(anyString())).thenReturn(spanBuilder);
-        when(spanBuilder.setAttribute(anyString(), anyString())).thenReturn(spanBuilder);
-        when(spanBuilder.setAttribute(anyString(), anyLong())).thenReturn(spanBuilder);
-        when(spanBuilder.setAttribute(anyString(), anyInt())).thenReturn(spanBuilder);
-        when(spanBuilder.setAttribute(anyString(), anyDouble())).thenReturn(spanBuilder);
-        when(spanBuilder.setAttribute(anyString(), anyBoolean())).thenReturn(spanBuilder);
+        when(spanBuilder.setAttribute(any(AttributeKey.class), any())).thenReturn(spanBuilder);
         when(spanBuilder.startSpan()).thenReturn(span);
         when(span.makeCurrent()).thenReturn(scope);
 
-        orderService = new OrderService(inventoryClient, paymentClient, tracer);
+        orderService = new OrderService(inventoryClient, paymentClient, tracer, new InMemoryOrderStore(),
+                new TimeOrderedOrderIdGenerator(), Runnable::run,
+                new OrderStageMetrics("test", meterRegistry), "sequential");
     }
 
     @Test
@@ -124,6 +144,23 @@ class OrderServiceTest {
         verify(paymentClient, never()).processPayment(anyString(), anyString(), anyDouble());
     }
 
+    @Test
+    void testCreateOrder_RecordsReachedStages() {
+        // Arrange
+        OrderRequest request = createSampleOrderRequest();
+        when(inventoryClient.checkAvailability(anyList())).thenReturn(true);
+        when(paymentClient.processPayment(anyString(), anyString(), anyDouble())).thenReturn(false);
+
+        // Act
+        orderService.createOrder(request);
+
+        // Assert - the declined order never reached the store write
+        assertEquals(1, stageCount("calculation"));
+        assertEquals(1, stageCount("inventory"));
+        assertEquals(1, stageCount("payment"));
+        assertEquals(0, stageCount("store"));
+    }
+
     @Test
     void testCreateOrder_PaymentDeclined() {
         // Arrange
@@ -289,8 +326,392 @@ class OrderServiceTest {
         verify(paymentClient).processPayment(anyString(), eq("customer-123"), eq(0.00));
     }
 
+    @Test
+    void testCreateOrder_Parallel_CapturesAfterInventoryAndAuthorization() {
+        // Arrange
+        OrderService parallelService = createParallelService();
+        when(inventoryClient.checkAvailability(anyList())).thenReturn(true);
+        when(paymentClient.authorizePayment(anyString(), eq("customer-123"), eq(142.50)))
+                .thenReturn(Optional.of("payment-1"));
+        when(paymentClient.capturePayment("payment-1")).thenReturn(true);
+
+        // Act
+        OrderResponse response = parallelService.createOrder(createSampleOrderRequest());
+
+        // Assert
+        assertEquals("CONFIRMED", response.getStatus());
+        assertTrue(parallelService.getOrder(response.getOrderId()).isPresent());
+        verify(paymentClient, never()).voidPayment(anyString());
+        verify(paymentClient, never()).processPayment(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void testCreateOrder_Parallel_VoidsHoldWhenInventoryUnavailable() {
+        // Arrange
+        OrderService parallelService = createParallelService();
+        when(inventoryClient.checkAvailability(anyList())).thenReturn(false);
+        when(paymentClient.authorizePayment(anyString(), anyString(), anyDouble()))
+                .thenReturn(Optional.of("payment-1"));
+        when(paymentClient.voidPayment("payment-1")).thenReturn(true);
+
+        // Act
+        OrderResponse response = parallelService.createOrder(createSampleOrderRequest());
+
+        // Assert
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Inventory not available", response.getMessage());
+        verify(paymentClient).voidPayment("payment-1");
+        verify(paymentClient, never()).capturePayment(anyString());
+    }
+
+    @Test
+    void testCreateOrder_Parallel_AuthorizationDeclined() {
+        // Arrange
+        OrderService parallelService = createParallelService();
+        when(inventoryClient.checkAvailability(anyList())).thenReturn(true);
+        when(paymentClient.authorizePayment(anyString(), anyString(), anyDouble()))
+                .thenReturn(Optional.empty());
+
+        // Act
+        OrderResponse response = parallelService.createOrder(createSampleOrderRequest());
+
+        // Assert
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Payment declined", response.getMessage());
+        verify(paymentClient, never()).capturePayment(anyString());
+        verify(paymentClient, never()).voidPayment(anyString());
+    }
+
+    @Test
+    void testCreateOrder_PaymentUnavailableFailsFast() {
+        // Arrange
+        when(inventoryClient.checkAvailability(anyList())).thenReturn(true);
+        when(paymentClient.processPayment(anyString(), anyString(), anyDouble()))
+                .thenThrow(new DependencyUnavailableException("payment", "circuit_open"));
+
+        // Act
+        OrderResponse response = orderService.createOrder(createSampleOrderRequest());
+
+        // Assert
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Payment service unavailable", response.getMessage());
+        assertNotNull(response.getOrderId());
+        assertEquals(142.50, response.getTotalAmount(), 0.01);
+        verify(span).setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "payment_unavailable");
+    }
+
+    @Test
+    void testCreateOrder_Parallel_VoidsHoldWhenInventoryRejected() {
+        // Arrange
+        OrderService parallelService = createParallelService();
+        when(inventoryClient.checkAvailability(anyList()))
+                .thenThrow(new DependencyUnavailableException("inventory", "bulkhead_full"));
+        when(paymentClient.authorizePayment(anyString(), anyString(), anyDouble()))
+                .thenReturn(Optional.of("payment-1"));
+        when(paymentClient.voidPayment("payment-1")).thenReturn(true);
+
+        // Act
+        OrderResponse response = parallelService.createOrder(createSampleOrderRequest());
+
+        // Assert
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Inventory service unavailable", response.getMessage());
+        verify(paymentClient).voidPayment("payment-1");
+        verify(paymentClient, never()).capturePayment(anyString());
+    }
+
+    @Test
+    void testCreateOrder_StoreFailureAfterPaymentKeepsOrderIdAndAmount() {
+        // Arrange - The payment goes through but the store cannot keep the order
+        OrderService service = new OrderService(inventoryClient, paymentClient, tracer, createFailingStore(),
+                new TimeOrderedOrderIdGenerator(), Runnable::run,
+                new OrderStageMetrics("test", meterRegistry), "sequential");
+        when(inventoryClient.checkAvailability(anyList())).thenReturn(true);
+        when(paymentClient.processPayment(anyString(), anyString(), anyDouble())).thenReturn(true);
+
+        // Act
+        OrderResponse response = service.createOrder(createSampleOrderRequest());
+
+        // Assert - The client gets the ID and amount it was charged under
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Order could not be stored", response.getMessage());
+        assertNotNull(response.getOrderId());
+        assertEquals(142.50, response.getTotalAmount(), 0.01);
+        assertTrue(service.getOrder(response.getOrderId()).isEmpty());
+        assertTrue(service.getCustomerOrders("customer-123", null, 20).getOrders().isEmpty());
+        verify(paymentClient).processPayment(eq(response.getOrderId()), eq("customer-123"), eq(142.50));
+        verify(span).setAttribute(OrderAttributes.ORDER_FAILURE_REASON, "store_failed");
+    }
+
+    @Test
+    void testCreateOrder_Parallel_StoreFailureAfterCaptureKeepsOrderIdAndAmount() {
+        // Arrange
+        OrderService parallelService = new OrderService(inventoryClient, paymentClient, tracer, createFailingStore(),
+                new TimeOrderedOrderIdGenerator(), Runnable::run,
+                new OrderStageMetrics("test", meterRegistry), "parallel");
+        when(inventoryClient.checkAvailability(anyList())).thenReturn(true);
+        when(paymentClient.authorizePayment(anyString(), anyString(), anyDouble()))
+                .thenReturn(Optional.of("payment-1"));
+        when(paymentClient.capturePayment("payment-1")).thenReturn(true);
+
+        // Act
+        OrderResponse response = parallelService.createOrder(createSampleOrderRequest());
+
+        // Assert - A captured payment cannot be voided, so it is left for a manual refund
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Order could not be stored", response.getMessage());
+        assertNotNull(response.getOrderId());
+        assertEquals(142.50, response.getTotalAmount(), 0.01);
+        verify(paymentClient, never()).voidPayment(anyString());
+    }
+
+    @Test
+    void testGetCustomerOrders_IncludesNewOrders() {
+        // Arrange
+        when(inventoryClient.checkAvailability(anyList())).thenReturn(true);
+        when(paymentClient.processPayment(anyString(), anyString(), anyDouble())).thenReturn(true);
+        OrderResponse created = orderService.createOrder(createSampleOrderRequest());
+
+        // Act
+        OrderPage page = orderService.getCustomerOrders("customer-123", null, 20);
+
+        // Assert
+        assertEquals("customer-123", page.getCustomerId());
+        assertEquals(1, page.getOrders().size());
+        assertEquals(created.getOrderId(), page.getOrders().get(0).getOrderId());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetCustomerOrders_PagesNewestFirstFromRebuiltIndex() {
+        // Arrange - Orders already in the store when the service starts
+        InMemoryOrderStore store = new InMemoryOrderStore();
+        for (int i = 0; i < 5; i++) {
+            store.put(createStoredOrder("order-" + i, "customer-123", i));
+        }
+        store.put(createStoredOrder("other-order", "customer-456", 9));
+        OrderService service = new OrderService(inventoryClient, paymentClient, tracer, store,
+                new TimeOrderedOrderIdGenerator(), Runnable::run,
+                new OrderStageMetrics("test", meterRegistry), "sequential");
+
+        // Act
+        OrderPage first = service.getCustomerOrders("customer-123", null, 2);
+        OrderPage second = service.getCustomerOrders("customer-123", first.getNextCursor(), 2);
+        OrderPage last = service.getCustomerOrders("customer-123", second.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(List.of("order-4", "order-3"), orderIds(first));
+        assertEquals(List.of("order-2", "order-1"), orderIds(second));
+        assertEquals(List.of("order-0"), orderIds(last));
+        assertNotNull(first.getNextCursor());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void testGetCustomerOrders_SkipsEvictedOrders() {
+        // Arrange - Store holds at most two orders
+        BoundedOrderStore store = new BoundedOrderStore(2, Duration.ofHours(1), new SimpleMeterRegistry());
+        OrderService service = new OrderService(inventoryClient, paymentClient, tracer, store,
+                new TimeOrderedOrderIdGenerator(), Runnable::run,
+                new OrderStageMetrics("test", meterRegistry), "sequential");
+        when(inventoryClient.checkAvailability(anyList())).thenReturn(true);
+        when(paymentClient.processPayment(anyString(), anyString(), anyDouble())).thenReturn(true);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            service.createOrder(createSampleOrderRequest());
+        }
+        OrderPage page = service.getCustomerOrders("customer-123", null, 20);
+
+        // Assert
+        assertEquals(store.size(), page.getOrders().size());
+        assertTrue(page.getOrders().stream().allMatch(order -> store.get(order.getOrderId()).isPresent()));
+    }
+
+    @Test
+    void testGetCustomerOrders_NotCountedAsStoreLookups() {
+        // Arrange
+        SimpleMeterRegistry storeRegistry = new SimpleMeterRegistry();
+        BoundedOrderStore store = new BoundedOrderStore(100, Duration.ofHours(1), storeRegistry);
+        for (int i = 0; i < 3; i++) {
+            store.put(createStoredOrder("order-" + i, "customer-1", i));
+        }
+        OrderService service = new OrderService(inventoryClient, paymentClient, tracer, store,
+                new TimeOrderedOrderIdGenerator(), Runnable::run,
+                new OrderStageMetrics("test", meterRegistry), "sequential");
+
+        // Act
+        OrderPage page = service.getCustomerOrders("customer-1", null, 20);
+
+        // Assert - Listing reads every order but is not demand for any of them
+        assertEquals(3, page.getOrders().size());
+        assertEquals(0.0, storeRegistry.get("order.store.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(0.0, storeRegistry.get("order.store.requests").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testGetCustomerOrders_UnknownCustomerAndBadCursor() {
+        // Act
+        OrderPage page = orderService.getCustomerOrders("nobody", null, 20);
+
+        // Assert
+        assertTrue(page.getOrders().isEmpty());
+        assertNull(page.getNextCursor());
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.getCustomerOrders("customer-123", "not-a-cursor", 20));
+    }
+
+    @Test
+    void testCreateOrders_OneInventoryCheckPerBatch() {
+        // Arrange
+        when(inventoryClient.checkAvailabilityByProduct(anyCollection()))
+                .thenReturn(Map.of("WIDGET-001", true, "GADGET-042", true));
+        when(paymentClient.processPayment(anyString(), anyString(), anyDouble())).thenReturn(true);
+        List<OrderRequest> requests = List.of(createSampleOrderRequest(), createSampleOrderRequest(),
+                createSampleOrderRequest());
+
+        // Act
+        List<OrderResponse> responses = orderService.createOrders(requests);
+
+        // Assert - Distinct products checked once, every order paid and stored
+        assertEquals(3, responses.size());
+        assertTrue(responses.stream().allMatch(response -> "CONFIRMED".equals(response.getStatus())));
+        assertEquals(3, responses.stream().map(OrderResponse::getOrderId).distinct().count());
+        verify(inventoryClient, times(1)).checkAvailabilityByProduct(argThat(products ->
+                products.size() == 2 && products.containsAll(List.of("WIDGET-001", "GADGET-042"))));
+        verify(inventoryClient, never()).checkAvailability(anyList());
+        verify(paymentClient, times(3)).processPayment(anyString(), eq("customer-123"), eq(142.50));
+        assertTrue(orderService.getOrder(responses.get(2).getOrderId()).isPresent());
+    }
+
+    @Test
+    void testCreateOrders_ReportsEachOrderOutcome() {
+        // Arrange - GADGET-042 is out of stock; the second in-stock order is declined
+        OrderRequest widgetOnly = OrderRequest.builder()
+                .customerId("customer-123")
+                .items(List.of(OrderRequest.OrderItem.builder()
+                        .productId("WIDGET-001").quantity(1).price(29.99).build()))
+                .build();
+        OrderRequest declined = OrderRequest.builder()
+                .customerId("customer-456")
+                .items(widgetOnly.getItems())
+                .build();
+        when(inventoryClient.checkAvailabilityByProduct(anyCollection()))
+                .thenReturn(Map.of("WIDGET-001", true, "GADGET-042", false));
+        when(paymentClient.processPayment(anyString(), eq("customer-123"), anyDouble())).thenReturn(true);
+        when(paymentClient.processPayment(anyString(), eq("customer-456"), anyDouble())).thenReturn(false);
+
+        // Act
+        List<OrderResponse> responses = orderService.createOrders(
+                List.of(widgetOnly, createSampleOrderRequest(), declined));
+
+        // Assert - Responses follow request order
+        assertEquals("CONFIRMED", responses.get(0).getStatus());
+        assertEquals("Inventory not available", responses.get(1).getMessage());
+        assertEquals("Payment declined", responses.get(2).getMessage());
+        verify(paymentClient, times(2)).processPayment(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void testCreateOrders_StoreFailureFailsOnlyThatOrder() {
+        // Arrange - The store rejects the second order it is asked to keep
+        InMemoryOrderStore store = new InMemoryOrderStore() {
+            private int puts;
+
+            @Override
+            public void put(Order order) {
+                if (++puts == 2) {
+                    throw new UncheckedIOException(new IOException("disk full"));
+                }
+                super.put(order);
+            }
+        };
+        OrderService service = new OrderService(inventoryClient, paymentClient, tracer, store,
+                new TimeOrderedOrderIdGenerator(), Runnable::run,
+                new OrderStageMetrics("test", meterRegistry), "sequential");
+        when(inventoryClient.checkAvailabilityByProduct(anyCollection()))
+                .thenReturn(Map.of("WIDGET-001", true, "GADGET-042", true));
+        when(paymentClient.processPayment(anyString(), anyString(), anyDouble())).thenReturn(true);
+
+        // Act
+        List<OrderResponse> responses = service.createOrders(List.of(createSampleOrderRequest(),
+                createSampleOrderRequest(), createSampleOrderRequest()));
+
+        // Assert - The orders around the failure are still confirmed and reported
+        assertEquals(3, responses.size());
+        assertEquals("CONFIRMED", responses.get(0).getStatus());
+        assertTrue(service.getOrder(responses.get(0).getOrderId()).isPresent());
+        assertEquals("FAILED", responses.get(1).getStatus());
+        assertEquals("Order could not be stored", responses.get(1).getMessage());
+        assertNotNull(responses.get(1).getOrderId());
+        assertEquals(142.50, responses.get(1).getTotalAmount(), 0.01);
+        assertEquals("CONFIRMED", responses.get(2).getStatus());
+        assertTrue(service.getOrder(responses.get(2).getOrderId()).isPresent());
+        verify(paymentClient, times(3)).processPayment(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void testCreateOrders_PaymentErrorFailsOnlyThatOrder() {
+        // Arrange
+        OrderRequest failing = OrderRequest.builder()
+                .customerId("customer-456")
+                .items(createSampleOrderRequest().getItems())
+                .build();
+        when(inventoryClient.checkAvailabilityByProduct(anyCollection()))
+                .thenReturn(Map.of("WIDGET-001", true, "GADGET-042", true));
+        when(paymentClient.processPayment(anyString(), eq("customer-123"), anyDouble())).thenReturn(true);
+        when(paymentClient.processPayment(anyString(), eq("customer-456"), anyDouble()))
+                .thenThrow(new IllegalStateException("unexpected reply"));
+
+        // Act
+        List<OrderResponse> responses = orderService.createOrders(
+                List.of(createSampleOrderRequest(), failing, createSampleOrderRequest()));
+
+        // Assert
+        assertEquals("CONFIRMED", responses.get(0).getStatus());
+        assertEquals("Internal error", responses.get(1).getMessage());
+        assertNotNull(responses.get(1).getOrderId());
+        assertEquals("CONFIRMED", responses.get(2).getStatus());
+    }
+
     // Helper method to create test data
 
+    private OrderService createParallelService() {
+        return new OrderService(inventoryClient, paymentClient, tracer, new InMemoryOrderStore(),
+                new TimeOrderedOrderIdGenerator(), Runnable::run,
+                new OrderStageMetrics("test", meterRegistry), "parallel");
+    }
+
+    private InMemoryOrderStore createFailingStore() {
+        return new InMemoryOrderStore() {
+            @Override
+            public void put(Order order) {
+                throw new UncheckedIOException(new IOException("fsync failed"));
+            }
+        };
+    }
+
+    private long stageCount(String stage) {
+        return meterRegistry.get(OrderStageMetrics.METRIC_NAME).tag("stage", stage).timer().count();
+    }
+
+    private Order createStoredOrder(String orderId, String customerId, int minutes) {
+        Instant createdAt = Instant.parse("2024-01-01T00:00:00Z").plusSeconds(minutes * 60L);
+        return Order.builder()
+                .orderId(orderId)
+                .customerId(customerId)
+                .items(List.of())
+                .totalAmount(10.0)
+                .status("CONFIRMED")
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+
+    private List<String> orderIds(OrderPage page) {
+        return page.getOrders().stream().map(Order::getOrderId).toList();
+    }
+
     private OrderRequest createSampleOrderRequest() {
         OrderRequest.OrderItem item1 = OrderRequest.OrderItem.builder()
                 .productId("WIDGET-001")
@@ -0,0 +1,79 @@
+package com.novamart.order.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the order creation stage latency histograms.
+ *
+ * Tests:
+ * - Each stage duration is recorded on its own timer, tagged with the service version
+ * - Stages a request never reached are not recorded
+ * - Detailed trace logging is recorded as its own stage
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class OrderStageMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderStageMetrics stageMetrics = new OrderStageMetrics("v1.1-bad", meterRegistry);
+
+    @Test
+    void testRecord_RecordsEachStageTaggedWithVersion() {
+        // Arrange
+        OrderStageTimings timings = new OrderStageTimings();
+        timings.setCalculationNanos(5_000);
+        timings.setInventoryNanos(40_000_000);
+        timings.setPaymentNanos(120_000_000);
+        timings.setStoreNanos(2_000_000);
+
+        // Act
+        stageMetrics.record(timings);
+
+        // Assert
+        assertEquals(5_000, stage("calculation").totalTime(TimeUnit.NANOSECONDS), 0.5);
+        assertEquals(40, stage("inventory").totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(120, stage("payment").totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(2, stage("store").totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    void testRecord_SkipsStagesNotReached() {
+        // Arrange - inventory unavailable, so payment and store never ran
+        OrderStageTimings timings = new OrderStageTimings();
+        timings.setCalculationNanos(5_000);
+        timings.setInventoryNanos(40_000_000);
+
+        // Act
+        stageMetrics.record(timings);
+
+        // Assert
+        assertEquals(1, stage("calculation").count());
+        assertEquals(1, stage("inventory").count());
+        assertEquals(0, stage("payment").count());
+        assertEquals(0, stage("store").count());
+    }
+
+    @Test
+    void testRecordDetailedTrace_RecordsOwnStage() {
+        // Act
+        stageMetrics.recordDetailedTrace(TimeUnit.SECONDS.toNanos(2));
+
+        // Assert
+        assertEquals(1, stage("detailed_trace").count());
+        assertEquals(2, stage("detailed_trace").totalTime(TimeUnit.SECONDS), 0.001);
+        assertEquals(0, stage("calculation").count());
+    }
+
+    private Timer stage(String stage) {
+        return meterRegistry.get(OrderStageMetrics.METRIC_NAME)
+                .tag("stage", stage)
+                .tag("version", "v1.1-bad")
+                .timer();
+    }
+}
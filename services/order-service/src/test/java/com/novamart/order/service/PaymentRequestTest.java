@@ -0,0 +1,53 @@
+package com.novamart.order.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the typed payment-service request and reply bodies.
+ *
+ * Tests:
+ * - Requests use the payment service's field names, keyed by order ID
+ * - Replies bind the fields the client reads and skip the rest
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class PaymentRequestTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testSerialize_UsesPaymentServiceFieldNames() throws Exception {
+        // Arrange
+        PaymentRequest request = PaymentRequest.forOrder("order-1", "customer-1", 59.98);
+
+        // Act
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(request));
+
+        // Assert
+        assertEquals("order-1", json.get("order_id").asText());
+        assertEquals("customer-1", json.get("customer_id").asText());
+        assertEquals(59.98, json.get("amount").asDouble());
+        assertEquals("USD", json.get("currency").asText());
+        assertEquals("credit_card", json.get("payment_method").asText());
+        assertEquals("order-1", json.get("idempotency_key").asText());
+        assertEquals(6, json.size());
+    }
+
+    @Test
+    void testDeserialize_IgnoresFieldsNotRead() throws Exception {
+        // Arrange
+        String json = "{\"payment_id\":\"3f2b\",\"order_id\":\"order-1\",\"amount\":\"59.98\",\"currency\":\"USD\","
+                + "\"status\":\"completed\",\"payment_method\":\"credit_card\",\"transaction_id\":\"txn-9\","
+                + "\"failure_reason\":null,\"created_at\":\"2026-01-01T00:00:00\"}";
+
+        // Act
+        PaymentResponse response = objectMapper.readValue(json, PaymentResponse.class);
+
+        // Assert
+        assertEquals(new PaymentResponse("3f2b", "completed", "txn-9"), response);
+    }
+}
@@ -0,0 +1,242 @@
+package com.novamart.order.service;
+
+import com.novamart.order.id.TimeOrderedOrderIdGenerator;
+import com.novamart.order.model.Order;
+import com.novamart.order.model.OrderRequest;
+import com.novamart.order.model.OrderResponse;
+import com.novamart.order.store.InMemoryOrderStore;
+import com.novamart.order.store.OrderStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the reactive order pipeline.
+ *
+ * Tests:
+ * - Sequential orders: confirmed and stored, inventory unavailable, payment declined
+ * - Parallel orders: hold captured on success, voided when inventory is unavailable
+ * - A failing client call becomes an "Internal error" response, not an error signal
+ * - A paid order the store rejects fails with its order ID and amount
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveOrderServiceTest {
+
+    @Mock
+    private ReactiveInventoryClient inventoryClient;
+
+    @Mock
+    private ReactivePaymentClient paymentClient;
+
+    @Mock
+    private InventoryClient blockingInventoryClient;
+
+    @Mock
+    private PaymentClient blockingPaymentClient;
+
+    @Mock
+    private Tracer tracer;
+
+    @Mock
+    private Span span;
+
+    @Mock
+    private SpanBuilder spanBuilder;
+
+    private OrderService orderService;
+    private OrderStore orders;
+
+    @BeforeEach
+    void setUp() {
+        // Setup tracer mocks
+        when(tracer.spanBuilder(anyString())).thenReturn(spanBuilder);
+        when(spanBuilder.setParent(any())).thenReturn(spanBuilder);
+        when(spanBuilder.setAttribute(any(AttributeKey.class), any())).thenReturn(spanBuilder);
+        when(spanBuilder.startSpan()).thenReturn(span);
+
+        orders = new InMemoryOrderStore();
+        orderService = new OrderService(blockingInventoryClient, blockingPaymentClient, tracer, orders,
+                new TimeOrderedOrderIdGenerator(), Runnable::run,
+                new OrderStageMetrics("test", new SimpleMeterRegistry()), "sequential");
+    }
+
+    @Test
+    void testCreateOrder_Success() {
+        // Arrange
+        ReactiveOrderService service = createService("sequential");
+        when(inventoryClient.checkAvailability(anyList(), any())).thenReturn(Mono.just(true));
+        when(paymentClient.processPayment(anyString(), eq("customer-123"), eq(142.50), any()))
+                .thenReturn(Mono.just(true));
+
+        // Act
+        OrderResponse response = service.createOrder(createSampleOrderRequest()).block();
+
+        // Assert
+        assertNotNull(response);
+        assertEquals("CONFIRMED", response.getStatus());
+        assertEquals(142.50, response.getTotalAmount(), 0.01);
+        assertTrue(orderService.getOrder(response.getOrderId()).isPresent());
+        verify(span).end();
+    }
+
+    @Test
+    void testCreateOrder_InventoryUnavailable() {
+        // Arrange
+        ReactiveOrderService service = createService("sequential");
+        when(inventoryClient.checkAvailability(anyList(), any())).thenReturn(Mono.just(false));
+
+        // Act
+        OrderResponse response = service.createOrder(createSampleOrderRequest()).block();
+
+        // Assert
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Inventory not available", response.getMessage());
+        assertEquals(0, orders.size());
+        verify(paymentClient, never()).processPayment(anyString(), anyString(), anyDouble(), any());
+    }
+
+    @Test
+    void testCreateOrder_PaymentDeclined() {
+        // Arrange
+        ReactiveOrderService service = createService("sequential");
+        when(inventoryClient.checkAvailability(anyList(), any())).thenReturn(Mono.just(true));
+        when(paymentClient.processPayment(anyString(), anyString(), anyDouble(), any()))
+                .thenReturn(Mono.just(false));
+
+        // Act
+        OrderResponse response = service.createOrder(createSampleOrderRequest()).block();
+
+        // Assert
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Payment declined", response.getMessage());
+        assertEquals(0, orders.size());
+    }
+
+    @Test
+    void testCreateOrder_Parallel_CapturesAfterInventoryAndAuthorization() {
+        // Arrange
+        ReactiveOrderService service = createService("parallel");
+        when(inventoryClient.checkAvailability(anyList(), any())).thenReturn(Mono.just(true));
+        when(paymentClient.authorizePayment(anyString(), eq("customer-123"), eq(142.50), any()))
+                .thenReturn(Mono.just(Optional.of("payment-1")));
+        when(paymentClient.capturePayment(eq("payment-1"), any())).thenReturn(Mono.just(true));
+
+        // Act
+        OrderResponse response = service.createOrder(createSampleOrderRequest()).block();
+
+        // Assert
+        assertEquals("CONFIRMED", response.getStatus());
+        assertTrue(orderService.getOrder(response.getOrderId()).isPresent());
+        verify(paymentClient, never()).voidPayment(anyString(), any());
+    }
+
+    @Test
+    void testCreateOrder_Parallel_VoidsHoldWhenInventoryUnavailable() {
+        // Arrange
+        ReactiveOrderService service = createService("parallel");
+        when(inventoryClient.checkAvailability(anyList(), any())).thenReturn(Mono.just(false));
+        when(paymentClient.authorizePayment(anyString(), anyString(), anyDouble(), any()))
+                .thenReturn(Mono.just(Optional.of("payment-1")));
+        when(paymentClient.voidPayment(eq("payment-1"), any())).thenReturn(Mono.just(true));
+
+        // Act
+        OrderResponse response = service.createOrder(createSampleOrderRequest()).block();
+
+        // Assert
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Inventory not available", response.getMessage());
+        verify(paymentClient).voidPayment(eq("payment-1"), any());
+        verify(paymentClient, never()).capturePayment(anyString(), any());
+    }
+
+    @Test
+    void testCreateOrder_ClientErrorBecomesInternalError() {
+        // Arrange
+        ReactiveOrderService service = createService("sequential");
+        when(inventoryClient.checkAvailability(anyList(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("connection reset")));
+
+        // Act
+        OrderResponse response = service.createOrder(createSampleOrderRequest()).block();
+
+        // Assert
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Internal error", response.getMessage());
+        assertNotNull(response.getOrderId());
+        assertEquals(142.50, response.getTotalAmount(), 0.01);
+        verify(span).recordException(any(IllegalStateException.class));
+        verify(span).end();
+    }
+
+    @Test
+    void testCreateOrder_Parallel_StoreFailureAfterCaptureKeepsOrderIdAndAmount() {
+        // Arrange - The store cannot keep the order once the hold is captured
+        orders = new InMemoryOrderStore() {
+            @Override
+            public void put(Order order) {
+                throw new UncheckedIOException(new IOException("fsync failed"));
+            }
+        };
+        orderService = new OrderService(blockingInventoryClient, blockingPaymentClient, tracer, orders,
+                new TimeOrderedOrderIdGenerator(), Runnable::run,
+                new OrderStageMetrics("test", new SimpleMeterRegistry()), "parallel");
+        ReactiveOrderService service = createService("parallel");
+        when(inventoryClient.checkAvailability(anyList(), any())).thenReturn(Mono.just(true));
+        when(paymentClient.authorizePayment(anyString(), anyString(), anyDouble(), any()))
+                .thenReturn(Mono.just(Optional.of("payment-1")));
+        when(paymentClient.capturePayment(eq("payment-1"), any())).thenReturn(Mono.just(true));
+
+        // Act
+        OrderResponse response = service.createOrder(createSampleOrderRequest()).block();
+
+        // Assert
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Order could not be stored", response.getMessage());
+        assertNotNull(response.getOrderId());
+        assertEquals(142.50, response.getTotalAmount(), 0.01);
+        verify(paymentClient, never()).voidPayment(anyString(), any());
+    }
+
+    private ReactiveOrderService createService(String orchestration) {
+        return new ReactiveOrderService(inventoryClient, paymentClient, tracer, orderService, orders,
+                new TimeOrderedOrderIdGenerator(), orchestration);
+    }
+
+    private OrderRequest createSampleOrderRequest() {
+        OrderRequest.OrderItem item1 = OrderRequest.OrderItem.builder()
+                .productId("WIDGET-001")
+                .quantity(2)
+                .price(29.99)
+                .build();
+
+        OrderRequest.OrderItem item2 = OrderRequest.OrderItem.builder()
+                .productId("GADGET-042")
+                .quantity(1)
+                .price(82.52)
+                .build();
+
+        return OrderRequest.builder()
+                .customerId("customer-123")
+                .items(Arrays.asList(item1, item2))
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+import com.novamart.order.model.OrderRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the persistent order store (snapshots and write-ahead log).
+ *
+ * Tests:
+ * - Orders survive a clean restart
+ * - Orders survive a crash (no close), ignoring a torn record at the log tail
+ * - Snapshot retention and fallback to the previous snapshot on corruption
+ * - Snapshot-only persistence
+ * - Concurrent puts are all durable
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class DurableOrderStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecover_AfterCleanShutdown() throws Exception {
+        // Arrange
+        DurableOrderStore store = open(new InMemoryOrderStore());
+        store.put(createOrder("order-1"));
+        store.put(createOrder("order-2"));
+        store.close();
+
+        // Act
+        InMemoryOrderStore recovered = new InMemoryOrderStore();
+        open(recovered).close();
+
+        // Assert
+        assertEquals(2, recovered.size());
+        assertEquals(createOrder("order-1"), recovered.get("order-1").orElseThrow());
+    }
+
+    @Test
+    void testRecover_AfterCrashIgnoresTornTail() throws Exception {
+        // Arrange - No close, then a half-written record at the end of the log
+        DurableOrderStore store = open(new InMemoryOrderStore());
+        store.put(createOrder("order-1"));
+        List<Long> segments = OrderLogFiles.segmentIds(directory);
+        Path lastSegment = OrderLogFiles.segmentPath(directory, segments.get(segments.size() - 1));
+        Files.write(lastSegment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        // Act
+        InMemoryOrderStore recovered = new InMemoryOrderStore();
+        open(recovered).close();
+
+        // Assert
+        assertEquals(1, recovered.size());
+        assertTrue(recovered.get("order-1").isPresent());
+    }
+
+    @Test
+    void testSnapshot_KeepsOnlyThePreviousSnapshotAndNewerSegments() throws Exception {
+        // Arrange
+        DurableOrderStore store = open(new InMemoryOrderStore());
+        store.put(createOrder("order-1"));
+        store.snapshot();
+        store.put(createOrder("order-2"));
+
+        // Act
+        store.snapshot();
+        store.put(createOrder("order-3"));
+
+        // Assert
+        List<Long> snapshots = OrderLogFiles.snapshotIds(directory);
+        assertEquals(2, snapshots.size());
+        assertTrue(OrderLogFiles.segmentIds(directory).stream().allMatch(id -> id >= snapshots.get(0)));
+
+        InMemoryOrderStore recovered = new InMemoryOrderStore();
+        open(recovered).close();
+        assertEquals(3, recovered.size());
+    }
+
+    @Test
+    void testRestore_FallsBackWhenNewestSnapshotIsCorrupt() throws Exception {
+        // Arrange
+        DurableOrderStore store = open(new InMemoryOrderStore());
+        store.put(createOrder("order-1"));
+        store.snapshot();
+        store.put(createOrder("order-2"));
+        store.snapshot();
+        List<Long> snapshots = OrderLogFiles.snapshotIds(directory);
+        Path newest = OrderLogFiles.snapshotPath(directory, snapshots.get(snapshots.size() - 1));
+        byte[] bytes = Files.readAllBytes(newest);
+        bytes[40] ^= 0x7f;
+        Files.write(newest, bytes);
+
+        // Act
+        InMemoryOrderStore recovered = new InMemoryOrderStore();
+        DurableOrderStore reopened = open(recovered);
+
+        // Assert - Older snapshot plus the log after it still yields every order
+        assertEquals(2, recovered.size());
+        assertEquals(1, reopened.getRestoreReport().snapshotOrders());
+        assertEquals(1, reopened.getRestoreReport().logOrders());
+        reopened.close();
+    }
+
+    @Test
+    void testRestore_SnapshotOnlyAfterCleanShutdown() throws Exception {
+        // Arrange
+        DurableOrderStore store = new DurableOrderStore(new InMemoryOrderStore(), directory, false,
+                1024 * 1024, 64, Duration.ofHours(1), new SimpleMeterRegistry());
+        store.put(createOrder("order-1"));
+        store.close();
+
+        // Act
+        InMemoryOrderStore recovered = new InMemoryOrderStore();
+        DurableOrderStore reopened = new DurableOrderStore(recovered, directory, false,
+                1024 * 1024, 64, Duration.ofHours(1), new SimpleMeterRegistry());
+
+        // Assert
+        assertTrue(OrderLogFiles.segmentIds(directory).isEmpty());
+        assertEquals(createOrder("order-1"), recovered.get("order-1").orElseThrow());
+        assertEquals(1, reopened.getRestoreReport().snapshotOrders());
+        assertTrue(reopened.getRestoreReport().snapshotBytes() > 0);
+        reopened.close();
+    }
+
+    @Test
+    void testPut_ConcurrentPutsAreAllDurable() throws Exception {
+        // Arrange
+        DurableOrderStore store = open(new InMemoryOrderStore());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            String orderId = "order-" + i;
+            futures.add(executor.submit(() -> store.put(createOrder(orderId))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Assert - Recover from the log alone, without the final snapshot
+        InMemoryOrderStore recovered = new InMemoryOrderStore();
+        open(recovered).close();
+        assertEquals(200, recovered.size());
+    }
+
+    private DurableOrderStore open(OrderStore delegate) {
+        return new DurableOrderStore(delegate, directory, true, 1024 * 1024, 64, Duration.ofHours(1),
+                new SimpleMeterRegistry());
+    }
+
+    private Order createOrder(String orderId) {
+        Instant createdAt = Instant.ofEpochSecond(1_700_000_000L);
+        return Order.builder()
+                .orderId(orderId)
+                .customerId("cust-001")
+                .items(List.of(OrderRequest.OrderItem.builder()
+                        .productId("WIDGET-001").quantity(2).price(29.99).build()))
+                .totalAmount(59.98)
+                .status("CONFIRMED")
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+}
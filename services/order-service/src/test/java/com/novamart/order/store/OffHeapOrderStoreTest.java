@@ -0,0 +1,178 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+import com.novamart.order.model.OrderRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the off-heap order store and its binary order encoding.
+ *
+ * Tests:
+ * - Encode/decode round trip, including nulls and non-standard statuses
+ * - Orders read back intact from direct-memory slabs
+ * - Oldest slab is recycled once the ring is full
+ * - Evicted orders are reported once each, without blocking other writers
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class OffHeapOrderStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testCodec_RoundTrip() {
+        // Arrange
+        Order order = createOrder("order-1", "CONFIRMED");
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+
+        // Act
+        OrderCodec.encode(order, buffer);
+        buffer.flip();
+        Order decoded = OrderCodec.decode(buffer);
+
+        // Assert
+        assertEquals(order, decoded);
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void testCodec_RoundTripWithNullsAndCustomStatus() {
+        // Arrange
+        Order order = Order.builder()
+                .orderId("order-2")
+                .status("REFUNDED")
+                .createdAt(Instant.ofEpochSecond(1_700_000_000L, 123_456_789))
+                .build();
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+
+        // Act
+        OrderCodec.encode(order, buffer);
+        buffer.flip();
+        Order decoded = OrderCodec.decode(buffer);
+
+        // Assert
+        assertEquals(order, decoded);
+        assertNull(decoded.getCustomerId());
+        assertNull(decoded.getItems());
+        assertNull(decoded.getUpdatedAt());
+    }
+
+    @Test
+    void testGet_ReturnsStoredOrder() {
+        // Arrange
+        OffHeapOrderStore store = new OffHeapOrderStore(64 * 1024, 4, meterRegistry);
+        Order order = createOrder("order-1", "CONFIRMED");
+
+        // Act
+        store.put(order);
+
+        // Assert
+        assertEquals(order, store.get("order-1").orElseThrow());
+        assertTrue(store.get("order-unknown").isEmpty());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testPut_RecyclesOldestSlabWhenFull() {
+        // Arrange - Slabs small enough to hold only a few orders each
+        OffHeapOrderStore store = new OffHeapOrderStore(512, 2, meterRegistry);
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            store.put(createOrder("order-" + i, "CONFIRMED"));
+        }
+
+        // Assert
+        assertTrue(store.get("order-0").isEmpty());
+        assertEquals("order-49", store.get("order-49").orElseThrow().getOrderId());
+        assertTrue(store.size() < 50);
+        assertEquals(50 - store.size(),
+                meterRegistry.get("order.store.evictions").functionCounter().count());
+    }
+
+    @Test
+    void testOnEviction_ReportsEachEvictedOrderOnce() {
+        // Arrange
+        OffHeapOrderStore store = new OffHeapOrderStore(512, 2, meterRegistry);
+        List<String> evicted = new ArrayList<>();
+        store.onEviction(order -> evicted.add(order.getOrderId()));
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            store.put(createOrder("order-" + i, "CONFIRMED"));
+        }
+
+        // Assert
+        assertEquals(50 - store.size(), evicted.size());
+        assertEquals(evicted.size(), new HashSet<>(evicted).size(), "Orders reported more than once");
+        evicted.forEach(orderId -> assertTrue(store.get(orderId).isEmpty(), orderId + " is still stored"));
+        assertEquals(3 * 512.0, meterRegistry.get("order.store.offheap.bytes").gauge().value(),
+                "Ring slabs plus one spare");
+    }
+
+    @Test
+    void testOnEviction_DoesNotBlockOtherWriters() throws Exception {
+        // Arrange - The listener stalls on the first eviction
+        OffHeapOrderStore store = new OffHeapOrderStore(512, 2, meterRegistry);
+        CountDownLatch evicting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        store.onEviction(order -> {
+            evicting.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> filler = executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    store.put(createOrder("order-" + i, "CONFIRMED"));
+                }
+            });
+            assertTrue(evicting.await(5, TimeUnit.SECONDS));
+
+            // Act - Another writer stores an order while the eviction is being reported
+            Future<?> writer = executor.submit(() -> store.put(createOrder("other-order", "CONFIRMED")));
+
+            // Assert
+            writer.get(5, TimeUnit.SECONDS);
+            assertTrue(store.get("other-order").isPresent());
+            release.countDown();
+            filler.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private Order createOrder(String orderId, String status) {
+        Instant now = Instant.now();
+        return Order.builder()
+                .orderId(orderId)
+                .customerId("cust-001")
+                .items(List.of(
+                        OrderRequest.OrderItem.builder().productId("WIDGET-001").quantity(2).price(29.99).build(),
+                        OrderRequest.OrderItem.builder().productId("GADGET-002").quantity(1).price(49.99).build()))
+                .totalAmount(109.97)
+                .status(status)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,296 @@
+package com.novamart.order.store;
+
+import com.novamart.order.model.Order;
+import com.novamart.order.model.OrderRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the group-commit write-ahead log.
+ *
+ * Tests:
+ * - Appends after close fail instead of waiting
+ * - Appends racing close either become durable or fail; none is left waiting
+ * - A failed sync is cut off the log, so replay does not bring its orders back
+ * - The log stops when a failed sync cannot be cut off
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class OrderWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppend_AfterCloseFails() throws Exception {
+        // Arrange
+        OrderWriteAheadLog wal = open(1);
+        wal.close();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> wal.append(createOrder("order-1")));
+    }
+
+    @Test
+    void testClose_WhileAppendingLeavesNoAppendWaiting() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; round++) {
+                // Arrange
+                OrderWriteAheadLog wal = open(round * 1000L + 1);
+                Set<String> durable = ConcurrentHashMap.newKeySet();
+                AtomicInteger rejected = new AtomicInteger();
+                CountDownLatch started = new CountDownLatch(8);
+                List<Future<?>> appenders = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    String prefix = "order-" + round + "-" + t + "-";
+                    appenders.add(executor.submit(() -> {
+                        started.countDown();
+                        for (int i = 0; ; i++) {
+                            try {
+                                wal.append(createOrder(prefix + i));
+                                durable.add(prefix + i);
+                            } catch (IllegalStateException e) {
+                                rejected.incrementAndGet();
+                                return;
+                            }
+                        }
+                    }));
+                }
+
+                // Act - Close while the appenders are mid-flight
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+                wal.close();
+
+                // Assert - Every appender sees its append rejected rather than hanging
+                for (Future<?> appender : appenders) {
+                    appender.get(10, TimeUnit.SECONDS);
+                }
+                assertEquals(8, rejected.get());
+
+                Set<String> logged = new HashSet<>();
+                for (long segmentId : OrderLogFiles.segmentIds(directory)) {
+                    if (segmentId > round * 1000L) {
+                        OrderLogFiles.replay(OrderLogFiles.segmentPath(directory, segmentId),
+                                order -> logged.add(order.getOrderId()));
+                    }
+                }
+                assertTrue(logged.containsAll(durable), "Acknowledged appends missing from the log");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testAppend_FailedSyncIsNotReplayed() throws Exception {
+        // Arrange
+        FaultyChannels channels = new FaultyChannels();
+        OrderWriteAheadLog wal = open(1, channels);
+        wal.append(createOrder("order-1"));
+
+        // Act - The frame is written but the fsync fails
+        channels.failForce = true;
+        assertThrows(UncheckedIOException.class, () -> wal.append(createOrder("order-2")));
+        channels.failForce = false;
+        wal.append(createOrder("order-3"));
+        wal.close();
+
+        // Assert
+        assertEquals(Set.of("order-1", "order-3"), replayAll());
+    }
+
+    @Test
+    void testAppend_StopsWhenFailedSyncCannotBeDiscarded() throws Exception {
+        // Arrange
+        FaultyChannels channels = new FaultyChannels();
+        OrderWriteAheadLog wal = open(1, channels);
+        wal.append(createOrder("order-1"));
+
+        // Act - Neither the fsync nor the truncate that would undo the write succeeds
+        channels.failForce = true;
+        channels.failTruncate = true;
+        assertThrows(UncheckedIOException.class, () -> wal.append(createOrder("order-2")));
+        channels.failForce = false;
+        channels.failTruncate = false;
+
+        // Assert - Later orders are rejected instead of being written where replay cannot reach them
+        assertThrows(IllegalStateException.class, () -> wal.append(createOrder("order-3")));
+        wal.close();
+        assertFalse(replayAll().contains("order-3"));
+    }
+
+    private Set<String> replayAll() throws IOException {
+        Set<String> logged = new HashSet<>();
+        for (long segmentId : OrderLogFiles.segmentIds(directory)) {
+            OrderLogFiles.replay(OrderLogFiles.segmentPath(directory, segmentId),
+                    order -> logged.add(order.getOrderId()));
+        }
+        return logged;
+    }
+
+    private OrderWriteAheadLog open(long firstSegmentId, FaultyChannels channels) {
+        return new OrderWriteAheadLog(directory, firstSegmentId, 1024 * 1024, 64, new SimpleMeterRegistry(),
+                channels::open);
+    }
+
+    private OrderWriteAheadLog open(long firstSegmentId) {
+        return new OrderWriteAheadLog(directory, firstSegmentId, 1024 * 1024, 64, new SimpleMeterRegistry());
+    }
+
+    private Order createOrder(String orderId) {
+        Instant createdAt = Instant.ofEpochSecond(1_700_000_000L);
+        return Order.builder()
+                .orderId(orderId)
+                .customerId("cust-001")
+                .items(List.of(OrderRequest.OrderItem.builder()
+                        .productId("WIDGET-001").quantity(2).price(29.99).build()))
+                .totalAmount(59.98)
+                .status("CONFIRMED")
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+
+    /**
+     * Opens real segment files whose channels can be told to fail force or truncate.
+     */
+    private static final class FaultyChannels {
+
+        private volatile boolean failForce;
+        private volatile boolean failTruncate;
+
+        FileChannel open(Path path) throws IOException {
+            return new FaultyChannel(FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE, StandardOpenOption.READ));
+        }
+
+        private final class FaultyChannel extends FileChannel {
+
+            private final FileChannel delegate;
+
+            FaultyChannel(FileChannel delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void force(boolean metaData) throws IOException {
+                if (failForce) {
+                    throw new IOException("fsync failed");
+                }
+                delegate.force(metaData);
+            }
+
+            @Override
+            public FileChannel truncate(long size) throws IOException {
+                if (failTruncate) {
+                    throw new IOException("truncate failed");
+                }
+                delegate.truncate(size);
+                return this;
+            }
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                return delegate.read(dst);
+            }
+
+            @Override
+            public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+                return delegate.read(dsts, offset, length);
+            }
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                return delegate.write(src);
+            }
+
+            @Override
+            public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+                return delegate.write(srcs, offset, length);
+            }
+
+            @Override
+            public long position() throws IOException {
+                return delegate.position();
+            }
+
+            @Override
+            public FileChannel position(long newPosition) throws IOException {
+                delegate.position(newPosition);
+                return this;
+            }
+
+            @Override
+            public long size() throws IOException {
+                return delegate.size();
+            }
+
+            @Override
+            public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+                return delegate.transferTo(position, count, target);
+            }
+
+            @Override
+            public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+                return delegate.transferFrom(src, position, count);
+            }
+
+            @Override
+            public int read(ByteBuffer dst, long position) throws IOException {
+                return delegate.read(dst, position);
+            }
+
+            @Override
+            public int write(ByteBuffer src, long position) throws IOException {
+                return delegate.write(src, position);
+            }
+
+            @Override
+            public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+                return delegate.map(mode, position, size);
+            }
+
+            @Override
+            public FileLock lock(long position, long size, boolean shared) throws IOException {
+                return delegate.lock(position, size, shared);
+            }
+
+            @Override
+            public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+                return delegate.tryLock(position, size, shared);
+            }
+
+            @Override
+            protected void implCloseChannel() throws IOException {
+                delegate.close();
+            }
+        }
+    }
+}
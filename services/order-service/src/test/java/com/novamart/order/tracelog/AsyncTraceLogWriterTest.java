@@ -0,0 +1,208 @@
+package com.novamart.order.tracelog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the background trace log writer.
+ *
+ * Tests:
+ * - Queued records are written in batches of at most batch-size, in order
+ * - Records are dropped and counted when the queue is full, the writer is off, or the write fails
+ * - Shutdown flushes everything still queued and closes the sink
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class AsyncTraceLogWriterTest {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingSink sink = new RecordingSink();
+    private AsyncTraceLogWriter writer;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        sink.release.countDown();
+        if (writer != null) {
+            writer.destroy();
+        }
+    }
+
+    @Test
+    void testOffer_WritesRecordsInBatches() throws Exception {
+        // Arrange
+        writer = createWriter(TraceLogMode.ASYNC, 64, 4, 1);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            assertTrue(writer.offer(createRecord(i), NO_DEADLINE));
+        }
+        sink.awaitRecords(10);
+
+        // Assert
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), sink.timestamps());
+        assertTrue(sink.batchSizes().stream().allMatch(size -> size >= 1 && size <= 4),
+                "Batch sizes " + sink.batchSizes());
+        assertEquals(10.0, counter("order.trace_log.written"));
+        assertEquals(0.0, counter("order.trace_log.dropped"));
+    }
+
+    @Test
+    void testOffer_DropsAndCountsWhenQueueIsFull() throws Exception {
+        // Arrange - The sink holds the writer inside its first append
+        sink.blockAppends = true;
+        writer = createWriter(TraceLogMode.ASYNC, 2, 8, 1);
+        assertTrue(writer.offer(createRecord(0), NO_DEADLINE));
+        assertTrue(sink.appendStarted.await(5, TimeUnit.SECONDS));
+
+        // Act - The queue (capacity 2) fills while the writer is stuck
+        assertTrue(writer.offer(createRecord(1), NO_DEADLINE));
+        assertTrue(writer.offer(createRecord(2), NO_DEADLINE));
+        boolean accepted = writer.offer(createRecord(3), NO_DEADLINE);
+
+        // Assert
+        assertFalse(accepted);
+        assertEquals(1.0, counter("order.trace_log.dropped"));
+
+        sink.release.countDown();
+        sink.awaitRecords(3);
+        assertEquals(List.of(0L, 1L, 2L), sink.timestamps());
+    }
+
+    @Test
+    void testOffer_DropsWhenWriterIsNotRunning() {
+        // Arrange - Blocking mode starts no writer thread
+        writer = createWriter(TraceLogMode.BLOCKING, 64, 4, 1);
+
+        // Act
+        boolean accepted = writer.offer(createRecord(0), NO_DEADLINE);
+
+        // Assert
+        assertFalse(accepted);
+        assertEquals(1.0, counter("order.trace_log.dropped"));
+    }
+
+    @Test
+    void testWriteBatch_CountsFailedBatchAsDropped() throws Exception {
+        // Arrange
+        sink.failAppends = true;
+        writer = createWriter(TraceLogMode.ASYNC, 64, 8, 60_000);
+
+        // Act
+        writer.offer(createRecord(0), NO_DEADLINE);
+        writer.offer(createRecord(1), NO_DEADLINE);
+        writer.destroy();
+
+        // Assert
+        assertEquals(2.0, counter("order.trace_log.dropped"));
+        assertEquals(0.0, counter("order.trace_log.written"));
+    }
+
+    @Test
+    void testDestroy_FlushesQueuedRecordsAndClosesSink() throws Exception {
+        // Arrange - A long flush interval keeps the writer parked while records queue up
+        writer = createWriter(TraceLogMode.ASYNC, 64, 4, 60_000);
+        for (int i = 0; i < 10; i++) {
+            writer.offer(createRecord(i), NO_DEADLINE);
+        }
+
+        // Act
+        writer.destroy();
+
+        // Assert
+        assertEquals(10, sink.timestamps().size());
+        assertEquals(10.0, counter("order.trace_log.written"));
+        assertTrue(sink.closed);
+        assertFalse(writer.offer(createRecord(10), NO_DEADLINE), "Records offered after shutdown are dropped");
+    }
+
+    private AsyncTraceLogWriter createWriter(TraceLogMode mode, int queueCapacity, int batchSize,
+                                             long flushIntervalMs) {
+        return new AsyncTraceLogWriter(meterRegistry, mode, sink, queueCapacity, batchSize, flushIntervalMs);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private TraceRecord createRecord(long timestamp) {
+        return new TraceRecord(timestamp, "", "", "order-" + timestamp, "customer-1", 1, "CONFIRMED",
+                100L, 1L, 40L, 50L, 9L);
+    }
+
+    /**
+     * Sink that records every batch and can be made to block or fail.
+     */
+    private static final class RecordingSink implements TraceLogSink {
+
+        private final List<List<TraceRecord>> batches = new ArrayList<>();
+        private final CountDownLatch appendStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blockAppends;
+        private volatile boolean failAppends;
+        private volatile boolean closed;
+
+        @Override
+        public void append(List<TraceRecord> batch) throws IOException {
+            appendStarted.countDown();
+            if (blockAppends) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failAppends) {
+                throw new IOException("disk full");
+            }
+            synchronized (batches) {
+                batches.add(List.copyOf(batch));
+                batches.notifyAll();
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        void awaitRecords(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            synchronized (batches) {
+                while (recordCount() < count) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        fail("Only " + recordCount() + " of " + count + " records were written");
+                    }
+                    batches.wait(remaining);
+                }
+            }
+        }
+
+        List<Long> timestamps() {
+            synchronized (batches) {
+                return batches.stream().flatMap(List::stream).map(TraceRecord::timestampMillis).toList();
+            }
+        }
+
+        List<Integer> batchSizes() {
+            synchronized (batches) {
+                return batches.stream().map(List::size).toList();
+            }
+        }
+
+        private int recordCount() {
+            return batches.stream().mapToInt(List::size).sum();
+        }
+    }
+}
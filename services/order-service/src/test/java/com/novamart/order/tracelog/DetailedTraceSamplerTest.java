@@ -0,0 +1,79 @@
+package com.novamart.order.tracelog;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for detailed trace sampling.
+ *
+ * Tests:
+ * - Disabled and always-on sampling
+ * - Trace-ID keyed decisions are deterministic and close to the configured rate
+ * - Configuration validation
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class DetailedTraceSamplerTest {
+
+    private static final String SPAN_ID = "b7ad6b7169203331";
+
+    @Test
+    void testShouldSample_Disabled() {
+        DetailedTraceSampler sampler = createSampler(false, 1.0);
+
+        assertFalse(sampler.shouldSample(SpanContext.getInvalid()));
+    }
+
+    @Test
+    void testShouldSample_FullRateSamplesEverything() {
+        DetailedTraceSampler sampler = createSampler(true, 1.0);
+
+        assertTrue(sampler.shouldSample(SpanContext.getInvalid()));
+        assertTrue(sampler.shouldSample(spanContext(1L)));
+    }
+
+    @Test
+    void testShouldSample_KeyedOnTraceIdIsDeterministic() {
+        DetailedTraceSampler sampler = createSampler(true, 0.01);
+
+        // The same trace always gets the same decision
+        for (long i = 0; i < 100; i++) {
+            SpanContext context = spanContext(i * 0x9E3779B97F4A7C15L);
+            assertEquals(sampler.shouldSample(context), sampler.shouldSample(context));
+        }
+    }
+
+    @Test
+    void testShouldSample_KeyedOnTraceIdApproximatesRate() {
+        DetailedTraceSampler sampler = createSampler(true, 0.01);
+
+        int sampled = 0;
+        for (long i = 1; i <= 100_000; i++) {
+            if (sampler.shouldSample(spanContext(i * 0x9E3779B97F4A7C15L))) {
+                sampled++;
+            }
+        }
+
+        // 1% of 100k with generous tolerance
+        assertTrue(sampled > 700 && sampled < 1300, "Sampled " + sampled + " of 100000");
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> createSampler(true, 1.5));
+    }
+
+    private DetailedTraceSampler createSampler(boolean enabled, double rate) {
+        return new DetailedTraceSampler(enabled, rate, "trace-id", 200, new SimpleMeterRegistry());
+    }
+
+    private SpanContext spanContext(long randomPart) {
+        String traceId = "0af7651916cd43dd" + String.format("%016x", randomPart);
+        return SpanContext.create(traceId, SPAN_ID, TraceFlags.getSampled(), TraceState.getDefault());
+    }
+}
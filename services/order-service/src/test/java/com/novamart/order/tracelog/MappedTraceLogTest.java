@@ -0,0 +1,111 @@
+package com.novamart.order.tracelog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the memory-mapped binary trace log.
+ *
+ * Tests:
+ * - Round trip of fixed-size records
+ * - Resuming an existing segment after reopening
+ * - Segment rollover and retention
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class MappedTraceLogTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+    private static final String SPAN_ID = "b7ad6b7169203331";
+    private static final String ORDER_ID = "0190a8c2-7d3e-7c41-9a6b-2f4e8d1c3b5a";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendAndScan_RoundTrip() throws Exception {
+        // Arrange
+        MappedTraceLog traceLog = new MappedTraceLog(directory, 1024 * 1024, 4);
+
+        // Act
+        traceLog.append(List.of(createRecord(1000L, "CONFIRMED")));
+        traceLog.close();
+
+        List<TraceRecord> records = new ArrayList<>();
+        traceLog.scan(records::add);
+
+        // Assert
+        assertEquals(1, records.size());
+        TraceRecord record = records.get(0);
+        assertEquals(1000L, record.timestampMillis());
+        assertEquals(TRACE_ID, record.traceId());
+        assertEquals(SPAN_ID, record.spanId());
+        assertEquals(ORDER_ID, record.orderId());
+        assertNull(record.customerId(), "Customer IDs are not stored in the binary format");
+        assertEquals(2, record.itemCount());
+        assertEquals("CONFIRMED", record.status());
+        assertEquals(500L, record.durationNanos());
+        assertEquals(10L, record.calculationNanos());
+        assertEquals(200L, record.inventoryNanos());
+        assertEquals(250L, record.paymentNanos());
+        assertEquals(40L, record.storeNanos());
+    }
+
+    @Test
+    void testAppend_ResumesExistingSegment() throws Exception {
+        // Arrange
+        MappedTraceLog first = new MappedTraceLog(directory, 1024 * 1024, 4);
+        first.append(List.of(createRecord(1L, "CONFIRMED"), createRecord(2L, "FAILED")));
+        first.close();
+
+        // Act - A new instance (e.g. after restart) continues after the last record
+        MappedTraceLog second = new MappedTraceLog(directory, 1024 * 1024, 4);
+        second.append(List.of(createRecord(3L, "CONFIRMED")));
+        second.close();
+
+        // Assert
+        List<TraceRecord> records = new ArrayList<>();
+        second.scan(records::add);
+        assertEquals(List.of(1L, 2L, 3L), records.stream().map(TraceRecord::timestampMillis).toList());
+        assertEquals(1, countSegments());
+    }
+
+    @Test
+    void testAppend_RollsOverAndEnforcesRetention() throws Exception {
+        // Arrange - Segments hold 4 records, keep at most 2 segments
+        MappedTraceLog traceLog = new MappedTraceLog(directory, 4L * MappedTraceLog.RECORD_SIZE, 2);
+        List<TraceRecord> batch = new ArrayList<>();
+        for (long i = 0; i < 10; i++) {
+            batch.add(createRecord(i, "CONFIRMED"));
+        }
+
+        // Act
+        traceLog.append(batch);
+        traceLog.close();
+
+        // Assert - Oldest segment was deleted, the newest 6 records remain
+        List<TraceRecord> records = new ArrayList<>();
+        traceLog.scan(records::add);
+        assertEquals(2, countSegments());
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L, 9L), records.stream().map(TraceRecord::timestampMillis).toList());
+    }
+
+    private long countSegments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private TraceRecord createRecord(long timestampMillis, String status) {
+        return new TraceRecord(timestampMillis, TRACE_ID, SPAN_ID, ORDER_ID, "customer-123",
+                2, status, 500L, 10L, 200L, 250L, 40L);
+    }
+}
@@ -0,0 +1,147 @@
+package com.novamart.order.tracelog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the lock-free multi-producer / single-consumer ring buffer.
+ *
+ * Tests:
+ * - Concurrent producers against one consumer lose and duplicate nothing, in order per producer
+ * - A full buffer rejects offers without waiting for the deadline
+ * - Sequence numbers stay correct across many wrap-arounds
+ *
+ * Workshop: From Commit to Culprit - Order Service Tests
+ */
+class MpscRingBufferTest {
+
+    @Test
+    void testConstructor_RoundsCapacityUpToPowerOfTwo() {
+        assertEquals(8, new MpscRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<Integer>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new MpscRingBuffer<Integer>(1));
+    }
+
+    @Test
+    void testOfferAndDrain_MultipleProducersNoLossOrDuplicates() throws Exception {
+        // Arrange
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(256);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Act - Each producer offers (producer, sequence) pairs, spinning while the buffer is full
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(new long[]{producer, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer) {
+            assertTrue(System.nanoTime() < deadline, "Consumer timed out after " + received + " elements");
+            received += buffer.drain(element -> {
+                int producer = (int) element[0];
+                assertEquals(nextExpected[producer], element[1], "Out of order for producer " + producer);
+                nextExpected[producer]++;
+            }, 64);
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer, nextExpected[p]);
+        }
+        assertEquals(0, buffer.drain(element -> fail("Unexpected extra element"), Integer.MAX_VALUE));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testOffer_FullBufferRejectsWithoutWaitingForDeadline() {
+        // Arrange
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        // Act - A deadline far in the future must not turn a full buffer into a wait
+        long started = System.nanoTime();
+        boolean accepted = buffer.offer(99, started + TimeUnit.SECONDS.toNanos(10));
+        long elapsed = System.nanoTime() - started;
+
+        // Assert
+        assertFalse(accepted);
+        assertFalse(buffer.offer(99));
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(1), "Offer waited " + elapsed + "ns");
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+        assertEquals(List.of(0, 1, 2, 3), drained);
+    }
+
+    @Test
+    void testOffer_AcceptsAgainOnceDrained() {
+        // Arrange
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(2);
+        buffer.offer(1);
+        buffer.offer(2);
+        assertFalse(buffer.offer(3));
+
+        // Act
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(1, buffer.drain(drained::add, 1));
+
+        // Assert
+        assertTrue(buffer.offer(3));
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+        assertEquals(List.of(1, 2, 3), drained);
+    }
+
+    @Test
+    void testOfferAndDrain_WrapAround() {
+        // Arrange
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+
+        // Act - Batches of 3 in a buffer of 4 straddle the end of the slot array every round
+        int next = 0;
+        for (int round = 0; round < 1000; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            assertEquals(3, buffer.size());
+            assertEquals(3, buffer.drain(drained::add, Integer.MAX_VALUE));
+        }
+
+        // Assert
+        assertEquals(next, drained.size());
+        for (int i = 0; i < next; i++) {
+            assertEquals(i, drained.get(i));
+        }
+    }
+}
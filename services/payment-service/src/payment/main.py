@@ -254,6 +254,209 @@ async def process_payment(payment_request: PaymentRequest) -> PaymentResponse:
                 return payment
 
 
+@app.post(
+    "/api/payments/authorize",
+    response_model=PaymentResponse,
+    status_code=status.HTTP_201_CREATED,
+    tags=["payments"],
+)
+async def authorize_payment(payment_request: PaymentRequest) -> PaymentResponse:
+    """
+    Place a hold for an order's amount without taking the money.
+
+    The hold is later captured (order confirmed) or voided (order abandoned),
+    which lets the Order Service authorize payment while it is still checking
+    inventory. Declines follow the same deterministic 1% rule as /api/payments.
+
+    Args:
+        payment_request: Payment details including order_id, amount, and method
+
+    Returns:
+        PaymentResponse with status "authorized"
+
+    Raises:
+        HTTPException: 402 if the gateway declines the authorization
+    """
+    with tracer.start_as_current_span("authorize_payment") as span:
+        span.set_attribute("payment.order_id", payment_request.order_id)
+        span.set_attribute("payment.amount", float(payment_request.amount))
+        span.set_attribute("payment.customer_id", payment_request.customer_id)
+
+        logger.info(
+            f"Authorizing payment for order_id={payment_request.order_id} "
+            f"amount={payment_request.amount} {payment_request.currency}"
+        )
+
+        # A retried authorization returns the existing hold instead of placing a second one
+        if payment_request.idempotency_key:
+            for payment in payments_store.values():
+                if payment.order_id == payment_request.order_id and payment.status in (
+                    PaymentStatus.AUTHORIZED,
+                    PaymentStatus.COMPLETED,
+                ):
+                    logger.info(
+                        f"Idempotent authorization detected for order_id={payment_request.order_id}"
+                    )
+                    span.set_attribute("payment.idempotent", True)
+                    return payment
+
+        payment_id = uuid4()
+
+        with tracer.start_as_current_span("payment_gateway_authorize") as gateway_span:
+            gateway_span.set_attribute("gateway.provider", "mock_gateway")
+            gateway_span.set_attribute("gateway.order_id", payment_request.order_id)
+
+            if calculate_failure_probability(payment_request.order_id):
+                gateway_span.set_attribute("gateway.result", "failed")
+                logger.warning(
+                    f"Payment gateway declined authorization for order_id={payment_request.order_id}"
+                )
+
+                payment = PaymentResponse(
+                    payment_id=payment_id,
+                    order_id=payment_request.order_id,
+                    amount=payment_request.amount,
+                    currency=payment_request.currency,
+                    status=PaymentStatus.FAILED,
+                    payment_method=payment_request.payment_method,
+                    failure_reason="Authorization declined by gateway - insufficient funds",
+                )
+
+                payments_store[payment_id] = payment
+                span.set_attribute("payment.status", "failed")
+
+                raise HTTPException(
+                    status_code=status.HTTP_402_PAYMENT_REQUIRED,
+                    detail={
+                        "error": "Authorization declined",
+                        "reason": payment.failure_reason,
+                        "payment_id": str(payment_id),
+                    },
+                )
+
+            gateway_span.set_attribute("gateway.result", "authorized")
+
+        payment = PaymentResponse(
+            payment_id=payment_id,
+            order_id=payment_request.order_id,
+            amount=payment_request.amount,
+            currency=payment_request.currency,
+            status=PaymentStatus.AUTHORIZED,
+            payment_method=payment_request.payment_method,
+        )
+
+        payments_store[payment_id] = payment
+        span.set_attribute("payment.id", str(payment_id))
+        span.set_attribute("payment.status", "authorized")
+        logger.info(
+            f"Payment authorized: payment_id={payment_id} order_id={payment_request.order_id}"
+        )
+
+        return payment
+
+
+def _get_authorized_payment(payment_id: UUID, action: str, done: PaymentStatus) -> PaymentResponse:
+    """
+    Look up a payment that is about to be captured or voided.
+
+    Returns the payment when it is still authorized or already in the target
+    state (so retries are harmless).
+
+    Raises:
+        HTTPException: 404 if the payment does not exist, 409 if it is in any other state
+    """
+    payment = payments_store.get(payment_id)
+    if not payment:
+        logger.warning(f"Cannot {action} unknown payment: payment_id={payment_id}")
+        raise HTTPException(
+            status_code=status.HTTP_404_NOT_FOUND,
+            detail=f"Payment {payment_id} not found",
+        )
+    if payment.status not in (PaymentStatus.AUTHORIZED, done):
+        logger.warning(
+            f"Cannot {action} payment_id={payment_id} in status={payment.status.value}"
+        )
+        raise HTTPException(
+            status_code=status.HTTP_409_CONFLICT,
+            detail=f"Payment {payment_id} is {payment.status.value}, cannot {action}",
+        )
+    return payment
+
+
+@app.post(
+    "/api/payments/{payment_id}/capture",
+    response_model=PaymentResponse,
+    tags=["payments"],
+)
+async def capture_payment(payment_id: UUID) -> PaymentResponse:
+    """
+    Capture an authorized payment, completing it.
+
+    Args:
+        payment_id: The payment returned by /api/payments/authorize
+
+    Returns:
+        PaymentResponse with status "completed" and a transaction ID
+
+    Raises:
+        HTTPException: 404 if not found, 409 if the payment is not authorized
+    """
+    with tracer.start_as_current_span("capture_payment") as span:
+        span.set_attribute("payment.id", str(payment_id))
+
+        payment = _get_authorized_payment(payment_id, "capture", PaymentStatus.COMPLETED)
+        if payment.status == PaymentStatus.AUTHORIZED:
+            payment = payment.model_copy(
+                update={
+                    "status": PaymentStatus.COMPLETED,
+                    "transaction_id": f"TXN-{payment_id.hex[:16].upper()}",
+                    "updated_at": datetime.utcnow(),
+                }
+            )
+            payments_store[payment_id] = payment
+            logger.info(
+                f"Payment captured: payment_id={payment_id} order_id={payment.order_id} "
+                f"transaction_id={payment.transaction_id}"
+            )
+
+        span.set_attribute("payment.status", payment.status.value)
+        span.set_attribute("payment.transaction_id", payment.transaction_id)
+        return payment
+
+
+@app.post(
+    "/api/payments/{payment_id}/void",
+    response_model=PaymentResponse,
+    tags=["payments"],
+)
+async def void_payment(payment_id: UUID) -> PaymentResponse:
+    """
+    Release an authorization hold without taking the money.
+
+    Args:
+        payment_id: The payment returned by /api/payments/authorize
+
+    Returns:
+        PaymentResponse with status "voided"
+
+    Raises:
+        HTTPException: 404 if not found, 409 if the payment was already captured
+    """
+    with tracer.start_as_current_span("void_payment") as span:
+        span.set_attribute("payment.id", str(payment_id))
+
+        payment = _get_authorized_payment(payment_id, "void", PaymentStatus.VOIDED)
+        if payment.status == PaymentStatus.AUTHORIZED:
+            payment = payment.model_copy(
+                update={"status": PaymentStatus.VOIDED, "updated_at": datetime.utcnow()}
+            )
+            payments_store[payment_id] = payment
+            logger.info(f"Payment voided: payment_id={payment_id} order_id={payment.order_id}")
+
+        span.set_attribute("payment.status", payment.status.value)
+        return payment
+
+
 @app.get(
     "/api/payments/{payment_id}",
     response_model=PaymentResponse,
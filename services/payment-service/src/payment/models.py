@@ -28,8 +28,10 @@ class PaymentStatus(str, Enum):
 
     PENDING = "pending"
     PROCESSING = "processing"
+    AUTHORIZED = "authorized"
     COMPLETED = "completed"
     FAILED = "failed"
+    VOIDED = "voided"
     REFUNDED = "refunded"
 
 
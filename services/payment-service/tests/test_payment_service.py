@@ -120,6 +120,78 @@ def test_process_and_retrieve_payment(client):
         assert float(retrieved_data["amount"]) == 99.99
 
 
+def authorize(client, order_id: str):
+    """Authorize a payment for the given order."""
+    return client.post(
+        "/api/payments/authorize",
+        json={
+            "order_id": order_id,
+            "amount": 25.00,
+            "currency": "USD",
+            "payment_method": "credit_card",
+            "customer_id": "customer-123",
+        },
+    )
+
+
+def approved_order_id(prefix: str) -> str:
+    """Find an order_id the mock gateway does not decline."""
+    from payment.main import calculate_failure_probability
+
+    return next(
+        f"{prefix}-{i}" for i in range(100) if not calculate_failure_probability(f"{prefix}-{i}")
+    )
+
+
+def test_authorize_and_capture_payment(client):
+    """Test that an authorization hold can be captured exactly once."""
+    response = authorize(client, approved_order_id("order-auth-capture"))
+    assert response.status_code == 201
+    payment = response.json()
+    assert payment["status"] == "authorized"
+    assert payment["transaction_id"] is None
+
+    capture = client.post(f"/api/payments/{payment['payment_id']}/capture")
+    assert capture.status_code == 200
+    assert capture.json()["status"] == "completed"
+    assert capture.json()["transaction_id"].startswith("TXN-")
+
+    # Capturing again is a no-op; voiding a captured payment is a conflict
+    again = client.post(f"/api/payments/{payment['payment_id']}/capture")
+    assert again.json()["transaction_id"] == capture.json()["transaction_id"]
+    assert client.post(f"/api/payments/{payment['payment_id']}/void").status_code == 409
+
+
+def test_authorize_and_void_payment(client):
+    """Test that an authorization hold can be released instead of captured."""
+    payment = authorize(client, approved_order_id("order-auth-void")).json()
+
+    void = client.post(f"/api/payments/{payment['payment_id']}/void")
+    assert void.status_code == 200
+    assert void.json()["status"] == "voided"
+
+    assert client.post(f"/api/payments/{payment['payment_id']}/void").status_code == 200
+    assert client.post(f"/api/payments/{payment['payment_id']}/capture").status_code == 409
+
+
+def test_authorize_declined(client):
+    """Test that declined authorizations return 402 like direct payments."""
+    from payment.main import calculate_failure_probability
+
+    order_id = next(f"order-{i}" for i in range(1000) if calculate_failure_probability(f"order-{i}"))
+
+    response = authorize(client, order_id)
+    assert response.status_code == 402
+
+
+def test_capture_unknown_payment(client):
+    """Test capturing a payment that does not exist."""
+    from uuid import uuid4
+
+    response = client.post(f"/api/payments/{uuid4()}/capture")
+    assert response.status_code == 404
+
+
 def test_currency_uppercase_conversion(client):
     """Test that currency is converted to uppercase."""
     payment_request = {